@@ -1,7 +1,6 @@
 package ch.epfl.chacun;
 
-import java.util.Comparator;
-import java.util.List;
+import java.io.Serial;
 
 /**
  * Helper class to encode the game actions.
@@ -14,13 +13,18 @@ public class ActionEncoder {
     /**
      * When the player doesn't want to add or remove an occupant, send 0b11111.
      */
-    private static final String NO_OCCUPANT_ENCODED_ACTION = Base32.encodeBits5(0b11111);
+    private static final int NO_OCCUPANT_DECODED_ACTION = 0b11111;
+
+    /**
+     * The encoded action sent when the player doesn't want to add or remove an occupant.
+     */
+    private static final String NO_OCCUPANT_ENCODED_ACTION = Base32.encodeBits5(NO_OCCUPANT_DECODED_ACTION);
 
     /**
      * The number of bits to shift to encode the placed tile index.
      * Encoded format: ppppp-ppprr, where p is a bit of the placed tile index and r is a bit of the rotation.
      */
-    private static final int PLACED_TILE_INDEX_SHIFT = 2;
+    static final int PLACED_TILE_INDEX_SHIFT = 2;
 
     /**
      * The mask to apply to the encoded action to get the placed tile index.
@@ -37,7 +41,7 @@ public class ActionEncoder {
      * The number of bits to shift to encode the occupant kind.
      * Encoded format: kzzzz, where k is a bit of the occupant kind and z is a bit of the zone id.
      */
-    private static final int OCCUPANT_KIND_SHIFT = 4;
+    static final int OCCUPANT_KIND_SHIFT = 4;
 
     /**
      * The mask to apply to the encoded action to get the occupant zone id.
@@ -50,35 +54,13 @@ public class ActionEncoder {
      */
     private static final int OCCUPANT_ENCODED_ACTION_LENGTH = 1;
 
-    /**
-     * Sorts the insertion positions of the given game state in ascending order, first by their x-coordinate,
-     * then by their y-coordinate.
-     *
-     * @param gameState the given game state
-     * @return a list containing the sorted positions
-     */
-    private static List<Pos> sortFringe(GameState gameState) {
-        Comparator<Pos> comparator = Comparator.comparing(Pos::x).thenComparing(Pos::y);
-        return gameState.board().insertionPositions().stream().sorted(comparator).toList();
-    }
-
-    /**
-     * Sorts the occupants of the given game state in ascending order by their zone id.
-     *
-     * @param gameState the given game state
-     * @return a list containing the sorted occupants
-     */
-    private static List<Occupant> sortOccupants(GameState gameState) {
-        return gameState.board().occupants().stream()
-                .sorted(Comparator.comparing(Occupant::zoneId))
-                .toList();
-    }
-
     /**
      * Manages the encoding of the action of placing a tile.
      * <p>
-     * Sorts the fringe and encodes the index of the placedTile in the fringe and the applied rotation in a
-     * base 32 string.
+     * Encodes the index of the placedTile in the fringe, sorted by x coordinate then by y coordinate, and the
+     * applied rotation in a base 32 string.
+     * <p>
+     * The board keeps its fringe in this order, so the index is computed without sorting anything.
      * Updates the game state with the new placed tile.
      *
      * @param gameState  the game state to be updated
@@ -86,9 +68,8 @@ public class ActionEncoder {
      * @return a new state action with the updated game state and the encoded action
      */
     public static StateAction withPLacedTile(GameState gameState, PlacedTile placedTile) {
-        List<Pos> sortedFringe = sortFringe(gameState);
         // Encode the placed tile index then shift it of two positions to the left to merge the encoded rotation
-        int fringeBits = sortedFringe.indexOf(placedTile.pos()) << PLACED_TILE_INDEX_SHIFT;
+        int fringeBits = gameState.board().insertionPositionIndex(placedTile.pos()) << PLACED_TILE_INDEX_SHIFT;
         int rotationBits = placedTile.rotation().ordinal();
         return new StateAction(
                 gameState.withPlacedTile(placedTile), Base32.encodeBits10(fringeBits | rotationBits));
@@ -119,7 +100,7 @@ public class ActionEncoder {
     /**
      * Manages the encoding of the action of taking back an occupant.
      * <p>
-     * Encodes the zone id from which the occupant is removed.
+     * Encodes the index of the occupant removed among the occupants of the board sorted by zone id.
      * Updates the given game state with an occupant removed.
      *
      * @param gameState        the game state to be updated
@@ -128,9 +109,8 @@ public class ActionEncoder {
      */
     public static StateAction withOccupantRemoved(GameState gameState, Occupant occupantToRemove) {
         if (occupantToRemove != null) {
-            List<Occupant> sortedOccupants = sortOccupants(gameState);
             // Encode action
-            int occupantIndex = sortedOccupants.indexOf(occupantToRemove);
+            int occupantIndex = gameState.board().occupantIndex(occupantToRemove);
             return new StateAction(
                     gameState.withOccupantRemoved(occupantToRemove), Base32.encodeBits5(occupantIndex));
         }
@@ -145,51 +125,60 @@ public class ActionEncoder {
      * @return a new state action with an updated game state or null if the action is not valid
      */
     public static StateAction decodeAndApply(GameState gameState, String action) {
-        try {
-            return unsafeDecodeAndApply(gameState, action);
-        } catch (IllegalActionException e) {
-            return null;
-        }
+        GameState updatedGameState = apply(gameState, action);
+        return updatedGameState != null ? new StateAction(updatedGameState, action) : null;
     }
 
     /**
-     * Unsafely decodes the given action and applies it to the given game state based on the next action.
+     * Decodes the given action and applies it to the given game state based on the next action, without
+     * creating a state action nor throwing an exception if the action is not valid.
      *
      * @param gameState the game state
      * @param action    the encoded action
-     * @return a new state action with an updated game state
-     * @throws IllegalActionException if the action is illegal
+     * @return the updated game state, or null if the action is not valid
+     */
+    static GameState apply(GameState gameState, CharSequence action) {
+        return apply(gameState, Base32.decode(action, 0, action.length()), action.length());
+    }
+
+    /**
+     * Applies the given decoded action to the given game state based on the next action, without creating a
+     * state action nor throwing an exception if the action is not valid.
+     *
+     * @param gameState     the game state
+     * @param decodedAction the decoded action, or {@link Base32#INVALID} if it is not valid in base 32
+     * @param length        the number of base 32 symbols of the encoded action
+     * @return the updated game state, or null if the action is not valid
      */
-    private static StateAction unsafeDecodeAndApply(GameState gameState, String action) throws IllegalActionException {
-        int decodedAction = Base32.decode(action);
+    static GameState apply(GameState gameState, int decodedAction, int length) {
+        if (decodedAction == Base32.INVALID)
+            return null;
         // Execute the provided action based on the next action context
         return switch (gameState.nextAction()) {
             case PLACE_TILE -> {
                 Rotation placedTileRotation = Rotation.ALL.get(decodedAction & PLACED_TILE_ROTATION_MASK);
                 int posIndex = decodedAction >> PLACED_TILE_INDEX_SHIFT;
-                List<Pos> fringe = sortFringe(gameState);
                 // Check if the all the data is present and if the insertion position exists in the fringe
-                if (action.length() != PLACE_TILE_ENCODED_ACTION_LENGTH || fringe.size() <= posIndex)
-                    throw new IllegalActionException();
+                Pos placedTilePos = gameState.board().insertionPosition(posIndex);
+                if (length != PLACE_TILE_ENCODED_ACTION_LENGTH || placedTilePos == null)
+                    yield null;
 
-                Pos placedTilePos = fringe.get(posIndex);
                 PlacedTile placedTile = new PlacedTile(gameState.tileToPlace(), gameState.currentPlayer(),
                         placedTileRotation, placedTilePos);
 
                 // Check if the tile can be placed
                 if (!gameState.board().canAddTile(placedTile))
-                    throw new IllegalActionException();
+                    yield null;
 
-                yield new StateAction(gameState.withPlacedTile(placedTile), action);
+                yield gameState.withPlacedTile(placedTile);
             }
             case OCCUPY_TILE -> {
                 assert gameState.board().lastPlacedTile() != null;
                 // Check if the player doesn't want to add an occupant
-                if (action.equals(NO_OCCUPANT_ENCODED_ACTION))
-                    yield new StateAction(gameState.withNewOccupant(null), action);
-
-                if (action.length() != OCCUPANT_ENCODED_ACTION_LENGTH)
-                    throw new IllegalActionException();
+                if (length != OCCUPANT_ENCODED_ACTION_LENGTH)
+                    yield null;
+                if (decodedAction == NO_OCCUPANT_DECODED_ACTION)
+                    yield gameState.withNewOccupant(null);
 
                 // Decode the action
                 int occupantLocalId = decodedAction & OCCUPANT_ZONE_MASK;
@@ -202,29 +191,30 @@ public class ActionEncoder {
                 // Check if the occupant can be placed
                 if (gameState.board().lastPlacedTile() == null
                         || !gameState.lastTilePotentialOccupants().contains(newOccupant))
-                    throw new IllegalActionException();
+                    yield null;
 
-                yield new StateAction(gameState.withNewOccupant(newOccupant), action);
+                yield gameState.withNewOccupant(newOccupant);
             }
             case RETAKE_PAWN -> {
                 // Check if the player doesn't want to retake an occupant
-                if (action.equals(NO_OCCUPANT_ENCODED_ACTION))
-                    yield new StateAction(gameState.withOccupantRemoved(null), action);
+                if (length == OCCUPANT_ENCODED_ACTION_LENGTH && decodedAction == NO_OCCUPANT_DECODED_ACTION)
+                    yield gameState.withOccupantRemoved(null);
 
                 // Decode the action
-                List<Occupant> sortedOccupants = sortOccupants(gameState);
-                Occupant pawnToRemove = sortedOccupants.get(decodedAction);
+                Occupant pawnToRemove = gameState.board().occupantAt(decodedAction);
+                if (pawnToRemove == null)
+                    yield null;
 
                 // Check if the occupant can be removed
                 PlacedTile placedTileWithPawn = gameState.board().tileWithId(Zone.tileId(pawnToRemove.zoneId()));
-                if (action.length() != OCCUPANT_ENCODED_ACTION_LENGTH
+                if (length != OCCUPANT_ENCODED_ACTION_LENGTH
                         || placedTileWithPawn.placer() != gameState.currentPlayer()
-                        || placedTileWithPawn.occupant().equals(pawnToRemove))
-                    throw new IllegalActionException();
+                        || pawnToRemove.kind() != Occupant.Kind.PAWN)
+                    yield null;
 
-                yield new StateAction(gameState.withOccupantRemoved(pawnToRemove), action);
+                yield gameState.withOccupantRemoved(pawnToRemove);
             }
-            default -> throw new IllegalActionException();
+            default -> null;
         };
     }
 
@@ -247,9 +237,15 @@ public class ActionEncoder {
      *
      * @author Maxence Espagnet (sciper: 372808)
      * @author Balthazar Baillat (sciper: 373420)
+     * @deprecated no longer thrown: the methods decoding an action return null when it is illegal
      */
+    @Deprecated
     public static class IllegalActionException extends Exception {
-    }
-
 
+        /**
+         * The version of the serialized form of the exception.
+         */
+        @Serial
+        private static final long serialVersionUID = 1L;
+    }
 }
@@ -0,0 +1,195 @@
+package ch.epfl.chacun;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helper class to replay a whole game from its seed and the sequence of its encoded actions.
+ * <p>
+ * The actions are validated and applied one after the other, without creating any state action nor throwing
+ * any exception, and the replay stops at the first invalid action. The texts of the messages are rendered only
+ * when they are read, and replays which do not need them at all can use a text maker rendering empty texts.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+public final class ActionReplay {
+
+    /**
+     * The maximum length of an encoded action.
+     */
+    private static final int MAX_ACTION_LENGTH = 2;
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private ActionReplay() {
+    }
+
+    /**
+     * Replays the game of the given players whose decks were shuffled with the given seed, by applying the given
+     * actions to the state in which the starting tile is placed, with messages without text.
+     *
+     * @param players the players, in turn order
+     * @param seed    the seed of the decks, as used by {@link DeckFactory#create(long)}
+     * @param actions the encoded actions, in the order in which they were played
+     * @return the result of the replay
+     */
+    public static Result replay(List<PlayerColor> players, long seed, List<String> actions) {
+        return replay(players, seed, EmptyTextMaker.INSTANCE, actions);
+    }
+
+    /**
+     * Replays the game of the given players whose decks were shuffled with the given seed, by applying the given
+     * actions to the state in which the starting tile is placed, with messages rendered by the given text maker.
+     *
+     * @param players   the players, in turn order
+     * @param seed      the seed of the decks, as used by {@link DeckFactory#create(long)}
+     * @param textMaker the text maker of the message board
+     * @param actions   the encoded actions, in the order in which they were played
+     * @return the result of the replay
+     */
+    public static Result replay(List<PlayerColor> players, long seed, TextMaker textMaker, List<String> actions) {
+        GameState gameState = GameState.initial(players, DeckFactory.create(seed), textMaker)
+                .withStartingTilePlaced();
+        for (int i = 0; i < actions.size(); ++i) {
+            String action = actions.get(i);
+            int length = action.length();
+            int decodedAction = length <= MAX_ACTION_LENGTH ? Base32.decode(action, 0, length) : Base32.INVALID;
+            Failure failure = null;
+            if (gameState.nextAction() == GameState.Action.END_GAME)
+                failure = Failure.GAME_OVER;
+            else if (length == 0 || decodedAction == Base32.INVALID)
+                failure = Failure.MALFORMED_ACTION;
+            GameState updatedGameState = failure == null
+                    ? ActionEncoder.apply(gameState, decodedAction, length)
+                    : null;
+            if (updatedGameState == null)
+                return new Result(gameState, i, failure != null ? failure : Failure.ILLEGAL_ACTION);
+            gameState = updatedGameState;
+        }
+        return new Result(gameState, -1, null);
+    }
+
+    /**
+     * Represents the reasons for which an action can be rejected by a replay.
+     */
+    public enum Failure {
+        /**
+         * The action is not a base 32 string of one or two characters.
+         */
+        MALFORMED_ACTION,
+        /**
+         * The action cannot be applied to the game state.
+         */
+        ILLEGAL_ACTION,
+        /**
+         * The action follows the end of the game.
+         */
+        GAME_OVER
+    }
+
+    /**
+     * Represents the result of a replay.
+     *
+     * @param gameState   the game state after the last valid action
+     * @param failedIndex the index of the first invalid action, or -1 if all the actions are valid
+     * @param failure     the reason for which the first invalid action was rejected, or null if there is none
+     * @author Maxence Espagnet (sciper: 372808)
+     * @author Balthazar Baillat (sciper: 373420)
+     */
+    public record Result(GameState gameState, int failedIndex, Failure failure) {
+
+        /**
+         * Returns whether all the actions were valid.
+         *
+         * @return whether all the actions were valid
+         */
+        public boolean isSuccessful() {
+            return failure == null;
+        }
+    }
+
+    /**
+     * Represents a text maker rendering every text as an empty string.
+     */
+    private static final class EmptyTextMaker implements TextMaker {
+
+        /**
+         * The only instance of the text maker.
+         */
+        private static final EmptyTextMaker INSTANCE = new EmptyTextMaker();
+
+        @Override
+        public String playerName(PlayerColor playerColor) {
+            return "";
+        }
+
+        @Override
+        public String points(int points) {
+            return "";
+        }
+
+        @Override
+        public String playerClosedForestWithMenhir(PlayerColor player) {
+            return "";
+        }
+
+        @Override
+        public String playersScoredForest(Set<PlayerColor> scorers, int points, int mushroomGroupCount,
+                                          int tileCount) {
+            return "";
+        }
+
+        @Override
+        public String playersScoredRiver(Set<PlayerColor> scorers, int points, int fishCount, int tileCount) {
+            return "";
+        }
+
+        @Override
+        public String playerScoredHuntingTrap(PlayerColor scorer, int points, Map<Animal.Kind, Integer> animals) {
+            return "";
+        }
+
+        @Override
+        public String playerScoredLogboat(PlayerColor scorer, int points, int lakeCount) {
+            return "";
+        }
+
+        @Override
+        public String playersScoredMeadow(Set<PlayerColor> scorers, int points, Map<Animal.Kind, Integer> animals) {
+            return "";
+        }
+
+        @Override
+        public String playersScoredRiverSystem(Set<PlayerColor> scorers, int points, int fishCount) {
+            return "";
+        }
+
+        @Override
+        public String playersScoredPitTrap(Set<PlayerColor> scorers, int points, Map<Animal.Kind, Integer> animals) {
+            return "";
+        }
+
+        @Override
+        public String playersScoredRaft(Set<PlayerColor> scorers, int points, int lakeCount) {
+            return "";
+        }
+
+        @Override
+        public String playersWon(Set<PlayerColor> winners, int points) {
+            return "";
+        }
+
+        @Override
+        public String clickToOccupy() {
+            return "";
+        }
+
+        @Override
+        public String clickToUnoccupy() {
+            return "";
+        }
+    }
+}
@@ -5,29 +5,151 @@ import java.util.stream.Collectors;
 
 /**
  * Represents an area.
+ * <p>
+ * The zones of the area are stored as an array sorted by zone id, along with a bitset of their ids, so that
+ * two areas can be merged without hashing their zones. The set of zones is only exposed as a view.
  *
- * @param zones           the list of the zones constituting the area
- * @param occupants       the list of the colors of any player occupying the area, sorted by color
- * @param openConnections the number of open connections of the area
- * @param <Z>             the type of the zone constituting the area
+ * @param <Z> the type of the zone constituting the area
  * @author Maxence Espagnet (sciper: 372808)
  * @author Balthazar Baillat (sciper: 373420)
  */
-public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, int openConnections) {
+public final class Area<Z extends Zone> {
+
+    /**
+     * The zones constituting the area, sorted by id.
+     */
+    private final Zone[] zoneArray;
+
+    /**
+     * The bitset of the ids of the zones constituting the area.
+     */
+    private final long[] zoneIds;
+
+    /**
+     * The colors of any player occupying the area, sorted by color.
+     */
+    private final List<PlayerColor> occupants;
+
+    /**
+     * The number of open connections of the area.
+     */
+    private final int openConnections;
+
+    /**
+     * The aggregates of the zones constituting the area.
+     */
+    private final AreaSummary summary;
+
+    /**
+     * The set view of the zones constituting the area.
+     */
+    private final Set<Z> zones;
+
+    /**
+     * The set of the ids of the tiles containing the area, computed on first access.
+     */
+    private Set<Integer> tileIds;
 
     /**
      * Defensive copy of zones and occupants. Validates the number of open connections and sorts
      * the occupants by color.
      *
+     * @param zones           the set of the zones constituting the area
+     * @param occupants       the list of the colors of any player occupying the area
+     * @param openConnections the number of open connections of the area
+     * @throws IllegalArgumentException if the number of open connections is negative
+     */
+    public Area(Set<Z> zones, List<PlayerColor> occupants, int openConnections) {
+        this(sortedZones(zones), null, null, sortedOccupants(occupants), openConnections);
+    }
+
+    /**
+     * Private constructor of the area from already sorted zones and occupants.
+     *
+     * @param zoneArray       the zones, sorted by id
+     * @param zoneIds         the bitset of the ids of the zones, or null to compute it
+     * @param summary         the aggregates of the zones, or null to compute them
+     * @param occupants       the immutable list of the occupants, sorted by color
+     * @param openConnections the number of open connections
      * @throws IllegalArgumentException if the number of open connections is negative
      */
-    public Area {
+    private Area(Zone[] zoneArray, long[] zoneIds, AreaSummary summary, List<PlayerColor> occupants,
+                 int openConnections) {
         Preconditions.checkArgument(openConnections >= 0);
-        zones = Set.copyOf(zones);
-        occupants = new ArrayList<>(occupants);
-        Collections.sort(occupants);
-        // Make occupants immutable
-        occupants = List.copyOf(occupants);
+        this.zoneArray = zoneArray;
+        this.zoneIds = zoneIds != null ? zoneIds : zoneIdsOf(zoneArray);
+        this.summary = summary != null ? summary : AreaSummary.of(zoneArray);
+        this.occupants = occupants;
+        this.openConnections = openConnections;
+        this.zones = new ZonesView();
+    }
+
+    /**
+     * Returns the given zones in an array sorted by id.
+     *
+     * @param zones the zones
+     * @return the given zones sorted by id
+     * @throws NullPointerException if one of the zones is null
+     */
+    private static Zone[] sortedZones(Set<? extends Zone> zones) {
+        Zone[] zoneArray = zones.toArray(new Zone[0]);
+        for (Zone zone : zoneArray)
+            Objects.requireNonNull(zone);
+        Arrays.sort(zoneArray, Comparator.comparingInt(Zone::id));
+        return zoneArray;
+    }
+
+    /**
+     * Returns an immutable copy of the given occupants, sorted by color.
+     *
+     * @param occupants the occupants
+     * @return the sorted occupants
+     */
+    private static List<PlayerColor> sortedOccupants(List<PlayerColor> occupants) {
+        PlayerColor[] sortedOccupants = occupants.toArray(new PlayerColor[0]);
+        Arrays.sort(sortedOccupants);
+        return List.of(sortedOccupants);
+    }
+
+    /**
+     * Returns the bitset of the ids of the given zones.
+     *
+     * @param zoneArray the zones, sorted by id
+     * @return the bitset of the ids of the given zones
+     */
+    private static long[] zoneIdsOf(Zone[] zoneArray) {
+        int maxId = zoneArray.length == 0 ? -1 : zoneArray[zoneArray.length - 1].id();
+        long[] zoneIds = new long[maxId / Long.SIZE + 1];
+        for (Zone zone : zoneArray)
+            zoneIds[zone.id() / Long.SIZE] |= 1L << zone.id();
+        return zoneIds;
+    }
+
+    /**
+     * Returns the set of the zones constituting the area.
+     *
+     * @return an immutable view of the set of the zones constituting the area
+     */
+    public Set<Z> zones() {
+        return zones;
+    }
+
+    /**
+     * Returns the colors of any player occupying the area, sorted by color.
+     *
+     * @return the colors of any player occupying the area, sorted by color
+     */
+    public List<PlayerColor> occupants() {
+        return occupants;
+    }
+
+    /**
+     * Returns the number of open connections of the area.
+     *
+     * @return the number of open connections of the area
+     */
+    public int openConnections() {
+        return openConnections;
     }
 
     /**
@@ -37,8 +159,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return {@code true} if the forest contains a menhir, {@code false} otherwise
      */
     public static boolean hasMenhir(Area<Zone.Forest> forest) {
-        return forest.zones.stream()
-                .anyMatch(zone -> zone.kind() == Zone.Forest.Kind.WITH_MENHIR);
+        return forest.summary.menhirCount() > 0;
     }
 
     /**
@@ -48,8 +169,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the number of mushroom groups in the forest
      */
     public static int mushroomGroupCount(Area<Zone.Forest> forest) {
-        return (int) forest.zones.stream()
-                .filter(zone -> zone.kind() == Zone.Forest.Kind.WITH_MUSHROOMS).count();
+        return forest.summary.mushroomGroupCount();
     }
 
     /**
@@ -61,12 +181,75 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the set of animals in the meadow, excluding the cancelled animals
      */
     public static Set<Animal> animals(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
-        return meadow.zones.stream()
+        return meadow.zones().stream()
                 .flatMap(zone -> zone.animals().stream())
                 .filter(animal -> !cancelledAnimals.contains(animal))
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Counts the number of animals of the given kind in a given meadow area, excluding cancelled animals.
+     *
+     * @param meadow           the meadow area to count animals in
+     * @param cancelledAnimals the set of animals to exclude
+     * @param kind             the kind of animal to count
+     * @return the number of animals of the given kind in the meadow, excluding the cancelled animals
+     */
+    public static int animalCount(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals, Animal.Kind kind) {
+        int animalCount = meadow.summary.animalCount(kind);
+        for (Animal animal : cancelledAnimals) {
+            if (animal.kind() == kind && meadow.containsAnimal(animal))
+                --animalCount;
+        }
+        return animalCount;
+    }
+
+    /**
+     * Checks if one of the zones of the area contains the given animal.
+     *
+     * @param animal the animal
+     * @return {@code true} if one of the zones of the area contains the given animal
+     */
+    private boolean containsAnimal(Animal animal) {
+        int zoneId = animal.id() / 10;
+        if (!containsZoneId(zoneId))
+            return false;
+        for (int i = firstIndexOfZoneId(zoneId); i < zoneArray.length && zoneArray[i].id() == zoneId; ++i) {
+            if (zoneArray[i] instanceof Zone.Meadow meadow && meadow.animals().contains(animal))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the bitset of the zone ids contains the given id.
+     *
+     * @param zoneId the zone id
+     * @return {@code true} if a zone of the area has the given id
+     */
+    private boolean containsZoneId(int zoneId) {
+        return zoneId >= 0 && zoneId / Long.SIZE < zoneIds.length && (zoneIds[zoneId / Long.SIZE] & 1L << zoneId) != 0;
+    }
+
+    /**
+     * Returns the index of the first zone whose id is greater than or equal to the given one.
+     *
+     * @param zoneId the zone id
+     * @return the index of the first zone whose id is greater than or equal to the given one
+     */
+    private int firstIndexOfZoneId(int zoneId) {
+        int low = 0;
+        int high = zoneArray.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (zoneArray[middle].id() < zoneId)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
     /**
      * Counts the number of fish swimming in the given river or in any of the lakes at its ends
      * <p>The fish in a given lake need only be counted once, even if a single lake ends the river at both ends
@@ -75,14 +258,8 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the total number of fish in the river, lakes included
      */
     public static int riverFishCount(Area<Zone.River> river) {
-        // Make sure a lake appears only once
-        Set<Zone.Lake> lakes = river.zones.stream()
-                .filter(Zone.River::hasLake).map(Zone.River::lake).collect(Collectors.toSet());
-        // Compute the number of fishes
-        int fishCountInLakes = lakes.stream().mapToInt(Zone.Lake::fishCount).sum();
-        int fishCountInRivers = river.zones.stream().mapToInt(Zone.River::fishCount).sum();
-        // Return the total number of fishes
-        return fishCountInLakes + fishCountInRivers;
+        // The summary only counts each lake once
+        return river.summary.riverLakeFishCount() + river.summary.fishCount();
     }
 
     /**
@@ -92,7 +269,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the total number of fish in the river system
      */
     public static int riverSystemFishCount(Area<Zone.Water> riverSystem) {
-        return riverSystem.zones.stream().mapToInt(Zone.Water::fishCount).sum();
+        return riverSystem.summary.fishCount();
     }
 
     /**
@@ -102,7 +279,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the total number of lakes in the river system
      */
     public static int lakeCount(Area<Zone.Water> riverSystem) {
-        return (int) riverSystem.zones.stream().filter(Zone.Lake.class::isInstance).count();
+        return riverSystem.summary.lakeCount();
     }
 
     /**
@@ -153,6 +330,9 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
 
     /**
      * Returns the area resulting from the connection of the receiver (this) to the given area (that).
+     * <p>
+     * The zones of both areas are merged with a word-wise OR of their bitsets and a linear merge of
+     * their sorted arrays, and the occupants with a linear merge of their sorted lists.
      *
      * @param newArea the new area to connect to
      * @return the new area resulting from the connection
@@ -163,17 +343,92 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
         int openConnections = this.openConnections - 2;
         // Merge the zones of both areas into one
         // Add the new occupants to the current ones
-        if(!this.equals(newArea)) {
-            Set<Z> zones = new HashSet<>(this.zones);
-            zones.addAll(newArea.zones);
-            List<PlayerColor> occupants = new ArrayList<>(this.occupants);
-            occupants.addAll(newArea.occupants);
+        if (!this.equals(newArea)) {
             // In case both areas are not the same, we need to add the open connections of the new area
             openConnections += newArea.openConnections;
-            return new Area<>(zones, occupants, openConnections);
+            Zone[] mergedZones = mergeZones(zoneArray, newArea.zoneArray);
+            // The summaries can only be combined if no zone is shared by both areas
+            AreaSummary mergedSummary = mergedZones.length == zoneArray.length + newArea.zoneArray.length
+                    ? summary.combine(newArea.summary) : null;
+            return new Area<>(mergedZones, mergeZoneIds(zoneIds, newArea.zoneIds), mergedSummary,
+                    mergeOccupants(occupants, newArea.occupants), openConnections);
         }
         // Create the new area
-        return new Area<>(zones, occupants, openConnections);
+        return new Area<>(zoneArray, zoneIds, summary, occupants, openConnections);
+    }
+
+    /**
+     * Returns the union of the two given bitsets of zone ids.
+     *
+     * @param zoneIds1 the first bitset
+     * @param zoneIds2 the second bitset
+     * @return the union of the two bitsets
+     */
+    private static long[] mergeZoneIds(long[] zoneIds1, long[] zoneIds2) {
+        long[] longest = zoneIds1.length >= zoneIds2.length ? zoneIds1 : zoneIds2;
+        long[] shortest = longest == zoneIds1 ? zoneIds2 : zoneIds1;
+        long[] merged = longest.clone();
+        for (int i = 0; i < shortest.length; ++i)
+            merged[i] |= shortest[i];
+        return merged;
+    }
+
+    /**
+     * Returns the union of the two given arrays of zones sorted by id, itself sorted by id.
+     *
+     * @param zones1 the first sorted array of zones
+     * @param zones2 the second sorted array of zones
+     * @return the sorted union of the two arrays
+     */
+    private static Zone[] mergeZones(Zone[] zones1, Zone[] zones2) {
+        Zone[] merged = new Zone[zones1.length + zones2.length];
+        int i = 0, j = 0, k = 0;
+        while (i < zones1.length && j < zones2.length) {
+            Zone zone1 = zones1[i];
+            Zone zone2 = zones2[j];
+            if (zone1.id() < zone2.id()) {
+                merged[k++] = zone1;
+                ++i;
+            } else if (zone2.id() < zone1.id() || !zone1.equals(zone2)) {
+                merged[k++] = zone2;
+                ++j;
+            } else {
+                // A zone present in both areas is only kept once
+                merged[k++] = zone1;
+                ++i;
+                ++j;
+            }
+        }
+        while (i < zones1.length)
+            merged[k++] = zones1[i++];
+        while (j < zones2.length)
+            merged[k++] = zones2[j++];
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    /**
+     * Returns the concatenation of the two given lists of occupants sorted by color, itself sorted by color.
+     *
+     * @param occupants1 the first sorted list of occupants
+     * @param occupants2 the second sorted list of occupants
+     * @return the sorted concatenation of the two lists
+     */
+    private static List<PlayerColor> mergeOccupants(List<PlayerColor> occupants1, List<PlayerColor> occupants2) {
+        if (occupants2.isEmpty())
+            return occupants1;
+        if (occupants1.isEmpty())
+            return occupants2;
+        PlayerColor[] merged = new PlayerColor[occupants1.size() + occupants2.size()];
+        int i = 0, j = 0, k = 0;
+        while (i < occupants1.size() && j < occupants2.size()) {
+            merged[k++] = occupants1.get(i).compareTo(occupants2.get(j)) <= 0
+                    ? occupants1.get(i++) : occupants2.get(j++);
+        }
+        while (i < occupants1.size())
+            merged[k++] = occupants1.get(i++);
+        while (j < occupants2.size())
+            merged[k++] = occupants2.get(j++);
+        return List.of(merged);
     }
 
     /**
@@ -185,7 +440,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      */
     public Area<Z> withInitialOccupant(PlayerColor occupant) {
         Preconditions.checkArgument(occupants.isEmpty());
-        return new Area<>(zones, List.of(occupant), openConnections);
+        return new Area<>(zoneArray, zoneIds, summary, List.of(occupant), openConnections);
     }
 
     /**
@@ -202,7 +457,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
         List<PlayerColor> filteredOccupants = new ArrayList<>(occupants);
         filteredOccupants.remove(occupant);
 
-        return new Area<>(zones, filteredOccupants, openConnections);
+        return new Area<>(zoneArray, zoneIds, summary, List.copyOf(filteredOccupants), openConnections);
     }
 
     /**
@@ -211,7 +466,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return an area identical to the receiver, except that all its occupants are removed
      */
     public Area<Z> withoutOccupants() {
-        return new Area<>(zones, new ArrayList<>(), openConnections);
+        return new Area<>(zoneArray, zoneIds, summary, List.of(), openConnections);
     }
 
     /**
@@ -220,7 +475,9 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the set of the ids of all the tiles containing the area
      */
     public Set<Integer> tileIds() {
-        return zones.stream().map(Zone::tileId).collect(Collectors.toSet());
+        if (tileIds == null)
+            tileIds = summary.tileIds();
+        return tileIds;
     }
 
     /**
@@ -231,7 +488,53 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the zone of the area containing the given special power
      */
     public Zone zoneWithSpecialPower(Zone.SpecialPower specialPower) {
-        return zones.stream().filter(z -> z.specialPower() == specialPower).findAny().orElse(null);
+        return summary.zoneWithSpecialPower(specialPower);
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Area<?> area
+                && openConnections == area.openConnections
+                && occupants.equals(area.occupants)
+                // Zones sharing an id may be sorted differently, in which case the sets are compared
+                && (Arrays.equals(zoneArray, area.zoneArray) || zones.equals(area.zones));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(zones, occupants, openConnections);
+    }
+
+    @Override
+    public String toString() {
+        return STR."Area[zones=\{zones}, occupants=\{occupants}, openConnections=\{openConnections}]";
+    }
+
+    /**
+     * Represents an immutable set view of the sorted zones of the area.
+     */
+    private final class ZonesView extends AbstractSet<Z> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<Z> iterator() {
+            return (Iterator<Z>) Collections.unmodifiableList(Arrays.asList(zoneArray)).iterator();
+        }
+
+        @Override
+        public int size() {
+            return zoneArray.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Zone zone) || !containsZoneId(zone.id()))
+                return false;
+            // Look for the zone among those which have the same id
+            for (int i = firstIndexOfZoneId(zone.id()); i < zoneArray.length && zoneArray[i].id() == zone.id(); ++i) {
+                if (zoneArray[i].equals(zone))
+                    return true;
+            }
+            return false;
+        }
+    }
 }
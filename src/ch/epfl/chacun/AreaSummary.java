@@ -0,0 +1,271 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents the aggregates of the zones of an area which are needed to score it.
+ * <p>
+ * The summary is computed once when an area is created from a set of zones, then the summaries of two
+ * disjoint areas are combined in constant time when they are connected.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class AreaSummary {
+
+    /**
+     * The number of forest zones with a menhir.
+     */
+    private final int menhirCount;
+
+    /**
+     * The number of forest zones with mushrooms.
+     */
+    private final int mushroomGroupCount;
+
+    /**
+     * The total number of fish of the water zones.
+     */
+    private final int fishCount;
+
+    /**
+     * The number of lake zones.
+     */
+    private final int lakeCount;
+
+    /**
+     * The distinct lakes at the ends of the river zones.
+     */
+    private final Zone.Lake[] riverLakes;
+
+    /**
+     * The total number of fish of the distinct lakes at the ends of the river zones.
+     */
+    private final int riverLakeFishCount;
+
+    /**
+     * The number of animals of each kind, indexed by kind ordinal.
+     */
+    private final int[] animalCounts;
+
+    /**
+     * The bitset of the ids of the tiles containing the zones.
+     */
+    private final long[] tileIds;
+
+    /**
+     * A zone with each special power, indexed by special power ordinal, or null if there is none.
+     */
+    private final Zone[] specialPowerZones;
+
+    /**
+     * Private constructor of the summary to initialize values.
+     *
+     * @param menhirCount        the number of forest zones with a menhir
+     * @param mushroomGroupCount the number of forest zones with mushrooms
+     * @param fishCount          the total number of fish of the water zones
+     * @param lakeCount          the number of lake zones
+     * @param riverLakes         the distinct lakes at the ends of the river zones
+     * @param riverLakeFishCount the total number of fish of these lakes
+     * @param animalCounts       the number of animals of each kind
+     * @param tileIds            the bitset of the ids of the tiles containing the zones
+     * @param specialPowerZones  a zone with each special power
+     */
+    private AreaSummary(int menhirCount, int mushroomGroupCount, int fishCount, int lakeCount,
+                        Zone.Lake[] riverLakes, int riverLakeFishCount, int[] animalCounts, long[] tileIds,
+                        Zone[] specialPowerZones) {
+        this.menhirCount = menhirCount;
+        this.mushroomGroupCount = mushroomGroupCount;
+        this.fishCount = fishCount;
+        this.lakeCount = lakeCount;
+        this.riverLakes = riverLakes;
+        this.riverLakeFishCount = riverLakeFishCount;
+        this.animalCounts = animalCounts;
+        this.tileIds = tileIds;
+        this.specialPowerZones = specialPowerZones;
+    }
+
+    /**
+     * Computes the summary of the given zones.
+     *
+     * @param zones the zones
+     * @return the summary of the given zones
+     */
+    static AreaSummary of(Zone[] zones) {
+        int menhirCount = 0;
+        int mushroomGroupCount = 0;
+        int fishCount = 0;
+        int lakeCount = 0;
+        List<Zone.Lake> riverLakes = new ArrayList<>(2);
+        int riverLakeFishCount = 0;
+        int[] animalCounts = new int[Animal.Kind.values().length];
+        int maxTileId = -1;
+        for (Zone zone : zones)
+            maxTileId = Math.max(maxTileId, zone.tileId());
+        long[] tileIds = new long[maxTileId / Long.SIZE + 1];
+        Zone[] specialPowerZones = new Zone[Zone.SpecialPower.values().length];
+
+        for (Zone zone : zones) {
+            switch (zone) {
+                case Zone.Forest forest when forest.kind() == Zone.Forest.Kind.WITH_MENHIR -> ++menhirCount;
+                case Zone.Forest forest when forest.kind() == Zone.Forest.Kind.WITH_MUSHROOMS -> ++mushroomGroupCount;
+                case Zone.Meadow meadow -> {
+                    for (Animal animal : meadow.animals())
+                        ++animalCounts[animal.kind().ordinal()];
+                }
+                case Zone.Lake lake -> {
+                    fishCount += lake.fishCount();
+                    ++lakeCount;
+                }
+                case Zone.River river -> {
+                    fishCount += river.fishCount();
+                    // Make sure a lake is counted only once
+                    if (river.hasLake() && !riverLakes.contains(river.lake())) {
+                        riverLakes.add(river.lake());
+                        riverLakeFishCount += river.lake().fishCount();
+                    }
+                }
+                default -> {
+                }
+            }
+            if (zone.tileId() >= 0)
+                tileIds[zone.tileId() / Long.SIZE] |= 1L << zone.tileId();
+            if (zone.specialPower() != null && specialPowerZones[zone.specialPower().ordinal()] == null)
+                specialPowerZones[zone.specialPower().ordinal()] = zone;
+        }
+
+        return new AreaSummary(menhirCount, mushroomGroupCount, fishCount, lakeCount,
+                riverLakes.toArray(new Zone.Lake[0]), riverLakeFishCount, animalCounts, tileIds, specialPowerZones);
+    }
+
+    /**
+     * Returns the summary of the union of the zones of the receiver and of the given summary,
+     * whose zones must be disjoint.
+     *
+     * @param that the summary to combine with the receiver
+     * @return the summary of the union of the zones
+     */
+    AreaSummary combine(AreaSummary that) {
+        // Lakes at the end of two rivers which get connected must still be counted once
+        Zone.Lake[] riverLakes = Arrays.copyOf(this.riverLakes, this.riverLakes.length + that.riverLakes.length);
+        int riverLakeCount = this.riverLakes.length;
+        int riverLakeFishCount = this.riverLakeFishCount;
+        for (Zone.Lake lake : that.riverLakes) {
+            if (!Arrays.asList(this.riverLakes).contains(lake)) {
+                riverLakes[riverLakeCount++] = lake;
+                riverLakeFishCount += lake.fishCount();
+            }
+        }
+
+        int[] animalCounts = this.animalCounts.clone();
+        for (int i = 0; i < animalCounts.length; ++i)
+            animalCounts[i] += that.animalCounts[i];
+
+        long[] tileIds = Arrays.copyOf(this.tileIds, Math.max(this.tileIds.length, that.tileIds.length));
+        for (int i = 0; i < that.tileIds.length; ++i)
+            tileIds[i] |= that.tileIds[i];
+
+        Zone[] specialPowerZones = this.specialPowerZones.clone();
+        for (int i = 0; i < specialPowerZones.length; ++i) {
+            if (specialPowerZones[i] == null)
+                specialPowerZones[i] = that.specialPowerZones[i];
+        }
+
+        return new AreaSummary(menhirCount + that.menhirCount, mushroomGroupCount + that.mushroomGroupCount,
+                fishCount + that.fishCount, lakeCount + that.lakeCount,
+                Arrays.copyOf(riverLakes, riverLakeCount), riverLakeFishCount, animalCounts, tileIds,
+                specialPowerZones);
+    }
+
+    /**
+     * Returns the number of forest zones with a menhir.
+     *
+     * @return the number of forest zones with a menhir
+     */
+    int menhirCount() {
+        return menhirCount;
+    }
+
+    /**
+     * Returns the number of forest zones with mushrooms.
+     *
+     * @return the number of forest zones with mushrooms
+     */
+    int mushroomGroupCount() {
+        return mushroomGroupCount;
+    }
+
+    /**
+     * Returns the total number of fish of the water zones, without the lakes at the ends of the river zones.
+     *
+     * @return the total number of fish of the water zones
+     */
+    int fishCount() {
+        return fishCount;
+    }
+
+    /**
+     * Returns the number of lake zones.
+     *
+     * @return the number of lake zones
+     */
+    int lakeCount() {
+        return lakeCount;
+    }
+
+    /**
+     * Returns the total number of fish of the distinct lakes at the ends of the river zones.
+     *
+     * @return the total number of fish of the lakes at the ends of the river zones
+     */
+    int riverLakeFishCount() {
+        return riverLakeFishCount;
+    }
+
+    /**
+     * Returns the number of animals of the given kind.
+     *
+     * @param kind the kind of animal
+     * @return the number of animals of the given kind
+     */
+    int animalCount(Animal.Kind kind) {
+        return animalCounts[kind.ordinal()];
+    }
+
+    /**
+     * Returns the number of tiles containing the zones.
+     *
+     * @return the number of tiles containing the zones
+     */
+    int tileCount() {
+        int tileCount = 0;
+        for (long word : tileIds)
+            tileCount += Long.bitCount(word);
+        return tileCount;
+    }
+
+    /**
+     * Returns the ids of the tiles containing the zones.
+     *
+     * @return an immutable set of the ids of the tiles containing the zones
+     */
+    Set<Integer> tileIds() {
+        Integer[] ids = new Integer[tileCount()];
+        int i = 0;
+        for (int word = 0; word < tileIds.length; ++word) {
+            for (long bits = tileIds[word]; bits != 0; bits &= bits - 1)
+                ids[i++] = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+        }
+        return Set.of(ids);
+    }
+
+    /**
+     * Returns a zone with the given special power, or null if there is none.
+     *
+     * @param specialPower the special power
+     * @return a zone with the given special power, or null
+     */
+    Zone zoneWithSpecialPower(Zone.SpecialPower specialPower) {
+        return specialPowerZones[specialPower.ordinal()];
+    }
+}
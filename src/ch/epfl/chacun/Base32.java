@@ -1,23 +1,106 @@
 package ch.epfl.chacun;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Helper class to encode and decode values in base 32.
+ * <p>
+ * The symbols are decoded with a lookup table indexed by their character and the encodings of 5 and 10-bit
+ * values are precomputed. Values can also be decoded from and encoded into character sequences, arrays or
+ * buffers of ASCII bytes, in which case invalid input yields {@link #INVALID} instead of an exception.
  *
  * @author Maxence Espagnet (sciper: 372808)
  * @author Balthazar Baillat (sciper: 373420)
  */
-public class Base32 {
+public final class Base32 {
 
     /**
      * The alphabet representing the base 32.
      */
     public static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
 
+    /**
+     * The value returned by the decoding methods which do not throw when their input is not valid in base 32.
+     */
+    public static final int INVALID = -1;
+
+    /**
+     * The maximum number of symbols which can be decoded into a non-negative integer.
+     */
+    public static final int MAX_DECODED_LENGTH = 6;
+
     /**
      * The number of bits to represent a symbol in base 32.
      */
     private static final int BASE_32_SYMBOL_BITS = 5;
 
+    /**
+     * The mask to apply to a value to keep the bits of its last symbol.
+     */
+    private static final int SYMBOL_MASK = (1 << BASE_32_SYMBOL_BITS) - 1;
+
+    /**
+     * The value of each ASCII character in base 32, or {@link #INVALID} if it is not in the alphabet.
+     */
+    private static final byte[] SYMBOL_VALUES = symbolValues();
+
+    /**
+     * The encoding of each 5-bit value, indexed by the value.
+     */
+    private static final String[] ENCODED_BITS_5 = encodedValues(1);
+
+    /**
+     * The encoding of each 10-bit value, indexed by the value.
+     */
+    private static final String[] ENCODED_BITS_10 = encodedValues(2);
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private Base32() {
+    }
+
+    /**
+     * Returns the value of each ASCII character in base 32.
+     *
+     * @return the value of each ASCII character, or {@link #INVALID} if it is not in the alphabet
+     */
+    private static byte[] symbolValues() {
+        byte[] values = new byte[128];
+        Arrays.fill(values, (byte) INVALID);
+        for (int i = 0; i < ALPHABET.length(); ++i)
+            values[ALPHABET.charAt(i)] = (byte) i;
+        return values;
+    }
+
+    /**
+     * Returns the encoding of every value of the given number of symbols.
+     *
+     * @param length the number of symbols of the values
+     * @return the encoding of every value, indexed by the value
+     */
+    private static String[] encodedValues(int length) {
+        String[] encodedValues = new String[1 << (BASE_32_SYMBOL_BITS * length)];
+        char[] symbols = new char[length];
+        for (int value = 0; value < encodedValues.length; ++value) {
+            encode(value, symbols, 0, length);
+            encodedValues[value] = new String(symbols);
+        }
+        return encodedValues;
+    }
+
+    /**
+     * Returns the value in base 32 of the given character.
+     *
+     * @param character the character
+     * @return the value of the character, or {@link #INVALID} if it is not in the alphabet
+     */
+    private static int symbolValue(int character) {
+        return character < SYMBOL_VALUES.length ? SYMBOL_VALUES[character] : INVALID;
+    }
+
     /**
      * Checks if the given string is valid in base 32.
      *
@@ -25,7 +108,11 @@ public class Base32 {
      * @return true if and only if the string is valid and false otherwise
      */
     public static boolean isValid(String string) {
-        return string.chars().allMatch(c -> isValid((char) c));
+        for (int i = 0; i < string.length(); ++i) {
+            if (!isValid(string.charAt(i)))
+                return false;
+        }
+        return true;
     }
 
     /**
@@ -35,7 +122,7 @@ public class Base32 {
      * @return true if and only if the character is valid and false otherwise
      */
     public static boolean isValid(char character) {
-        return ALPHABET.indexOf(character) != -1;
+        return symbolValue(character) != INVALID;
     }
 
     /**
@@ -46,8 +133,7 @@ public class Base32 {
      */
     public static String encodeBits5(int value) {
         // Keep only the 5 less significand bits
-        int fiveLSB = value & ((1 << BASE_32_SYMBOL_BITS) - 1);
-        return String.valueOf(ALPHABET.charAt(fiveLSB));
+        return ENCODED_BITS_5[value & SYMBOL_MASK];
     }
 
     /**
@@ -57,8 +143,48 @@ public class Base32 {
      * @return a string containing the encoded value
      */
     public static String encodeBits10(int value) {
-        // Encoded independently two 5-bit parts and merge them
-        return encodeBits5(value >> BASE_32_SYMBOL_BITS) + encodeBits5(value);
+        // Keep only the 10 less significand bits
+        return ENCODED_BITS_10[value & (ENCODED_BITS_10.length - 1)];
+    }
+
+    /**
+     * Encodes in base 32 the given number of less significant symbols of the given value into the given array.
+     *
+     * @param value       the value to be encoded
+     * @param destination the array in which the symbols are written
+     * @param offset      the index of the first symbol in the array
+     * @param length      the number of symbols to write
+     * @return the index following the last symbol written
+     * @throws IndexOutOfBoundsException if the symbols do not fit in the array
+     */
+    public static int encode(int value, char[] destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        // Write the symbols from the last one, which holds the less significant bits
+        for (int i = offset + length - 1; i >= offset; --i) {
+            destination[i] = ALPHABET.charAt(value & SYMBOL_MASK);
+            value >>= BASE_32_SYMBOL_BITS;
+        }
+        return offset + length;
+    }
+
+    /**
+     * Encodes in base 32 the given number of less significant symbols of the given value into the given buffer,
+     * as ASCII bytes, without changing its position.
+     *
+     * @param value       the value to be encoded
+     * @param destination the buffer in which the symbols are written
+     * @param offset      the index of the first symbol in the buffer
+     * @param length      the number of symbols to write
+     * @return the index following the last symbol written
+     * @throws IndexOutOfBoundsException if the symbols do not fit in the buffer
+     */
+    public static int encode(int value, ByteBuffer destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.limit());
+        for (int i = offset + length - 1; i >= offset; --i) {
+            destination.put(i, (byte) ALPHABET.charAt(value & SYMBOL_MASK));
+            value >>= BASE_32_SYMBOL_BITS;
+        }
+        return offset + length;
     }
 
     /**
@@ -68,13 +194,84 @@ public class Base32 {
      *
      * @param value the string value to be decoded
      * @return the integer corresponding to the decoded value
+     * @throws IllegalArgumentException if the value is not valid in base 32 or is too long to be decoded
      */
     public static int decode(String value) {
-        Preconditions.checkArgument(isValid(value));
+        int decodedValue = decode(value, 0, value.length());
+        Preconditions.checkArgument(decodedValue != INVALID);
+        return decodedValue;
+    }
+
+    /**
+     * Decodes the characters of the given sequence between the given indices.
+     *
+     * @param value the sequence containing the value to be decoded
+     * @param from  the index of the first character, inclusive
+     * @param to    the index following the last character, exclusive
+     * @return the decoded value, or {@link #INVALID} if one of the characters is not valid in base 32 or if there
+     * are more than {@link #MAX_DECODED_LENGTH} of them
+     * @throws IndexOutOfBoundsException if the indices are out of the bounds of the sequence
+     */
+    public static int decode(CharSequence value, int from, int to) {
+        Objects.checkFromToIndex(from, to, value.length());
+        if (to - from > MAX_DECODED_LENGTH)
+            return INVALID;
+        int decodedValue = 0;
+        for (int i = from; i < to; ++i) {
+            int symbolValue = symbolValue(value.charAt(i));
+            if (symbolValue == INVALID)
+                return INVALID;
+            decodedValue = decodedValue << BASE_32_SYMBOL_BITS | symbolValue;
+        }
+        return decodedValue;
+    }
+
+    /**
+     * Decodes the characters of the given array between the given indices.
+     *
+     * @param value the array containing the value to be decoded
+     * @param from  the index of the first character, inclusive
+     * @param to    the index following the last character, exclusive
+     * @return the decoded value, or {@link #INVALID} if one of the characters is not valid in base 32 or if there
+     * are more than {@link #MAX_DECODED_LENGTH} of them
+     * @throws IndexOutOfBoundsException if the indices are out of the bounds of the array
+     */
+    public static int decode(char[] value, int from, int to) {
+        Objects.checkFromToIndex(from, to, value.length);
+        if (to - from > MAX_DECODED_LENGTH)
+            return INVALID;
+        int decodedValue = 0;
+        for (int i = from; i < to; ++i) {
+            int symbolValue = symbolValue(value[i]);
+            if (symbolValue == INVALID)
+                return INVALID;
+            decodedValue = decodedValue << BASE_32_SYMBOL_BITS | symbolValue;
+        }
+        return decodedValue;
+    }
+
+    /**
+     * Decodes the given number of ASCII bytes of the given buffer starting at the given index, without changing
+     * its position.
+     *
+     * @param value  the buffer containing the value to be decoded
+     * @param offset the index of the first byte
+     * @param length the number of bytes to decode
+     * @return the decoded value, or {@link #INVALID} if one of the bytes is not valid in base 32 or if there are
+     * more than {@link #MAX_DECODED_LENGTH} of them
+     * @throws IndexOutOfBoundsException if the bytes are out of the bounds of the buffer
+     */
+    public static int decode(ByteBuffer value, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, value.limit());
+        if (length > MAX_DECODED_LENGTH)
+            return INVALID;
         int decodedValue = 0;
-        // For each value, add its index in the base 32 alphabet times
-        for (int i = 0; i < value.length(); ++i) {
-            decodedValue = decodedValue << BASE_32_SYMBOL_BITS | ALPHABET.indexOf(value.charAt(i));
+        for (int i = offset; i < offset + length; ++i) {
+            // Mask the byte so that the non-ASCII ones are not sign-extended into negative indices
+            int symbolValue = symbolValue(value.get(i) & 0xFF);
+            if (symbolValue == INVALID)
+                return INVALID;
+            decodedValue = decodedValue << BASE_32_SYMBOL_BITS | symbolValue;
         }
         return decodedValue;
     }
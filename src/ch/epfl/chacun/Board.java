@@ -1,6 +1,7 @@
 package ch.epfl.chacun;
 
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -24,38 +25,208 @@ public final class Board {
      */
     private static final int SIZE = REACH * 2 + 1;
 
+    /**
+     * The number of cells of the board.
+     */
+    private static final int CELL_COUNT = SIZE * SIZE;
+
+    /**
+     * The position of the row major index in a packed fringe requirement.
+     * Packed format: index (16 bits) - required mask (8 bits) - required value (8 bits).
+     */
+    private static final int REQUIREMENT_INDEX_SHIFT = 16;
+
+    /**
+     * The position of the required mask in a packed fringe requirement.
+     */
+    private static final int REQUIREMENT_MASK_SHIFT = 8;
+
+    /**
+     * The mask to apply to get the required mask or value of a packed fringe requirement.
+     */
+    private static final int REQUIREMENT_BYTE_MASK = 0xFF;
+
     /**
      * An empty board.
      */
     public static final Board EMPTY =
-            new Board(new PlacedTile[SIZE * SIZE], new int[0], ZonePartitions.EMPTY, Set.of());
+            new Board(PersistentArray.empty(), new int[0], emptyTileIdIndices(),
+                    new long[(CELL_COUNT + Long.SIZE - 1) / Long.SIZE], new int[0],
+                    new int[EdgeSignatures.ROTATION_CLASS_COUNT], OccupantRegistry.EMPTY, ZonePartitions.EMPTY,
+                    Set.of(), 0, new int[PlayerColor.ALL.size()]);
 
     private final ZonePartitions zonePartitions;
-    private final PlacedTile[] placedTiles;
+    /**
+     * The placed tiles, indexed in reading order, shared with the boards this one was derived from.
+     */
+    private final PersistentArray<PlacedTile> placedTiles;
     private final int[] tileIndices;
+    /**
+     * The row major index of the tile of each tile id, or -1 if the tile is not on the board.
+     */
+    private final int[] tileIdIndices;
+    /**
+     * The bitset of the column major indices of the insertion positions, i.e. the fringe of the board.
+     * <p>
+     * Its bits are in ascending order of the x coordinate, then of the y coordinate, of the insertion positions,
+     * which is the order in which they are numbered by the action encoding.
+     */
+    private final long[] fringe;
+    /**
+     * The packed requirements of each insertion position, sorted by row major index.
+     * <p>
+     * The required mask covers the edge signature codes of the sides touching an already placed tile,
+     * and the required value gives the code these sides must have.
+     */
+    private final int[] fringeRequirements;
+    /**
+     * The number of insertion positions accepting a tile of each rotation class, kept up to date with the
+     * fringe requirements so that the playability of a tile is known in constant time.
+     */
+    private final int[] playableCounts;
+    /**
+     * The occupants of the board and the number of occupants of each kind placed by each player.
+     */
+    private final OccupantRegistry occupants;
     private final Set<Animal> cancelledAnimals;
+    /**
+     * The Zobrist key of the placed tiles, of their occupants and of the cancelled animals.
+     */
+    private final long positionKey;
+    /**
+     * The points the open meadows and river systems would yield to each player if the game ended now, indexed
+     * by the ordinal of the players, which is never modified once the board is built.
+     */
+    private final int[] projectedPoints;
 
     /**
      * Private constructor of the board to initialize values.
      */
-    private Board(PlacedTile[] placedTiles, int[] tileIndices, ZonePartitions zonePartitions, Set<Animal> cancelledAnimals) {
+    private Board(PersistentArray<PlacedTile> placedTiles, int[] tileIndices, int[] tileIdIndices, long[] fringe,
+                  int[] fringeRequirements, int[] playableCounts, OccupantRegistry occupants,
+                  ZonePartitions zonePartitions, Set<Animal> cancelledAnimals, long positionKey,
+                  int[] projectedPoints) {
         this.placedTiles = placedTiles;
         this.tileIndices = tileIndices;
+        this.tileIdIndices = tileIdIndices;
+        this.fringe = fringe;
+        this.fringeRequirements = fringeRequirements;
+        this.playableCounts = playableCounts;
+        this.occupants = occupants;
         this.zonePartitions = zonePartitions;
         this.cancelledAnimals = cancelledAnimals;
+        this.positionKey = positionKey;
+        this.projectedPoints = projectedPoints;
+    }
+
+    /**
+     * Returns the table of the row major index of each tile id of an empty board.
+     *
+     * @return the table of the row major index of each tile id of an empty board
+     */
+    private static int[] emptyTileIdIndices() {
+        int[] tileIdIndices = new int[Tiles.TILES.size()];
+        Arrays.fill(tileIdIndices, -1);
+        return tileIdIndices;
     }
 
     /**
      * Calculates the row major index of the given position.
      *
-     * @param pos the positiondf
+     * @param pos the position
      * @return the row major index of the given position
      */
     private int calculateRowMajorIndex(Pos pos) {
-        int originIndex = (placedTiles.length - 1) / 2;
+        int originIndex = (SIZE * SIZE - 1) / 2;
         return originIndex + pos.x() + pos.y() * SIZE;
     }
 
+    /**
+     * Calculates the position of the given row major index.
+     *
+     * @param index the row major index
+     * @return the position of the given row major index
+     */
+    private static Pos calculatePos(int index) {
+        return new Pos(index % SIZE - REACH, index / SIZE - REACH);
+    }
+
+    /**
+     * Calculates the column major index of the given row major index.
+     *
+     * @param index the row major index
+     * @return the column major index of the same cell
+     */
+    private static int columnMajorIndex(int index) {
+        return index % SIZE * SIZE + index / SIZE;
+    }
+
+    /**
+     * Calculates the position of the given column major index.
+     *
+     * @param columnIndex the column major index
+     * @return the position of the given column major index
+     */
+    private static Pos calculatePosOfColumnMajorIndex(int columnIndex) {
+        return new Pos(columnIndex / SIZE - REACH, columnIndex % SIZE - REACH);
+    }
+
+    /**
+     * Adds the cell of the given row major index to the given fringe bitset, or removes it.
+     *
+     * @param fringe the fringe bitset to update
+     * @param index  the row major index
+     * @param set    whether to add or to remove the cell
+     */
+    private static void setInFringe(long[] fringe, int index, boolean set) {
+        int columnIndex = columnMajorIndex(index);
+        if (set)
+            fringe[columnIndex / Long.SIZE] |= 1L << columnIndex;
+        else
+            fringe[columnIndex / Long.SIZE] &= ~(1L << columnIndex);
+    }
+
+    /**
+     * Determines whether the given row major index is an insertion position.
+     *
+     * @param index the row major index
+     * @return whether the given row major index is an insertion position
+     */
+    private boolean isInFringe(int index) {
+        int columnIndex = columnMajorIndex(index);
+        return (fringe[columnIndex / Long.SIZE] & (1L << columnIndex)) != 0;
+    }
+
+    /**
+     * Returns the position of the requirement of the given row major index in the given sorted fringe
+     * requirements, or {@code -(insertion point) - 1} if there is none, like {@link Arrays#binarySearch}.
+     *
+     * @param requirements the sorted fringe requirements
+     * @param count        the number of requirements to consider
+     * @param index        the row major index
+     * @return the position of the requirement of the given row major index
+     */
+    private static int findRequirement(int[] requirements, int count, int index) {
+        // The requirement of an insertion position always has a non-zero mask, so it is never equal to the key
+        int insertionPoint = -Arrays.binarySearch(requirements, 0, count, index << REQUIREMENT_INDEX_SHIFT) - 1;
+        if (insertionPoint < count && requirements[insertionPoint] >>> REQUIREMENT_INDEX_SHIFT == index)
+            return insertionPoint;
+        return -insertionPoint - 1;
+    }
+
+    /**
+     * Determines whether a tile with the given edge signature satisfies the given packed requirement.
+     *
+     * @param signature   the edge signature of the tile
+     * @param requirement the packed requirement
+     * @return whether a tile with the given edge signature satisfies the given requirement
+     */
+    private static boolean satisfies(int signature, int requirement) {
+        int mask = requirement >>> REQUIREMENT_MASK_SHIFT & REQUIREMENT_BYTE_MASK;
+        int value = requirement & REQUIREMENT_BYTE_MASK;
+        return (signature & mask) == value;
+    }
+
     /**
      * Determines whether the given position is within the board.
      *
@@ -76,7 +247,7 @@ public final class Board {
         int index = calculateRowMajorIndex(pos);
         if (!isPosWithinBoard(pos))
             return null;
-        return placedTiles[index];
+        return placedTiles.get(index);
     }
 
     /**
@@ -87,12 +258,9 @@ public final class Board {
      * @throws IllegalArgumentException if no tile with the given id is found
      */
     public PlacedTile tileWithId(int tileId) {
-        for (int placedTileIndex : tileIndices) {
-            PlacedTile placedTile = placedTiles[placedTileIndex];
-            if (placedTile.tile().id() == tileId)
-                return placedTile;
-        }
-        throw new IllegalArgumentException("No tile with given id found.");
+        if (tileId < 0 || tileId >= tileIdIndices.length || tileIdIndices[tileId] == -1)
+            throw new IllegalArgumentException("No tile with given id found.");
+        return placedTiles.get(tileIdIndices[tileId]);
     }
 
     /**
@@ -109,16 +277,10 @@ public final class Board {
     /**
      * Return all the occupants on the tiles placed on the board.
      *
-     * @return the set of all occupants on the board
+     * @return an immutable view of the set of all occupants on the board, which iterates in zone id order
      */
     public Set<Occupant> occupants() {
-        Set<Occupant> occupants = new HashSet<>();
-        for (int placedTileIndex : tileIndices) {
-            Occupant occupant = placedTiles[placedTileIndex].occupant();
-            if (occupant != null)
-                occupants.add(occupant);
-        }
-        return occupants;
+        return occupants.occupants();
     }
 
     /**
@@ -179,6 +341,137 @@ public final class Board {
         return zonePartitions.riverSystems().areas();
     }
 
+    /**
+     * Returns the points the open meadows and river systems of the board would yield to each player if the
+     * game ended now, indexed by the ordinal of the players.
+     * <p>
+     * They are maintained incrementally by the methods deriving a new board from this one, and must not be
+     * modified.
+     *
+     * @return the projected points of each player
+     */
+    int[] projectedPoints() {
+        return projectedPoints;
+    }
+
+    /**
+     * Returns the position of the tile with the given id.
+     *
+     * @param tileId the id of the tile
+     * @return the position of the tile with the given id
+     * @throws IllegalArgumentException if no tile with the given id is found
+     */
+    private Pos tilePosition(int tileId) {
+        return tileWithId(tileId).pos();
+    }
+
+    /**
+     * Adds the given area to the given list of areas, unless it is already in it.
+     * <p>
+     * Areas are compared by identity, a partition giving the same instance for all the zones of an area.
+     *
+     * @param areas the list of areas
+     * @param area  the area to add
+     * @param <Z>   the type of the zones of the area
+     */
+    private static <Z extends Zone> void addOnce(List<Area<Z>> areas, Area<Z> area) {
+        for (Area<Z> other : areas) {
+            if (other == area)
+                return;
+        }
+        areas.add(area);
+    }
+
+    /**
+     * Returns the projected points of the board obtained by placing the given tile, with the given zone
+     * partitions: the points of the meadows and river systems the tile extends are replaced by those of the
+     * areas containing its zones.
+     *
+     * @param tile              the placed tile
+     * @param newZonePartitions the zone partitions of the board with the tile
+     * @return the projected points of the board with the tile
+     */
+    private int[] projectedPointsWith(PlacedTile tile, ZonePartitions newZonePartitions) {
+        List<Area<Zone.Meadow>> oldMeadows = new ArrayList<>();
+        List<Area<Zone.Water>> oldRiverSystems = new ArrayList<>();
+        List<Area<Zone.Meadow>> newMeadows = new ArrayList<>();
+        List<Area<Zone.Water>> newRiverSystems = new ArrayList<>();
+        for (Direction direction : Direction.ALL) {
+            // A lake belongs to the river system of its rivers, so the zones of the sides are enough
+            for (Zone zone : tile.side(direction).zones()) {
+                switch (zone) {
+                    case Zone.Meadow meadow -> addOnce(newMeadows, newZonePartitions.meadows().areaContaining(meadow));
+                    case Zone.River river ->
+                            addOnce(newRiverSystems, newZonePartitions.riverSystems().areaContaining(river));
+                    default -> {
+                    }
+                }
+            }
+            PlacedTile adjacentTile = tileAt(tile.pos().neighbor(direction));
+            if (adjacentTile == null)
+                continue;
+            for (Zone zone : adjacentTile.side(direction.opposite()).zones()) {
+                switch (zone) {
+                    case Zone.Meadow meadow -> addOnce(oldMeadows, meadowArea(meadow));
+                    case Zone.River river -> addOnce(oldRiverSystems, riverSystemArea(river));
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        int[] newProjectedPoints = projectedPoints.clone();
+        IntFunction<Pos> newTilePositions = tileId -> tileId == tile.id() ? tile.pos() : tilePosition(tileId);
+        for (Area<Zone.Meadow> meadow : oldMeadows)
+            ScoreProjection.addMeadowPoints(newProjectedPoints, -1, meadow, cancelledAnimals, this::tilePosition);
+        for (Area<Zone.Meadow> meadow : newMeadows)
+            ScoreProjection.addMeadowPoints(newProjectedPoints, 1, meadow, cancelledAnimals, newTilePositions);
+        for (Area<Zone.Water> riverSystem : oldRiverSystems)
+            ScoreProjection.addRiverSystemPoints(newProjectedPoints, -1, riverSystem);
+        for (Area<Zone.Water> riverSystem : newRiverSystems)
+            ScoreProjection.addRiverSystemPoints(newProjectedPoints, 1, riverSystem);
+        return newProjectedPoints;
+    }
+
+    /**
+     * Returns the projected points of the board obtained by adding or removing an occupant of the given zone,
+     * with the given zone partitions: the points of the meadow or river system containing the zone are
+     * replaced by those of its area with the new occupants.
+     *
+     * @param zone              the zone whose occupant was added or removed
+     * @param newZonePartitions the zone partitions of the board with the new occupants
+     * @return the projected points of the board with the new occupants
+     */
+    private int[] projectedPointsWithOccupantsOf(Zone zone, ZonePartitions newZonePartitions) {
+        int[] newProjectedPoints = projectedPoints;
+        switch (zone) {
+            case Zone.Meadow meadow -> {
+                Area<Zone.Meadow> oldMeadow = meadowArea(meadow);
+                Area<Zone.Meadow> newMeadow = newZonePartitions.meadows().areaContaining(meadow);
+                if (oldMeadow != newMeadow) {
+                    newProjectedPoints = newProjectedPoints.clone();
+                    ScoreProjection.addMeadowPoints(newProjectedPoints, -1, oldMeadow, cancelledAnimals,
+                            this::tilePosition);
+                    ScoreProjection.addMeadowPoints(newProjectedPoints, 1, newMeadow, cancelledAnimals,
+                            this::tilePosition);
+                }
+            }
+            case Zone.Water water -> {
+                // The pawn of a fisher is not an occupant of the river system
+                Area<Zone.Water> oldRiverSystem = riverSystemArea(water);
+                Area<Zone.Water> newRiverSystem = newZonePartitions.riverSystems().areaContaining(water);
+                if (oldRiverSystem != newRiverSystem) {
+                    newProjectedPoints = newProjectedPoints.clone();
+                    ScoreProjection.addRiverSystemPoints(newProjectedPoints, -1, oldRiverSystem);
+                    ScoreProjection.addRiverSystemPoints(newProjectedPoints, 1, newRiverSystem);
+                }
+            }
+            default -> {
+            }
+        }
+        return newProjectedPoints;
+    }
+
     /**
      * Returns the meadow adjacent to the given zone, in the form of an area which contains only
      * the zones of this meadow but all the occupants of the complete meadow,
@@ -212,17 +505,7 @@ public final class Board {
      * @return the number of occupants of the given type belonging to the given player on the board
      */
     public int occupantCount(PlayerColor player, Occupant.Kind occupantKind) {
-        int occupantCount = 0;
-        for (int placedTileIndex : tileIndices) {
-            PlacedTile placedTile = placedTiles[placedTileIndex];
-            // If a tile has an occupant, it has been placed by the tile placer
-            if (placedTile.occupant() != null
-                    && placedTile.occupant().kind() == occupantKind
-                    && placedTile.placer() == player) {
-                occupantCount++;
-            }
-        }
-        return occupantCount;
+        return occupants.count(player, occupantKind);
     }
 
     /**
@@ -233,17 +516,82 @@ public final class Board {
      */
     public Set<Pos> insertionPositions() {
         Set<Pos> insertionPositions = new HashSet<>();
-        for (int placedTileIndex : tileIndices) {
-            PlacedTile placedTile = placedTiles[placedTileIndex];
-            for (Direction direction : Direction.ALL) {
-                Pos neighbor = placedTile.pos().neighbor(direction);
-                if (tileAt(neighbor) == null && isPosWithinBoard(neighbor))
-                    insertionPositions.add(neighbor);
-            }
+        for (int i = 0; i < fringe.length; ++i) {
+            // Go through the bits set in the word, from the lowest to the highest
+            for (long word = fringe[i]; word != 0; word &= word - 1)
+                insertionPositions.add(
+                        calculatePosOfColumnMajorIndex(i * Long.SIZE + Long.numberOfTrailingZeros(word)));
         }
         return insertionPositions;
     }
 
+    /**
+     * Returns the index of the given insertion position when the insertion positions are sorted in ascending
+     * order of their x coordinate, then of their y coordinate, or -1 if it is not an insertion position.
+     * <p>
+     * The index is the number of bits of the fringe set before the one of the position, counted word by word.
+     *
+     * @param pos the position
+     * @return the index of the given insertion position, or -1 if it is not an insertion position
+     */
+    int insertionPositionIndex(Pos pos) {
+        if (!isPosWithinBoard(pos) || !isInFringe(calculateRowMajorIndex(pos)))
+            return -1;
+        int columnIndex = columnMajorIndex(calculateRowMajorIndex(pos));
+        int wordIndex = columnIndex / Long.SIZE;
+        int rank = Long.bitCount(fringe[wordIndex] & ((1L << columnIndex) - 1));
+        for (int i = 0; i < wordIndex; ++i)
+            rank += Long.bitCount(fringe[i]);
+        return rank;
+    }
+
+    /**
+     * Returns the insertion position of the given index when the insertion positions are sorted in ascending
+     * order of their x coordinate, then of their y coordinate, or null if there is none.
+     *
+     * @param index the index of the insertion position
+     * @return the insertion position of the given index, or null if the index is out of bounds
+     */
+    Pos insertionPosition(int index) {
+        if (index < 0)
+            return null;
+        int remaining = index;
+        for (int i = 0; i < fringe.length; ++i) {
+            int bitCount = Long.bitCount(fringe[i]);
+            if (remaining < bitCount) {
+                // Clear the lowest set bits preceding the wanted one
+                long word = fringe[i];
+                for (; remaining > 0; --remaining)
+                    word &= word - 1;
+                return calculatePosOfColumnMajorIndex(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+            }
+            remaining -= bitCount;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the given occupant when the occupants of the board are sorted by zone id,
+     * or -1 if it is not on the board.
+     *
+     * @param occupant the occupant
+     * @return the index of the given occupant, or -1 if it is not on the board
+     */
+    int occupantIndex(Occupant occupant) {
+        return occupants.indexOf(occupant);
+    }
+
+    /**
+     * Returns the occupant of the given index when the occupants of the board are sorted by zone id,
+     * or null if there is none.
+     *
+     * @param index the index of the occupant
+     * @return the occupant of the given index, or null if the index is out of bounds
+     */
+    Occupant occupantAt(int index) {
+        return occupants.get(index);
+    }
+
     /**
      * Returns the last placed tile on the board.
      * <p>
@@ -254,10 +602,22 @@ public final class Board {
      */
     public PlacedTile lastPlacedTile() {
         if (tileIndices.length > 0)
-            return placedTiles[tileIndices[tileIndices.length - 1]];
+            return placedTiles.get(tileIndices[tileIndices.length - 1]);
         return null;
     }
 
+    /**
+     * Returns the tiles placed on the board, in the order in which they were placed.
+     *
+     * @return the placed tiles, in placement order
+     */
+    List<PlacedTile> placedTilesInOrder() {
+        List<PlacedTile> tiles = new ArrayList<>(tileIndices.length);
+        for (int tileIndex : tileIndices)
+            tiles.add(placedTiles.get(tileIndex));
+        return tiles;
+    }
+
     /**
      * Returns the set of all forests closed by the last placed tile.
      *
@@ -298,6 +658,63 @@ public final class Board {
      * @return {@code true} if the given placed tile can be added to the board
      */
     public boolean canAddTile(PlacedTile tile) {
+        // Check if the tile cannot be placed on the board
+        if (!isPosWithinBoard(tile.pos()) || !isInFringe(calculateRowMajorIndex(tile.pos())))
+            return false;
+        // Check for potential conflicts with adjacent tiles
+        int requirementIndex = findRequirement(
+                fringeRequirements, fringeRequirements.length, calculateRowMajorIndex(tile.pos()));
+        return satisfies(EdgeSignatures.of(tile), fringeRequirements[requirementIndex]);
+    }
+
+    /**
+     * Writes in the given buffer the packed code of every legal placement of the given tile, and returns
+     * their number.
+     * <p>
+     * The insertion positions are numbered in ascending order of their x coordinate, then of their y
+     * coordinate, and the code of a placement is its fringe index shifted by the given amount, combined with
+     * the ordinal of its rotation. The codes are written in ascending order, without creating any object.
+     *
+     * @param tile       the tile to place
+     * @param indexShift the shift of the fringe index in the codes
+     * @param buffer     the buffer in which to write the codes
+     * @return the number of legal placements
+     * @throws IllegalArgumentException if the buffer is too small to contain every code
+     */
+    int legalPlacements(Tile tile, int indexShift, int[] buffer) {
+        int signature = EdgeSignatures.of(tile);
+        int count = 0;
+        int fringeIndex = 0;
+        // The bits of the fringe are sorted by x coordinate then by y coordinate
+        for (int i = 0; i < fringe.length; ++i) {
+            for (long word = fringe[i]; word != 0; word &= word - 1) {
+                int columnIndex = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                // Transposing a column major index gives back the row major index
+                int index = columnMajorIndex(columnIndex);
+                int requirement = fringeRequirements[
+                        findRequirement(fringeRequirements, fringeRequirements.length, index)];
+                for (int rotation = 0; rotation < Rotation.COUNT; ++rotation) {
+                    if (satisfies(EdgeSignatures.rotated(signature, Rotation.ALL.get(rotation)), requirement)) {
+                        Preconditions.checkArgument(count < buffer.length);
+                        buffer[count++] = fringeIndex << indexShift | rotation;
+                    }
+                }
+                ++fringeIndex;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if the given placed tile can be added to the board, by comparing its sides to those of
+     * the adjacent tiles.
+     * <p>
+     * This is the reference implementation of {@link #canAddTile(PlacedTile)}, which uses the edge signatures.
+     *
+     * @param tile the placed tile to check
+     * @return {@code true} if the given placed tile can be added to the board
+     */
+    boolean canAddTileBySides(PlacedTile tile) {
         // Check if the tile cannot be placed on the board
         if (!insertionPositions().contains(tile.pos()))
             return false;
@@ -318,16 +735,36 @@ public final class Board {
     /**
      * Returns whether if the given tile could be placed on one of the board's
      * insertion positions, possibly after rotation, or not.
+     * <p>
+     * The number of insertion positions accepting the rotation class of the tile is maintained by
+     * {@link #withNewTile(PlacedTile)}, so this check is done in constant time.
      *
      * @param tile the tile to check for placement possibilities
      * @return whether the given tile could be placed on one of the board's insertion positions or not
      */
     public boolean couldPlaceTile(Tile tile) {
-        for (Pos insertionPosition : insertionPositions()) {
-            for (Rotation rotation : Rotation.ALL) {
-                PlacedTile potentialTile = new PlacedTile(tile, null, rotation, insertionPosition);
-                if (canAddTile(potentialTile))
-                    return true;
+        return playableCounts[EdgeSignatures.rotationClass(EdgeSignatures.of(tile))] > 0;
+    }
+
+    /**
+     * Returns whether if the given tile could be placed on one of the board's insertion positions,
+     * possibly after rotation, or not, by comparing its sides to those of the adjacent tiles.
+     * <p>
+     * This is the reference implementation of {@link #couldPlaceTile(Tile)}, which uses the edge signatures.
+     *
+     * @param tile the tile to check for placement possibilities
+     * @return whether the given tile could be placed on one of the board's insertion positions or not
+     */
+    boolean couldPlaceTileBySides(Tile tile) {
+        for (int i = 0; i < fringe.length; ++i) {
+            for (long word = fringe[i]; word != 0; word &= word - 1) {
+                Pos insertionPosition =
+                        calculatePosOfColumnMajorIndex(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                for (Rotation rotation : Rotation.ALL) {
+                    PlacedTile potentialTile = new PlacedTile(tile, null, rotation, insertionPosition);
+                    if (canAddTileBySides(potentialTile))
+                        return true;
+                }
             }
         }
         return false;
@@ -338,18 +775,34 @@ public final class Board {
      *
      * @param tile the tile to place
      * @return an identical board, but with the given tile in addition
-     * @throws IllegalArgumentException if the board is not empty and the given tile cannot be added
+     * @throws IllegalArgumentException if the board is not empty and the given tile cannot be added, or if the
+     *                                  tile carries an occupant whose area, once the tile is connected to its
+     *                                  neighbors, is already occupied
      */
     public Board withNewTile(PlacedTile tile) {
         // Check if the tile can be placed on the board
         Preconditions.checkArgument(tileIndices.length == 0 || canAddTile(tile));
-        // Create the new placed tiles array
+        // Create the new placed tiles array, sharing the unmodified cells with this board
         int newTileIndex = calculateRowMajorIndex(tile.pos());
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
-        newPlacedTiles[newTileIndex] = tile;
+        PersistentArray<PlacedTile> newPlacedTiles = placedTiles.with(newTileIndex, tile);
         // Create the new tile indices array
         int[] newTileIndices = Arrays.copyOf(tileIndices, tileIndices.length + 1);
         newTileIndices[tileIndices.length] = newTileIndex;
+        // Create the new tile id table, growing it for ids outside the tile catalog
+        int tileId = tile.id();
+        int[] newTileIdIndices = Arrays.copyOf(tileIdIndices, Math.max(tileIdIndices.length, tileId + 1));
+        Arrays.fill(newTileIdIndices, tileIdIndices.length, newTileIdIndices.length, -1);
+        newTileIdIndices[tileId] = newTileIndex;
+        // Update the fringe: the new tile position is no longer free, but its free neighbors are
+        long[] newFringe = fringe.clone();
+        setInFringe(newFringe, newTileIndex, false);
+        for (Direction direction : Direction.ALL) {
+            Pos neighbor = tile.pos().neighbor(direction);
+            if (isPosWithinBoard(neighbor) && tileAt(neighbor) == null)
+                setInFringe(newFringe, calculateRowMajorIndex(neighbor), true);
+        }
+        int[] newFringeRequirements = withFringeRequirementsOf(tile, newTileIndex);
+        int[] newPlayableCounts = withPlayableCountsOf(tile.pos(), newTileIndex, newFringeRequirements);
         // Update zone partitions
         ZonePartitions.Builder builder = new ZonePartitions.Builder(zonePartitions);
         builder.addTile(tile.tile());
@@ -360,8 +813,216 @@ public final class Board {
                 builder.connectSides(side, adjacentTile.side(direction.opposite()));
             }
         }
+        // Register the occupant the tile may already carry, as if it had been placed right after it
+        OccupantRegistry newOccupants = occupants;
+        Occupant occupant = tile.occupant();
+        if (occupant != null) {
+            builder.addInitialOccupant(tile.placer(), occupant.kind(), tile.zoneWithId(occupant.zoneId()));
+            newOccupants = occupants.with(occupant, tile.placer());
+        }
+        long newPositionKey = positionKey ^ ZobristKeys.tile(tile, newTileIndex) ^ ZobristKeys.occupant(occupant);
+        ZonePartitions newZonePartitions = builder.build();
         // Create a new board with the new tile
-        return new Board(newPlacedTiles, newTileIndices, builder.build(), cancelledAnimals);
+        return new Board(newPlacedTiles, newTileIndices, newTileIdIndices, newFringe, newFringeRequirements,
+                newPlayableCounts, newOccupants, newZonePartitions, cancelledAnimals, newPositionKey,
+                projectedPointsWith(tile, newZonePartitions));
+    }
+
+    /**
+     * Returns the fringe requirements of the board obtained by placing the given tile at the given
+     * row major index.
+     * <p>
+     * The requirement of the position of the tile is removed, and the side of the tile facing each free
+     * neighbor is added to the requirement of this neighbor.
+     *
+     * @param tile      the placed tile
+     * @param tileIndex the row major index of the placed tile
+     * @return the updated fringe requirements
+     */
+    private int[] withFringeRequirementsOf(PlacedTile tile, int tileIndex) {
+        int signature = EdgeSignatures.of(tile);
+        int[] requirements = Arrays.copyOf(fringeRequirements, fringeRequirements.length + Direction.COUNT);
+        int count = fringeRequirements.length;
+        // Remove the requirement of the position of the tile
+        int position = findRequirement(requirements, count, tileIndex);
+        if (position >= 0) {
+            System.arraycopy(requirements, position + 1, requirements, position, count - position - 1);
+            --count;
+        }
+        // Add the side of the tile to the requirement of each free neighbor
+        for (Direction direction : Direction.ALL) {
+            Pos neighbor = tile.pos().neighbor(direction);
+            if (!isPosWithinBoard(neighbor) || tileAt(neighbor) != null)
+                continue;
+            int neighborIndex = calculateRowMajorIndex(neighbor);
+            int shift = EdgeSignatures.shift(direction.opposite());
+            int maskBits = EdgeSignatures.SIDE_MASK << shift << REQUIREMENT_MASK_SHIFT;
+            int valueBits = EdgeSignatures.sideCode(signature, direction) << shift;
+            position = findRequirement(requirements, count, neighborIndex);
+            if (position >= 0) {
+                requirements[position] |= maskBits | valueBits;
+            } else {
+                // Insert a new requirement while keeping the requirements sorted
+                position = -position - 1;
+                System.arraycopy(requirements, position, requirements, position + 1, count - position);
+                requirements[position] = neighborIndex << REQUIREMENT_INDEX_SHIFT | maskBits | valueBits;
+                ++count;
+            }
+        }
+        return Arrays.copyOf(requirements, count);
+    }
+
+    /**
+     * Returns the playable counts of the board obtained by placing a tile at the given position, whose
+     * fringe requirements are given.
+     * <p>
+     * Only the requirements of the position of the tile and of its neighbors can change, so the accepted
+     * rotation classes of their old requirements are subtracted and those of their new requirements added.
+     *
+     * @param pos                   the position of the placed tile
+     * @param tileIndex             the row major index of the placed tile
+     * @param newFringeRequirements the fringe requirements of the new board
+     * @return the updated playable counts
+     */
+    private int[] withPlayableCountsOf(Pos pos, int tileIndex, int[] newFringeRequirements) {
+        int[] counts = playableCounts.clone();
+        updatePlayableCounts(counts, tileIndex, newFringeRequirements);
+        for (Direction direction : Direction.ALL) {
+            Pos neighbor = pos.neighbor(direction);
+            if (isPosWithinBoard(neighbor))
+                updatePlayableCounts(counts, calculateRowMajorIndex(neighbor), newFringeRequirements);
+        }
+        return counts;
+    }
+
+    /**
+     * Updates the given playable counts with the change of the requirement of the given row major index.
+     *
+     * @param counts                the playable counts to update
+     * @param index                 the row major index whose requirement may have changed
+     * @param newFringeRequirements the new fringe requirements
+     */
+    private void updatePlayableCounts(int[] counts, int index, int[] newFringeRequirements) {
+        int oldPosition = findRequirement(fringeRequirements, fringeRequirements.length, index);
+        int newPosition = findRequirement(newFringeRequirements, newFringeRequirements.length, index);
+        int oldRequirement = oldPosition >= 0 ? fringeRequirements[oldPosition] : 0;
+        int newRequirement = newPosition >= 0 ? newFringeRequirements[newPosition] : 0;
+        if (oldRequirement == newRequirement)
+            return;
+        if (oldPosition >= 0) {
+            int accepted = EdgeSignatures.acceptedClasses(oldRequirement & REQUIREMENT_BYTE_MASK);
+            for (; accepted != 0; accepted &= accepted - 1)
+                --counts[Integer.numberOfTrailingZeros(accepted)];
+        }
+        if (newPosition >= 0) {
+            int accepted = EdgeSignatures.acceptedClasses(newRequirement & REQUIREMENT_BYTE_MASK);
+            for (; accepted != 0; accepted &= accepted - 1)
+                ++counts[Integer.numberOfTrailingZeros(accepted)];
+        }
+    }
+
+    /**
+     * Returns the board on which the given tiles, with their occupants, have been placed in the given order,
+     * and the given animals cancelled.
+     * <p>
+     * The board is equal to the one obtained by placing the tiles one after the other, each followed by its
+     * occupant, but it is built in a single pass: the zone partitions are built by one builder, and the
+     * fringe and its requirements are computed once from the final positions. Like {@link #withNewTile}, the
+     * placements are checked: each tile but the first must touch a tile placed before it, and its sides must be of
+     * the same kind as the sides of these tiles they touch.
+     *
+     * @param tiles            the placed tiles, in the order in which they were placed
+     * @param cancelledAnimals the cancelled animals
+     * @return the board with the given tiles and cancelled animals
+     * @throws IllegalArgumentException if a tile is outside the board, if two tiles share a position, if a tile
+     *                                  other than the first touches no tile placed before it, if one of its
+     *                                  sides does not match the side it touches, or if its occupant joins an
+     *                                  area which is already occupied
+     */
+    static Board of(List<PlacedTile> tiles, Set<Animal> cancelledAnimals) {
+        PersistentArray.Builder<PlacedTile> placedTiles = new PersistentArray.Builder<>(PersistentArray.empty());
+        int[] tileIndices = new int[tiles.size()];
+        int[] tileIdIndices = emptyTileIdIndices();
+        ZonePartitions.Builder zonePartitions = new ZonePartitions.Builder(ZonePartitions.EMPTY);
+        OccupantRegistry occupants = OccupantRegistry.EMPTY;
+        long positionKey = 0;
+        for (int i = 0; i < tiles.size(); ++i) {
+            PlacedTile tile = tiles.get(i);
+            Preconditions.checkArgument(EMPTY.isPosWithinBoard(tile.pos()));
+            int index = EMPTY.calculateRowMajorIndex(tile.pos());
+            Preconditions.checkArgument(placedTiles.get(index) == null);
+            placedTiles.set(index, tile);
+            tileIndices[i] = index;
+            if (tile.id() >= tileIdIndices.length) {
+                int oldLength = tileIdIndices.length;
+                tileIdIndices = Arrays.copyOf(tileIdIndices, tile.id() + 1);
+                Arrays.fill(tileIdIndices, oldLength, tileIdIndices.length, -1);
+            }
+            tileIdIndices[tile.id()] = index;
+            // Connect the tile to the tiles placed before it, whose sides it must match
+            zonePartitions.addTile(tile.tile());
+            boolean touchesPlacedTile = false;
+            for (Direction direction : Direction.ALL) {
+                Pos neighbor = tile.pos().neighbor(direction);
+                PlacedTile adjacentTile = EMPTY.isPosWithinBoard(neighbor)
+                        ? placedTiles.get(EMPTY.calculateRowMajorIndex(neighbor)) : null;
+                if (adjacentTile == null)
+                    continue;
+                TileSide side = tile.side(direction);
+                TileSide adjacentSide = adjacentTile.side(direction.opposite());
+                Preconditions.checkArgument(side.isSameKindAs(adjacentSide));
+                zonePartitions.connectSides(side, adjacentSide);
+                touchesPlacedTile = true;
+            }
+            Preconditions.checkArgument(i == 0 || touchesPlacedTile);
+            // An occupant is placed right after its tile, when its area was not occupied yet
+            Occupant occupant = tile.occupant();
+            if (occupant != null) {
+                zonePartitions.addInitialOccupant(tile.placer(), occupant.kind(), tile.zoneWithId(occupant.zoneId()));
+                occupants = occupants.with(occupant, tile.placer());
+            }
+            positionKey ^= ZobristKeys.tile(tile, index) ^ ZobristKeys.occupant(occupant);
+        }
+        Set<Animal> cancelled = new HashSet<>(cancelledAnimals);
+        for (Animal animal : cancelled)
+            positionKey ^= ZobristKeys.cancelledAnimal(animal);
+
+        // Compute the fringe and its requirements, sorted by row major index, from the final positions
+        long[] fringe = new long[EMPTY.fringe.length];
+        int[] fringeRequirements = new int[CELL_COUNT];
+        int[] playableCounts = new int[EdgeSignatures.ROTATION_CLASS_COUNT];
+        int requirementCount = 0;
+        for (int index = 0; index < CELL_COUNT; ++index) {
+            if (placedTiles.get(index) != null)
+                continue;
+            Pos pos = calculatePos(index);
+            int requirement = 0;
+            for (Direction direction : Direction.ALL) {
+                Pos neighbor = pos.neighbor(direction);
+                PlacedTile adjacentTile = EMPTY.isPosWithinBoard(neighbor)
+                        ? placedTiles.get(EMPTY.calculateRowMajorIndex(neighbor)) : null;
+                if (adjacentTile == null)
+                    continue;
+                int shift = EdgeSignatures.shift(direction);
+                requirement |= EdgeSignatures.SIDE_MASK << shift << REQUIREMENT_MASK_SHIFT
+                        | EdgeSignatures.sideCode(EdgeSignatures.of(adjacentTile), direction.opposite()) << shift;
+            }
+            if (requirement == 0)
+                continue;
+            setInFringe(fringe, index, true);
+            fringeRequirements[requirementCount++] = index << REQUIREMENT_INDEX_SHIFT | requirement;
+            int accepted = EdgeSignatures.acceptedClasses(requirement & REQUIREMENT_BYTE_MASK);
+            for (; accepted != 0; accepted &= accepted - 1)
+                ++playableCounts[Integer.numberOfTrailingZeros(accepted)];
+        }
+
+        ZonePartitions builtZonePartitions = zonePartitions.build();
+        int[] builtTileIdIndices = tileIdIndices;
+        int[] projectedPoints = ScoreProjection.of(builtZonePartitions, cancelled,
+                tileId -> calculatePos(builtTileIdIndices[tileId]));
+        return new Board(placedTiles.build(), tileIndices, tileIdIndices, fringe,
+                Arrays.copyOf(fringeRequirements, requirementCount), playableCounts, occupants,
+                builtZonePartitions, cancelled, positionKey, projectedPoints);
     }
 
     /**
@@ -378,10 +1039,17 @@ public final class Board {
         builder.addInitialOccupant(placedTile.placer(), occupant.kind(),
                 placedTile.zoneWithId(occupant.zoneId()));
         // Create the updated placed tiles
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
-        newPlacedTiles[calculateRowMajorIndex(placedTile.pos())] = placedTile.withOccupant(occupant);
+        PersistentArray<PlacedTile> newPlacedTiles =
+                placedTiles.with(calculateRowMajorIndex(placedTile.pos()), placedTile.withOccupant(occupant));
+        // If a tile has an occupant, it has been placed by the tile placer
+        OccupantRegistry newOccupants = occupants.with(occupant, placedTile.placer());
+        long newPositionKey =
+                positionKey ^ ZobristKeys.occupant(placedTile.occupant()) ^ ZobristKeys.occupant(occupant);
+        ZonePartitions newZonePartitions = builder.build();
         // Create the new Board instance
-        return new Board(newPlacedTiles, tileIndices, builder.build(), cancelledAnimals);
+        return new Board(newPlacedTiles, tileIndices, tileIdIndices, fringe, fringeRequirements, playableCounts,
+                newOccupants, newZonePartitions, cancelledAnimals, newPositionKey,
+                projectedPointsWithOccupantsOf(placedTile.zoneWithId(occupant.zoneId()), newZonePartitions));
     }
 
     /**
@@ -396,13 +1064,19 @@ public final class Board {
         PlacedTile placedTile = tileWithId(Zone.tileId(occupant.zoneId()));
         Zone zone = placedTile.zoneWithId(occupant.zoneId());
         // Create the updated placed tiles
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
-        newPlacedTiles[calculateRowMajorIndex(placedTile.pos())] = placedTile.withNoOccupant();
+        PersistentArray<PlacedTile> newPlacedTiles =
+                placedTiles.with(calculateRowMajorIndex(placedTile.pos()), placedTile.withNoOccupant());
         // Create the updated zone partitions
         ZonePartitions.Builder builder = new ZonePartitions.Builder(zonePartitions);
         builder.removePawn(placedTile.placer(), zone);
+        OccupantRegistry newOccupants = placedTile.occupant() == null
+                ? occupants : occupants.without(placedTile.occupant(), placedTile.placer());
+        long newPositionKey = positionKey ^ ZobristKeys.occupant(placedTile.occupant());
+        ZonePartitions newZonePartitions = builder.build();
         // Create the new Board instance
-        return new Board(newPlacedTiles, tileIndices, builder.build(), cancelledAnimals);
+        return new Board(newPlacedTiles, tileIndices, tileIdIndices, fringe, fringeRequirements, playableCounts,
+                newOccupants, newZonePartitions, cancelledAnimals, newPositionKey,
+                projectedPointsWithOccupantsOf(zone, newZonePartitions));
     }
 
     /**
@@ -414,26 +1088,28 @@ public final class Board {
      */
     public Board withoutGatherersOrFishersIn(Set<Area<Zone.Forest>> forests, Set<Area<Zone.River>> rivers) {
         ZonePartitions.Builder builder = new ZonePartitions.Builder(zonePartitions);
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
+        PersistentArray.Builder<PlacedTile> newPlacedTiles = new PersistentArray.Builder<>(placedTiles);
+        OccupantRegistry newOccupants = occupants;
+        long newPositionKey = positionKey;
 
-        for (int tileIndex : tileIndices) {
-            PlacedTile placedTile = placedTiles[tileIndex];
-            Occupant occupant = placedTile.occupant();
-            if (occupant != null && occupant.kind() == Occupant.Kind.PAWN) {
-                Zone zone = placedTile.zoneWithId(occupant.zoneId());
-                if (zone instanceof Zone.Forest forest && forests.contains(forestArea(forest))) {
-                    builder.removePawn(placedTile.placer(), forest);
-                    newPlacedTiles[tileIndex] = placedTile.withNoOccupant();
-                }
-                else if (zone instanceof Zone.River river && rivers.contains(riverArea(river))) {
-                    builder.removePawn(placedTile.placer(), river);
-                    newPlacedTiles[tileIndex] = placedTile.withNoOccupant();
-                }
+        // Only the tiles holding an occupant need to be visited
+        for (Occupant occupant : occupants.occupants()) {
+            if (occupant.kind() != Occupant.Kind.PAWN)
+                continue;
+            PlacedTile placedTile = tileWithId(Zone.tileId(occupant.zoneId()));
+            Zone zone = placedTile.zoneWithId(occupant.zoneId());
+            if ((zone instanceof Zone.Forest forest && forests.contains(forestArea(forest)))
+                    || (zone instanceof Zone.River river && rivers.contains(riverArea(river)))) {
+                builder.removePawn(placedTile.placer(), zone);
+                newPlacedTiles.set(calculateRowMajorIndex(placedTile.pos()), placedTile.withNoOccupant());
+                newOccupants = newOccupants.without(occupant, placedTile.placer());
+                newPositionKey ^= ZobristKeys.occupant(occupant);
             }
         }
 
-        // Create the new board
-        return new Board(newPlacedTiles, tileIndices.clone(), builder.build(), cancelledAnimals());
+        // Gatherers and fishers are not scored by the final scoring, so the projection is unchanged
+        return new Board(newPlacedTiles.build(), tileIndices, tileIdIndices, fringe, fringeRequirements,
+                playableCounts, newOccupants, builder.build(), cancelledAnimals, newPositionKey, projectedPoints);
     }
 
     /**
@@ -444,25 +1120,74 @@ public final class Board {
      */
     public Board withMoreCancelledAnimals(Set<Animal> newlyCancelledAnimals) {
         Set<Animal> newCancelledAnimals = new HashSet<>(cancelledAnimals);
-        newCancelledAnimals.addAll(newlyCancelledAnimals);
-        return new Board(placedTiles, tileIndices, zonePartitions, newCancelledAnimals);
+        long newPositionKey = positionKey;
+        List<Area<Zone.Meadow>> meadows = new ArrayList<>();
+        for (Animal animal : newlyCancelledAnimals) {
+            if (!newCancelledAnimals.add(animal))
+                continue;
+            newPositionKey ^= ZobristKeys.cancelledAnimal(animal);
+            // Only the meadows of the animals placed on the board are scored, the id of an animal being
+            // 10 times the id of its zone plus its number
+            int tileId = animal.tileId();
+            if (tileId < tileIdIndices.length && tileIdIndices[tileId] != -1
+                    && tileWithId(tileId).zoneWithId(animal.id() / 10) instanceof Zone.Meadow meadow)
+                addOnce(meadows, meadowArea(meadow));
+        }
+        // Replace the points of the meadows of the newly cancelled animals
+        int[] newProjectedPoints = meadows.isEmpty() ? projectedPoints : projectedPoints.clone();
+        for (Area<Zone.Meadow> meadow : meadows) {
+            ScoreProjection.addMeadowPoints(newProjectedPoints, -1, meadow, cancelledAnimals, this::tilePosition);
+            ScoreProjection.addMeadowPoints(newProjectedPoints, 1, meadow, newCancelledAnimals, this::tilePosition);
+        }
+        return new Board(placedTiles, tileIndices, tileIdIndices, fringe, fringeRequirements, playableCounts,
+                occupants, zonePartitions, newCancelledAnimals, newPositionKey, newProjectedPoints);
+    }
+
+    /**
+     * Returns the 64-bit Zobrist key of the board, covering its placed tiles with their rotation, placer and
+     * occupant, and its cancelled animals.
+     * <p>
+     * The key is updated in constant time by each method deriving a new board. Equal boards have the same key,
+     * which does not depend on the execution, so that it can be used to identify a position in caches.
+     *
+     * @return the position key of the board
+     */
+    public long positionKey() {
+        return positionKey;
     }
 
     @Override
     public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
         if (obj instanceof Board board) {
-            return Arrays.equals(placedTiles, board.placedTiles)
+            // Boards with different keys cannot be equal
+            return positionKey == board.positionKey
                     && Arrays.equals(tileIndices, board.tileIndices)
+                    && placedTilesEquals(board)
                     && Arrays.equals(cancelledAnimals.toArray(), board.cancelledAnimals.toArray())
                     && zonePartitions.equals(board.zonePartitions);
         }
         return false;
     }
 
+    /**
+     * Returns whether the tiles placed on this board are equal to those placed on the given board,
+     * assuming both boards have the same tile indices.
+     *
+     * @param board the board to compare with
+     * @return whether the tiles placed on this board are equal to those placed on the given board
+     */
+    private boolean placedTilesEquals(Board board) {
+        for (int tileIndex : tileIndices) {
+            if (!placedTiles.get(tileIndex).equals(board.placedTiles.get(tileIndex)))
+                return false;
+        }
+        return true;
+    }
+
     @Override
     public int hashCode() {
-        int placedTilesHash = Arrays.hashCode(placedTiles);
-        int tileIndicesHash = Arrays.hashCode(tileIndices);
-        return Objects.hash(placedTilesHash, tileIndicesHash, zonePartitions, cancelledAnimals);
+        return Long.hashCode(positionKey);
     }
 }
\ No newline at end of file
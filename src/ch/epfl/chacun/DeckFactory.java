@@ -0,0 +1,191 @@
+package ch.epfl.chacun;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.IntStream;
+
+/**
+ * Helper class to create the shuffled tile decks of a game.
+ * <p>
+ * The decks created for a seed are those of the graphical interface for the same seed: the tiles of the catalog
+ * are shuffled like {@link java.util.Collections#shuffle(List, RandomGenerator)} does with the default random
+ * generator created with the seed, then dealt into the deck of their kind, in order.
+ * <p>
+ * Many decks can also be created at once, in parallel: the tiles of all the decks of a kind are then stored in
+ * a single array shared by these decks, and each batch of decks is shuffled with its own generator split from
+ * a splittable generator created with the seed.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+public final class DeckFactory {
+
+    /**
+     * The algorithm of the splittable generator used to create many decks at once.
+     */
+    private static final String SPLITTABLE_ALGORITHM = "L64X128MixRandom";
+
+    /**
+     * The number of decks shuffled with the same split generator.
+     */
+    private static final int BATCH_SIZE = 1 << 10;
+
+    /**
+     * The number of tile kinds.
+     */
+    private static final int KIND_COUNT = Tile.Kind.values().length;
+
+    /**
+     * The number of tiles of each kind in the catalog, indexed by the ordinal of the kinds.
+     */
+    private static final int[] KIND_SIZES = kindSizes();
+
+    /**
+     * The maximum number of decks created at once, so that the tiles of all the decks of a kind fit in an array.
+     */
+    private static final int MAX_COUNT = (Integer.MAX_VALUE - BATCH_SIZE) / Tiles.TILES.size();
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private DeckFactory() {
+    }
+
+    /**
+     * Returns the number of tiles of each kind in the catalog.
+     *
+     * @return the number of tiles of each kind, indexed by the ordinal of the kinds
+     */
+    private static int[] kindSizes() {
+        int[] sizes = new int[KIND_COUNT];
+        for (Tile tile : Tiles.TILES)
+            ++sizes[tile.kind().ordinal()];
+        return sizes;
+    }
+
+    /**
+     * Creates the decks shuffled with the default random generator created with the given seed, which are
+     * those of the graphical interface for the same seed.
+     *
+     * @param seed the seed
+     * @return the shuffled tile decks
+     */
+    public static TileDecks create(long seed) {
+        return create(RandomGeneratorFactory.getDefault().create(seed));
+    }
+
+    /**
+     * Creates the decks shuffled with the given random generator.
+     *
+     * @param shuffler the random generator used to shuffle the tiles
+     * @return the shuffled tile decks
+     */
+    public static TileDecks create(RandomGenerator shuffler) {
+        Tile[][] decks = new Tile[KIND_COUNT][];
+        for (int kind = 0; kind < KIND_COUNT; ++kind)
+            decks[kind] = new Tile[KIND_SIZES[kind]];
+        deal(shuffledTiles(shuffler), decks, 0);
+        return decksAt(decks, 0);
+    }
+
+    /**
+     * Creates the given number of decks from the given seed, in parallel.
+     * <p>
+     * The decks do not depend on the number of decks created: the decks at the same index of two calls with
+     * the same seed are equal. They are not those created by {@link #create(long)} for the same seed.
+     *
+     * @param seed  the seed
+     * @param count the number of decks to create
+     * @return the list of the shuffled tile decks
+     * @throws IllegalArgumentException if the number of decks is negative, or too large for the tiles of all
+     *                                  the decks of a kind to fit in an array
+     */
+    public static List<TileDecks> createAll(long seed, int count) {
+        Preconditions.checkArgument(count >= 0 && count <= MAX_COUNT);
+        int batchCount = (count + BATCH_SIZE - 1) / BATCH_SIZE;
+        // The generators are split in order, so that each batch always gets the same one
+        RandomGenerator.SplittableGenerator root =
+                RandomGeneratorFactory.<RandomGenerator.SplittableGenerator>of(SPLITTABLE_ALGORITHM).create(seed);
+        RandomGenerator.SplittableGenerator[] generators = new RandomGenerator.SplittableGenerator[batchCount];
+        for (int batch = 0; batch < batchCount; ++batch)
+            generators[batch] = root.split();
+
+        Tile[][] decks = new Tile[KIND_COUNT][];
+        for (int kind = 0; kind < KIND_COUNT; ++kind)
+            decks[kind] = new Tile[KIND_SIZES[kind] * count];
+        // Each batch writes its decks in its own range of the shared arrays
+        IntStream.range(0, batchCount).parallel().forEach(batch -> {
+            for (int index = batch * BATCH_SIZE; index < Math.min(count, (batch + 1) * BATCH_SIZE); ++index)
+                deal(shuffledTiles(generators[batch]), decks, index);
+        });
+
+        List<TileDecks> allDecks = new ArrayList<>(count);
+        for (int index = 0; index < count; ++index)
+            allDecks.add(decksAt(decks, index));
+        return allDecks;
+    }
+
+    /**
+     * Returns the tiles of the catalog shuffled with the given random generator, in the same way as
+     * {@link java.util.Collections#shuffle(List, RandomGenerator)}.
+     *
+     * @param shuffler the random generator used to shuffle the tiles
+     * @return the shuffled tiles
+     */
+    private static Tile[] shuffledTiles(RandomGenerator shuffler) {
+        Tile[] tiles = Tiles.TILES.toArray(new Tile[0]);
+        for (int i = tiles.length; i > 1; --i) {
+            int j = shuffler.nextInt(i);
+            Tile tile = tiles[i - 1];
+            tiles[i - 1] = tiles[j];
+            tiles[j] = tile;
+        }
+        return tiles;
+    }
+
+    /**
+     * Deals the given shuffled tiles into the decks of their kind at the given index, in order.
+     *
+     * @param tiles the shuffled tiles
+     * @param decks the arrays of the decks of each kind, indexed by the ordinal of the kinds
+     * @param index the index of the decks to fill
+     */
+    private static void deal(Tile[] tiles, Tile[][] decks, int index) {
+        int[] positions = new int[KIND_COUNT];
+        for (int kind = 0; kind < KIND_COUNT; ++kind)
+            positions[kind] = KIND_SIZES[kind] * index;
+        for (Tile tile : tiles) {
+            int kind = tile.kind().ordinal();
+            decks[kind][positions[kind]++] = tile;
+        }
+    }
+
+    /**
+     * Returns the decks at the given index of the given arrays of the decks of each kind.
+     *
+     * @param decks the arrays of the decks of each kind, indexed by the ordinal of the kinds
+     * @param index the index of the decks
+     * @return the tile decks at the given index
+     */
+    private static TileDecks decksAt(Tile[][] decks, int index) {
+        return new TileDecks(
+                deckAt(decks, Tile.Kind.START, index),
+                deckAt(decks, Tile.Kind.NORMAL, index),
+                deckAt(decks, Tile.Kind.MENHIR, index));
+    }
+
+    /**
+     * Returns the deck of the given kind at the given index of the given arrays of the decks of each kind.
+     *
+     * @param decks the arrays of the decks of each kind, indexed by the ordinal of the kinds
+     * @param kind  the kind of the deck
+     * @param index the index of the deck
+     * @return the deck of the given kind at the given index
+     */
+    private static TileDeck deckAt(Tile[][] decks, Tile.Kind kind, int index) {
+        int size = KIND_SIZES[kind.ordinal()];
+        return TileDeck.of(decks[kind.ordinal()], size * index, size * (index + 1));
+    }
+}
@@ -0,0 +1,244 @@
+package ch.epfl.chacun;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helper class to pack the kinds of the four sides of a tile into an edge signature.
+ * <p>
+ * An edge signature uses 2 bits per side, in the order N, E, S, W from the least significant bits:
+ * {@code 01} for a forest, {@code 10} for a meadow and {@code 11} for a river. Two tiles can touch each other
+ * if and only if the facing sides have the same 2-bit code, so that the placement of a tile can be checked
+ * with a single mask-and-compare against the codes required by the neighbors of a position.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class EdgeSignatures {
+
+    /**
+     * The number of bits used to encode the kind of one side.
+     */
+    private static final int BITS_PER_SIDE = 2;
+
+    /**
+     * The mask to apply to get the kind of one side.
+     */
+    static final int SIDE_MASK = (1 << BITS_PER_SIDE) - 1;
+
+    /**
+     * The mask to apply to keep a whole signature.
+     */
+    private static final int SIGNATURE_MASK = (1 << BITS_PER_SIDE * Direction.COUNT) - 1;
+
+    /**
+     * The number of possible signatures, including those having a side without code.
+     */
+    private static final int SIGNATURE_COUNT = SIGNATURE_MASK + 1;
+
+    /**
+     * The signature, without rotation, of each tile of the catalog, indexed by tile id.
+     */
+    private static final int[] CATALOG_SIGNATURES = catalogSignatures(Tiles.TILES);
+
+    /**
+     * The rotation class of each signature, or -1 for the signatures having a side without code.
+     */
+    private static final int[] ROTATION_CLASSES = rotationClasses();
+
+    /**
+     * The number of rotation classes, i.e. of sets of tile signatures which are rotations of each other.
+     */
+    static final int ROTATION_CLASS_COUNT = Arrays.stream(ROTATION_CLASSES).max().orElseThrow() + 1;
+
+    /**
+     * The bitmask of the rotation classes accepted by each requirement, indexed by the required codes.
+     */
+    private static final int[] ACCEPTED_CLASSES = acceptedClasses();
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private EdgeSignatures() {
+    }
+
+    /**
+     * Computes the signature, without rotation, of each of the given tiles.
+     *
+     * @param tiles the tiles, indexed by id
+     * @return the signature of each tile
+     */
+    private static int[] catalogSignatures(List<Tile> tiles) {
+        int[] signatures = new int[tiles.size()];
+        for (int i = 0; i < signatures.length; ++i)
+            signatures[i] = computeSignature(tiles.get(i));
+        return signatures;
+    }
+
+    /**
+     * Checks whether each side of the given signature has a code, as is the case of the signature of a tile.
+     *
+     * @param signature the signature
+     * @return {@code true} if each side of the given signature has a code
+     */
+    private static boolean isComplete(int signature) {
+        for (Direction direction : Direction.ALL) {
+            if (sideCode(signature, direction) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the rotation class of each signature, numbering the classes in the order of their smallest
+     * signature.
+     *
+     * @return the rotation class of each signature
+     */
+    private static int[] rotationClasses() {
+        int[] rotationClasses = new int[SIGNATURE_COUNT];
+        Arrays.fill(rotationClasses, -1);
+        int classCount = 0;
+        for (int signature = 0; signature < SIGNATURE_COUNT; ++signature) {
+            if (!isComplete(signature) || rotationClasses[signature] >= 0)
+                continue;
+            for (Rotation rotation : Rotation.ALL)
+                rotationClasses[rotated(signature, rotation)] = classCount;
+            ++classCount;
+        }
+        return rotationClasses;
+    }
+
+    /**
+     * Computes the bitmask of the rotation classes accepted by each requirement.
+     * <p>
+     * A requirement is given by the codes the sides of a tile must have, a side without code being free.
+     * A rotation class is accepted if one of its signatures has the required codes.
+     *
+     * @return the bitmask of the rotation classes accepted by each requirement
+     */
+    private static int[] acceptedClasses() {
+        int[] acceptedClasses = new int[SIGNATURE_COUNT];
+        for (int requirement = 0; requirement < SIGNATURE_COUNT; ++requirement) {
+            int mask = 0;
+            for (Direction direction : Direction.ALL) {
+                if (sideCode(requirement, direction) != 0)
+                    mask |= SIDE_MASK << shift(direction);
+            }
+            for (int signature = 0; signature < SIGNATURE_COUNT; ++signature) {
+                if (isComplete(signature) && (signature & mask) == requirement)
+                    acceptedClasses[requirement] |= 1 << ROTATION_CLASSES[signature];
+            }
+        }
+        return acceptedClasses;
+    }
+
+    /**
+     * Returns the 2-bit code of the kind of the given side.
+     *
+     * @param side the side
+     * @return the 2-bit code of the kind of the given side
+     */
+    private static int sideCode(TileSide side) {
+        return switch (side) {
+            case TileSide.Forest _ -> 0b01;
+            case TileSide.Meadow _ -> 0b10;
+            case TileSide.River _ -> 0b11;
+        };
+    }
+
+    /**
+     * Computes the signature of the given tile, without rotation.
+     *
+     * @param tile the tile
+     * @return the signature of the given tile
+     */
+    private static int computeSignature(Tile tile) {
+        return sideCode(tile.n())
+                | sideCode(tile.e()) << shift(Direction.E)
+                | sideCode(tile.s()) << shift(Direction.S)
+                | sideCode(tile.w()) << shift(Direction.W);
+    }
+
+    /**
+     * Returns the position of the code of the side of the given direction in a signature.
+     *
+     * @param direction the direction of the side
+     * @return the position of the code of the side of the given direction
+     */
+    static int shift(Direction direction) {
+        return direction.ordinal() * BITS_PER_SIDE;
+    }
+
+    /**
+     * Returns the signature of the given tile, without rotation.
+     * <p>
+     * The signature of the tiles of the catalog is precomputed, the one of any other tile is computed.
+     *
+     * @param tile the tile
+     * @return the signature of the given tile
+     */
+    static int of(Tile tile) {
+        int id = tile.id();
+        if (id >= 0 && id < CATALOG_SIGNATURES.length && Tiles.TILES.get(id) == tile)
+            return CATALOG_SIGNATURES[id];
+        return computeSignature(tile);
+    }
+
+    /**
+     * Returns the signature of a tile of the given signature after applying the given rotation.
+     * <p>
+     * Rotating a tile a quarter turn clockwise moves its north side to the east, and so on,
+     * which corresponds to a left rotation of the signature by the code of one side.
+     *
+     * @param signature the signature, without rotation
+     * @param rotation  the rotation
+     * @return the signature of the rotated tile
+     */
+    static int rotated(int signature, Rotation rotation) {
+        int shift = rotation.quarterTurnsCW() * BITS_PER_SIDE;
+        return (signature << shift | signature >>> (BITS_PER_SIDE * Direction.COUNT - shift)) & SIGNATURE_MASK;
+    }
+
+    /**
+     * Returns the signature of the given placed tile.
+     *
+     * @param placedTile the placed tile
+     * @return the signature of the given placed tile
+     */
+    static int of(PlacedTile placedTile) {
+        return rotated(of(placedTile.tile()), placedTile.rotation());
+    }
+
+    /**
+     * Returns the 2-bit code of the side of the given direction in the given signature.
+     *
+     * @param signature the signature
+     * @param direction the direction of the side
+     * @return the 2-bit code of the side of the given direction
+     */
+    static int sideCode(int signature, Direction direction) {
+        return signature >>> shift(direction) & SIDE_MASK;
+    }
+
+    /**
+     * Returns the rotation class of the given tile signature, shared by all its rotations.
+     *
+     * @param signature the signature of a tile
+     * @return the rotation class of the given signature
+     */
+    static int rotationClass(int signature) {
+        return ROTATION_CLASSES[signature];
+    }
+
+    /**
+     * Returns the bitmask of the rotation classes of the tiles which can be placed, in one of their rotations,
+     * where the given codes are required.
+     *
+     * @param requiredCodes the required codes, in the format of a signature whose free sides have no code
+     * @return the bitmask of the accepted rotation classes
+     */
+    static int acceptedClasses(int requiredCodes) {
+        return ACCEPTED_CLASSES[requiredCodes];
+    }
+}
@@ -0,0 +1,1757 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents a mutable game, which can play actions and undo them, meant for search and simulation code.
+ * <p>
+ * The engine applies the same rules as {@link GameState}, and gives the same boards, messages and scores, but
+ * its whole state is stored in arrays of integers which are modified in place: the tiles, their rotation,
+ * placer and occupant, the fringe of the board and its requirements, the disjoint-set forests of the areas and
+ * of the river systems with the open connections and occupants of their roots, the decks, the points and the
+ * cancelled animals. Every value overwritten by an action is recorded in a change journal, and undoing an
+ * action writes back the values it overwrote, in reverse order.
+ * <p>
+ * Placing a tile, occupying it or retaking a pawn therefore copies no board, area or deck: the cost of an action
+ * and of its undoing is proportional to the number of values it changes, and only the messages of the areas and
+ * special powers which score points are allocated. The final scoring walks the meadows and river systems once,
+ * in the order their tiles were placed; where {@link GameState} leaves unspecified which deer the tigers eat,
+ * the engine lets them eat the deer which were already cancelled first.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+public final class GameEngine {
+
+    /**
+     * The number of cells on one side of the board.
+     */
+    private static final int SIZE = Board.REACH * 2 + 1;
+
+    /**
+     * The number of cells of the board.
+     */
+    private static final int CELL_COUNT = SIZE * SIZE;
+
+    /**
+     * The number of players who can take part in a game.
+     */
+    private static final int PLAYER_COUNT = PlayerColor.ALL.size();
+
+    /**
+     * The number of kinds of occupants.
+     */
+    private static final int OCCUPANT_KIND_COUNT = Occupant.Kind.values().length;
+
+    /**
+     * The number of kinds of animals.
+     */
+    private static final int ANIMAL_KIND_COUNT = Animal.Kind.values().length;
+
+    /**
+     * The value of an empty cell, of a tile which is not on the board, or of the absence of a tile, a placer
+     * or an occupant.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The layer of the disjoint-set forest holding the forests, the meadows and the rivers.
+     */
+    private static final int AREAS = 0;
+
+    /**
+     * The layer of the disjoint-set forest holding the river systems, made of the rivers and the lakes.
+     */
+    private static final int RIVER_SYSTEMS = 1;
+
+    /**
+     * The position of the required mask in a packed fringe requirement.
+     * Packed format: required mask (8 bits) - required value (8 bits).
+     */
+    private static final int REQUIREMENT_MASK_SHIFT = 8;
+
+    /**
+     * The mask to apply to get the required mask or value of a packed fringe requirement.
+     */
+    private static final int REQUIREMENT_BYTE_MASK = 0xFF;
+
+    /**
+     * The register of the ordinal of the next action.
+     */
+    private static final int NEXT_ACTION = 0;
+
+    /**
+     * The register of the index of the current player in the order of play.
+     */
+    private static final int CURRENT_PLAYER = 1;
+
+    /**
+     * The register of the id of the tile to place, or {@link #NONE}.
+     */
+    private static final int TILE_TO_PLACE = 2;
+
+    /**
+     * The register of the number of tiles placed on the board.
+     */
+    private static final int PLACED_TILE_COUNT = 3;
+
+    /**
+     * The register of the number of messages.
+     */
+    private static final int MESSAGE_COUNT = 4;
+
+    /**
+     * The register of the bitset of the ordinals of the players who scored.
+     */
+    private static final int SCORER_MASK = 5;
+
+    /**
+     * The first register of the index of the top tile of each deck, indexed by the ordinal of its kind.
+     */
+    private static final int DECK_TOPS = 6;
+
+    /**
+     * The number of registers.
+     */
+    private static final int REGISTER_COUNT = DECK_TOPS + Tile.Kind.values().length;
+
+    /**
+     * The initial capacity of the change journal.
+     */
+    private static final int INITIAL_JOURNAL_CAPACITY = 1 << 10;
+
+    /**
+     * The text maker of the message board.
+     */
+    private final TextMaker textMaker;
+    /**
+     * The players, in the order in which they play.
+     */
+    private final PlayerColor[] players;
+    /**
+     * The tiles of each deck, indexed by the ordinal of its kind, from the initial top tile.
+     */
+    private final Tile[][] decks;
+    /**
+     * The tiles of the game, indexed by id.
+     */
+    private final Tile[] tiles;
+    /**
+     * The edge signature of each tile, indexed by id.
+     */
+    private final int[] signatures;
+    /**
+     * The zone with a special power of each tile, indexed by id, or null if it has none.
+     */
+    private final Zone[] specialPowerZones;
+    /**
+     * The zones of the tiles, indexed by id.
+     */
+    private final Zone[] zones;
+    /**
+     * The number of zone ids, which is the offset between the two layers of the disjoint-set forest.
+     */
+    private final int zoneCount;
+
+    /**
+     * The registers holding the scalar values of the game.
+     */
+    private final int[] registers = new int[REGISTER_COUNT];
+    /**
+     * The id of the tile of each row major index of the board, or {@link #NONE}.
+     */
+    private final int[] cells = new int[CELL_COUNT];
+    /**
+     * The row major index of each tile id, or {@link #NONE} if the tile is not on the board.
+     */
+    private final int[] tileCells;
+    /**
+     * The ordinal of the rotation of each placed tile, indexed by id.
+     */
+    private final int[] rotations;
+    /**
+     * The ordinal of the placer of each placed tile, indexed by id, or {@link #NONE}.
+     */
+    private final int[] placers;
+    /**
+     * The index in the occupant template of the occupant of each placed tile, indexed by id, or {@link #NONE}.
+     */
+    private final int[] occupants;
+    /**
+     * The ids of the placed tiles, in placement order.
+     */
+    private final int[] placementOrder;
+    /**
+     * The bitset of the column major indices of the insertion positions, whose bits are in ascending order of
+     * the x coordinate, then of the y coordinate, of the insertion positions.
+     */
+    private final int[] fringe = new int[(CELL_COUNT + Integer.SIZE - 1) / Integer.SIZE];
+    /**
+     * The packed requirement of each row major index, which is 0 if it is not an insertion position.
+     */
+    private final int[] requirements = new int[CELL_COUNT];
+    /**
+     * The number of insertion positions accepting a tile of each rotation class.
+     */
+    private final int[] playableCounts = new int[EdgeSignatures.ROTATION_CLASS_COUNT];
+    /**
+     * The parent of each zone of the two layers of the disjoint-set forest, a root being its own parent.
+     */
+    private final int[] parents;
+    /**
+     * The number of zones of the area of each root.
+     */
+    private final int[] sizes;
+    /**
+     * The number of open connections of the area of each root.
+     */
+    private final int[] openConnections;
+    /**
+     * The next zone of the circular list of the zones of the same area.
+     */
+    private final int[] nextZones;
+    /**
+     * The number of occupants of each player in the area of each root, indexed by root then player ordinal.
+     */
+    private final int[] areaOccupants;
+    /**
+     * The number of occupants of each kind placed by each player, indexed by player ordinal then kind ordinal.
+     */
+    private final int[] occupantCounts = new int[PLAYER_COUNT * OCCUPANT_KIND_COUNT];
+    /**
+     * The points scored by each player, indexed by the ordinal of the players.
+     */
+    private final int[] points = new int[PLAYER_COUNT];
+    /**
+     * The bitset of the ids of the cancelled animals.
+     */
+    private final int[] cancelledAnimals;
+    /**
+     * The messages of the message board, of which the first {@link #MESSAGE_COUNT} are current.
+     */
+    private MessageBoard.Message[] messages;
+
+    /**
+     * The arrays modified by each entry of the change journal.
+     */
+    private int[][] journalArrays = new int[INITIAL_JOURNAL_CAPACITY][];
+    /**
+     * The index modified by each entry of the change journal.
+     */
+    private int[] journalIndices = new int[INITIAL_JOURNAL_CAPACITY];
+    /**
+     * The value overwritten by each entry of the change journal.
+     */
+    private int[] journalValues = new int[INITIAL_JOURNAL_CAPACITY];
+    /**
+     * The number of entries of the change journal.
+     */
+    private int journalSize;
+    /**
+     * The size of the change journal before each action which has not been undone.
+     */
+    private int[] actionMarks = new int[INITIAL_JOURNAL_CAPACITY];
+    /**
+     * The number of actions which can be undone.
+     */
+    private int depth;
+
+    /**
+     * The closed areas of the last placed tile, used as a scratch buffer by the end of a turn.
+     */
+    private final int[] closedAreas = new int[2 * Direction.COUNT];
+    /**
+     * The number of sides of each zone of the last placed tile, indexed by local id, used as a scratch buffer.
+     */
+    private final int[] sideCounts = new int[10];
+    /**
+     * The last stamp used to mark the tiles of an area.
+     */
+    private int tileStamp;
+    /**
+     * The stamp of each tile id, used to count the distinct tiles of an area.
+     */
+    private final int[] tileStamps;
+    /**
+     * The last stamp used to mark the areas visited by a scoring pass.
+     */
+    private int rootStamp;
+    /**
+     * The stamp of each node of the disjoint-set forest, used to visit each area once.
+     */
+    private final int[] rootStamps;
+
+    /**
+     * Constructs a new engine whose current state is the given one, with an empty change journal.
+     *
+     * @param state the initial state
+     * @throws NullPointerException     if the state is null
+     * @throws IllegalArgumentException if an occupant of the board cannot be placed by a player
+     */
+    public GameEngine(GameState state) {
+        this.textMaker = state.messageBoard().textMaker();
+        this.players = state.players().toArray(new PlayerColor[0]);
+        TileDecks tileDecks = state.tileDecks();
+        this.decks = new Tile[][]{tileDecks.startTiles().toArray(new Tile[0]),
+                tileDecks.normalTiles().toArray(new Tile[0]), tileDecks.menhirTiles().toArray(new Tile[0])};
+        List<PlacedTile> placedTiles = state.board().placedTilesInOrder();
+
+        // Index every tile of the game by id
+        List<Tile> allTiles = new ArrayList<>();
+        for (Tile[] deck : decks)
+            allTiles.addAll(Arrays.asList(deck));
+        if (state.tileToPlace() != null)
+            allTiles.add(state.tileToPlace());
+        for (PlacedTile placedTile : placedTiles)
+            allTiles.add(placedTile.tile());
+        int tileCount = allTiles.stream().mapToInt(Tile::id).max().orElse(-1) + 1;
+        this.tiles = new Tile[tileCount];
+        this.signatures = new int[tileCount];
+        this.specialPowerZones = new Zone[tileCount];
+        this.zoneCount = tileCount * 10;
+        this.zones = new Zone[zoneCount];
+        for (Tile tile : allTiles) {
+            tiles[tile.id()] = tile;
+            signatures[tile.id()] = EdgeSignatures.of(tile);
+            for (Zone zone : tile.zones()) {
+                zones[zone.id()] = zone;
+                if (zone.specialPower() != null && specialPowerZones[tile.id()] == null)
+                    specialPowerZones[tile.id()] = zone;
+            }
+        }
+
+        this.tileCells = filled(tileCount);
+        this.rotations = new int[tileCount];
+        this.placers = filled(tileCount);
+        this.occupants = filled(tileCount);
+        this.placementOrder = new int[tileCount];
+        this.tileStamps = new int[tileCount];
+        this.rootStamps = new int[2 * zoneCount];
+        this.parents = new int[2 * zoneCount];
+        this.sizes = new int[2 * zoneCount];
+        this.openConnections = new int[2 * zoneCount];
+        this.nextZones = new int[2 * zoneCount];
+        this.areaOccupants = new int[2 * zoneCount * PLAYER_COUNT];
+        this.cancelledAnimals = new int[(zoneCount * 10 + Integer.SIZE - 1) / Integer.SIZE];
+        Arrays.fill(cells, NONE);
+
+        // Place the tiles of the board, each followed by its occupant, as Board.of does
+        for (PlacedTile placedTile : placedTiles) {
+            addTile(placedTile.id(), rowMajorIndex(placedTile.pos()), placedTile.rotation().ordinal(),
+                    placedTile.placer() != null ? placedTile.placer().ordinal() : NONE);
+            if (placedTile.occupant() != null) {
+                Preconditions.checkArgument(placedTile.placer() != null);
+                addOccupant(placedTile.id(), templateIndex(placedTile.tile(), placedTile.occupant()));
+            }
+        }
+        for (Animal animal : state.board().cancelledAnimals())
+            cancelAnimal(animal.id());
+
+        this.messages = new MessageBoard.Message[Math.max(16, state.messageBoard().messages().size() * 2)];
+        for (MessageBoard.Message message : state.messageBoard().messages())
+            addMessage(message);
+        registers[NEXT_ACTION] = state.nextAction().ordinal();
+        registers[CURRENT_PLAYER] = 0;
+        registers[TILE_TO_PLACE] = state.tileToPlace() != null ? state.tileToPlace().id() : NONE;
+        // The construction cannot be undone
+        journalSize = 0;
+    }
+
+    /**
+     * Returns a new array of the given length filled with {@link #NONE}.
+     *
+     * @param length the length of the array
+     * @return a new array filled with {@link #NONE}
+     */
+    private static int[] filled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    //<editor-fold desc="Change journal">
+
+    /**
+     * Writes the given value at the given index of the given array, recording the overwritten value in the
+     * change journal.
+     *
+     * @param array the array to modify
+     * @param index the index to modify
+     * @param value the value to write
+     */
+    private void write(int[] array, int index, int value) {
+        if (array[index] == value)
+            return;
+        if (journalSize == journalValues.length) {
+            journalArrays = Arrays.copyOf(journalArrays, journalSize * 2);
+            journalIndices = Arrays.copyOf(journalIndices, journalSize * 2);
+            journalValues = Arrays.copyOf(journalValues, journalSize * 2);
+        }
+        journalArrays[journalSize] = array;
+        journalIndices[journalSize] = index;
+        journalValues[journalSize] = array[index];
+        ++journalSize;
+        array[index] = value;
+    }
+
+    /**
+     * Writes back the values overwritten since the change journal had the given size, in reverse order.
+     *
+     * @param mark the size of the change journal to come back to
+     */
+    private void rollback(int mark) {
+        while (journalSize > mark) {
+            --journalSize;
+            journalArrays[journalSize][journalIndices[journalSize]] = journalValues[journalSize];
+        }
+    }
+
+    /**
+     * Records that an action started when the change journal had the given size.
+     *
+     * @param mark the size of the change journal before the action
+     */
+    private void pushAction(int mark) {
+        if (depth == actionMarks.length)
+            actionMarks = Arrays.copyOf(actionMarks, depth * 2);
+        actionMarks[depth++] = mark;
+    }
+
+    /**
+     * Returns the number of actions which can be undone.
+     *
+     * @return the number of actions which can be undone
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Undoes the last action which has not been undone yet.
+     *
+     * @throws IllegalArgumentException if there is no action to undo
+     */
+    public void undo() {
+        Preconditions.checkArgument(depth > 0);
+        rollback(actionMarks[--depth]);
+    }
+
+    /**
+     * Undoes actions until the given number of actions can be undone.
+     *
+     * @param depth the number of actions which can be undone afterwards
+     * @throws IllegalArgumentException if the depth is negative or greater than the current one
+     */
+    public void undoTo(int depth) {
+        Preconditions.checkArgument(depth >= 0 && depth <= this.depth);
+        if (depth < this.depth) {
+            rollback(actionMarks[depth]);
+            this.depth = depth;
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Queries">
+
+    /**
+     * Returns the next action to execute.
+     *
+     * @return the next action to execute
+     */
+    public GameState.Action nextAction() {
+        return GameState.Action.values()[registers[NEXT_ACTION]];
+    }
+
+    /**
+     * Returns the current player, or null if the game has not started or is over.
+     *
+     * @return the current player, or null
+     */
+    public PlayerColor currentPlayer() {
+        GameState.Action nextAction = nextAction();
+        if (nextAction == GameState.Action.START_GAME || nextAction == GameState.Action.END_GAME)
+            return null;
+        return players[registers[CURRENT_PLAYER]];
+    }
+
+    /**
+     * Returns the tile to place, or null if the next action is not to place a tile.
+     *
+     * @return the tile to place, or null
+     */
+    public Tile tileToPlace() {
+        return registers[TILE_TO_PLACE] != NONE ? tiles[registers[TILE_TO_PLACE]] : null;
+    }
+
+    /**
+     * Returns the points scored so far by the given player.
+     *
+     * @param player the player
+     * @return the points scored by the given player
+     */
+    public int points(PlayerColor player) {
+        return points[player.ordinal()];
+    }
+
+    /**
+     * Returns the points scored by each player so far, for the players who scored.
+     *
+     * @return the points scored by each player
+     */
+    public Map<PlayerColor, Integer> points() {
+        Map<PlayerColor, Integer> scores = new EnumMap<>(PlayerColor.class);
+        for (int mask = registers[SCORER_MASK]; mask != 0; mask &= mask - 1) {
+            int ordinal = Integer.numberOfTrailingZeros(mask);
+            scores.put(PlayerColor.ALL.get(ordinal), points[ordinal]);
+        }
+        return scores;
+    }
+
+    /**
+     * Returns the number of occupants of a given player that can still be placed.
+     *
+     * @param player the player
+     * @param kind   the occupant kind
+     * @return the number of occupants of a given player that can still be placed
+     */
+    public int freeOccupantsCount(PlayerColor player, Occupant.Kind kind) {
+        return Occupant.occupantsCount(kind) - occupantCounts[player.ordinal() * OCCUPANT_KIND_COUNT + kind.ordinal()];
+    }
+
+    /**
+     * Returns whether the given tile could be placed on one of the insertion positions, possibly after rotation.
+     *
+     * @param tile the tile
+     * @return whether the given tile could be placed on the board
+     */
+    public boolean couldPlaceTile(Tile tile) {
+        return playableCounts[EdgeSignatures.rotationClass(EdgeSignatures.of(tile))] > 0;
+    }
+
+    /**
+     * Returns the potential occupants of the last placed tile which can be placed by the current player.
+     *
+     * @return the potential occupants of the last placed tile
+     * @throws IllegalArgumentException if the board is empty
+     */
+    public Set<Occupant> potentialOccupants() {
+        Preconditions.checkArgument(registers[PLACED_TILE_COUNT] > 0);
+        int tileId = lastPlacedTileId();
+        // The origin tile cannot be occupied
+        if (placers[tileId] == NONE)
+            return Set.of();
+        OccupantTemplate template = OccupantTemplate.of(tiles[tileId]);
+        return template.occupants(occupiableMask(template));
+    }
+
+    /**
+     * Writes in the given buffer the packed code of every legal placement of the tile to place, and returns
+     * their number.
+     * <p>
+     * The codes are those of {@link GameState#legalPlacements(int[])}, and can be given to {@link #place(int)}.
+     *
+     * @param buffer the buffer in which to write the codes
+     * @return the number of legal placements
+     * @throws IllegalArgumentException if the next action is not PLACE_TILE or if the buffer is too small
+     */
+    public int legalPlacements(int[] buffer) {
+        Preconditions.checkArgument(nextAction() == GameState.Action.PLACE_TILE);
+        int signature = signatures[registers[TILE_TO_PLACE]];
+        int count = 0;
+        int fringeIndex = 0;
+        for (int i = 0; i < fringe.length; ++i) {
+            for (int word = fringe[i]; word != 0; word &= word - 1) {
+                int requirement = requirements[transposed(i * Integer.SIZE + Integer.numberOfTrailingZeros(word))];
+                for (int rotation = 0; rotation < Rotation.COUNT; ++rotation) {
+                    if (satisfies(EdgeSignatures.rotated(signature, Rotation.ALL.get(rotation)), requirement)) {
+                        Preconditions.checkArgument(count < buffer.length);
+                        buffer[count++] = fringeIndex << ActionEncoder.PLACED_TILE_INDEX_SHIFT | rotation;
+                    }
+                }
+                ++fringeIndex;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the state of the game, materialized as an immutable game state.
+     *
+     * @return the current state of the game
+     */
+    public GameState toGameState() {
+        List<PlayerColor> playerOrder = new ArrayList<>(players.length);
+        for (int i = 0; i < players.length; ++i)
+            playerOrder.add(players[(registers[CURRENT_PLAYER] + i) % players.length]);
+        TileDecks tileDecks = new TileDecks(deck(Tile.Kind.START), deck(Tile.Kind.NORMAL), deck(Tile.Kind.MENHIR));
+
+        List<PlacedTile> placedTiles = new ArrayList<>(registers[PLACED_TILE_COUNT]);
+        for (int i = 0; i < registers[PLACED_TILE_COUNT]; ++i) {
+            int tileId = placementOrder[i];
+            int cell = tileCells[tileId];
+            placedTiles.add(new PlacedTile(tiles[tileId],
+                    placers[tileId] != NONE ? PlayerColor.ALL.get(placers[tileId]) : null,
+                    Rotation.ALL.get(rotations[tileId]),
+                    new Pos(cell % SIZE - Board.REACH, cell / SIZE - Board.REACH),
+                    occupants[tileId] != NONE ? OccupantTemplate.of(tiles[tileId]).occupant(occupants[tileId]) : null));
+        }
+        Set<Animal> cancelled = new HashSet<>();
+        for (int i = 0; i < cancelledAnimals.length; ++i) {
+            for (int word = cancelledAnimals[i]; word != 0; word &= word - 1) {
+                int animalId = i * Integer.SIZE + Integer.numberOfTrailingZeros(word);
+                for (Animal animal : ((Zone.Meadow) zones[animalId / 10]).animals()) {
+                    if (animal.id() == animalId)
+                        cancelled.add(animal);
+                }
+            }
+        }
+
+        return new GameState(playerOrder, tileDecks, tileToPlace(), Board.of(placedTiles, cancelled), nextAction(),
+                new MessageBoard(textMaker, Arrays.asList(messages).subList(0, registers[MESSAGE_COUNT])));
+    }
+
+    /**
+     * Returns the remaining tiles of the deck of the given kind, sharing the tiles of the engine.
+     *
+     * @param kind the kind of the deck
+     * @return the remaining tiles of the deck
+     */
+    private TileDeck deck(Tile.Kind kind) {
+        Tile[] deck = decks[kind.ordinal()];
+        return TileDeck.of(deck, registers[DECK_TOPS + kind.ordinal()], deck.length);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Actions">
+
+    /**
+     * Places the starting tile and draws the first tile to place.
+     *
+     * @throws IllegalArgumentException if the next action is not START_GAME or if a deck is empty
+     */
+    public void start() {
+        int mark = journalSize;
+        try {
+            Preconditions.checkArgument(nextAction() == GameState.Action.START_GAME);
+            Tile startTile = drawTopTile(Tile.Kind.START);
+            addTile(startTile.id(), rowMajorIndex(Pos.ORIGIN), Rotation.NONE.ordinal(), NONE);
+            write(registers, TILE_TO_PLACE, drawTopTile(Tile.Kind.NORMAL).id());
+            write(registers, NEXT_ACTION, GameState.Action.PLACE_TILE.ordinal());
+        } catch (RuntimeException e) {
+            rollback(mark);
+            throw e;
+        }
+        pushAction(mark);
+    }
+
+    /**
+     * Places the given tile, then applies its special power if any.
+     *
+     * @param placedTile the tile to place
+     * @throws IllegalArgumentException if the next action is not PLACE_TILE, if the tile is occupied, if it is
+     *                                  not the tile to place placed by the current player, or if it cannot be
+     *                                  placed on the board
+     */
+    public void place(PlacedTile placedTile) {
+        Preconditions.checkArgument(nextAction() == GameState.Action.PLACE_TILE);
+        Preconditions.checkArgument(placedTile.occupant() == null);
+        Preconditions.checkArgument(placedTile.tile().equals(tileToPlace())
+                && placedTile.placer() == currentPlayer());
+        Pos pos = placedTile.pos();
+        Preconditions.checkArgument(Math.abs(pos.x()) <= Board.REACH && Math.abs(pos.y()) <= Board.REACH);
+        place(rowMajorIndex(pos), placedTile.rotation().ordinal());
+    }
+
+    /**
+     * Places the tile to place with the given placement code, one of those given by
+     * {@link #legalPlacements(int[])}, then applies its special power if any.
+     *
+     * @param placement the code of the placement
+     * @throws IllegalArgumentException if the next action is not PLACE_TILE or if the placement is not legal
+     */
+    public void place(int placement) {
+        Preconditions.checkArgument(nextAction() == GameState.Action.PLACE_TILE);
+        int fringeIndex = placement >>> ActionEncoder.PLACED_TILE_INDEX_SHIFT;
+        for (int i = 0; i < fringe.length; ++i) {
+            int bitCount = Integer.bitCount(fringe[i]);
+            if (fringeIndex < bitCount) {
+                int word = fringe[i];
+                for (; fringeIndex > 0; --fringeIndex)
+                    word &= word - 1;
+                place(transposed(i * Integer.SIZE + Integer.numberOfTrailingZeros(word)),
+                        placement & (Rotation.COUNT - 1));
+                return;
+            }
+            fringeIndex -= bitCount;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Places the tile to place at the given row major index with the given rotation, then applies its special
+     * power if any.
+     *
+     * @param cell     the row major index
+     * @param rotation the ordinal of the rotation
+     * @throws IllegalArgumentException if the tile cannot be placed there
+     */
+    private void place(int cell, int rotation) {
+        int tileId = registers[TILE_TO_PLACE];
+        Preconditions.checkArgument(registers[PLACED_TILE_COUNT] == 0
+                || satisfies(EdgeSignatures.rotated(signatures[tileId], Rotation.ALL.get(rotation)), requirements[cell])
+                && cells[cell] == NONE);
+        int mark = journalSize;
+        try {
+            int player = registers[CURRENT_PLAYER];
+            addTile(tileId, cell, rotation, players[player].ordinal());
+            write(registers, TILE_TO_PLACE, NONE);
+            Zone specialPowerZone = specialPowerZones[tileId];
+            switch (specialPowerZone) {
+                case Zone.Meadow meadow when meadow.specialPower() == Zone.SpecialPower.SHAMAN -> {
+                    if (occupantCounts[players[player].ordinal() * OCCUPANT_KIND_COUNT
+                            + Occupant.Kind.PAWN.ordinal()] >= 1) {
+                        write(registers, NEXT_ACTION, GameState.Action.RETAKE_PAWN.ordinal());
+                        break;
+                    }
+                    finishTurnIfOccupationImpossible();
+                }
+                case Zone.Meadow meadow when meadow.specialPower() == Zone.SpecialPower.HUNTING_TRAP -> {
+                    scoreHuntingTrap(meadow, cell);
+                    finishTurnIfOccupationImpossible();
+                }
+                case Zone.Lake lake when lake.specialPower() == Zone.SpecialPower.LOGBOAT -> {
+                    scoreLogboat(lake);
+                    finishTurnIfOccupationImpossible();
+                }
+                case null, default -> finishTurnIfOccupationImpossible();
+            }
+        } catch (RuntimeException e) {
+            rollback(mark);
+            throw e;
+        }
+        pushAction(mark);
+    }
+
+    /**
+     * Places the given occupant on the last placed tile, or no occupant if it is null, then finishes the turn.
+     *
+     * @param occupant the occupant to place, or null
+     * @throws IllegalArgumentException if the next action is not OCCUPY_TILE, or if the occupant is not a
+     *                                  potential occupant of a placed tile or its area is occupied
+     */
+    public void occupy(Occupant occupant) {
+        Preconditions.checkArgument(nextAction() == GameState.Action.OCCUPY_TILE);
+        int mark = journalSize;
+        try {
+            if (occupant != null) {
+                int tileId = placedTileId(occupant);
+                Preconditions.checkArgument(occupants[tileId] == NONE && placers[tileId] != NONE);
+                addOccupant(tileId, templateIndex(tiles[tileId], occupant));
+            }
+            finishTurn();
+        } catch (RuntimeException e) {
+            rollback(mark);
+            throw e;
+        }
+        pushAction(mark);
+    }
+
+    /**
+     * Retakes the given pawn, or no pawn if it is null.
+     *
+     * @param occupant the pawn to retake, or null
+     * @throws IllegalArgumentException if the next action is not RETAKE_PAWN, or if the occupant is not a pawn
+     *                                  on the board
+     */
+    public void retake(Occupant occupant) {
+        Preconditions.checkArgument(nextAction() == GameState.Action.RETAKE_PAWN);
+        Preconditions.checkArgument(occupant == null || occupant.kind() == Occupant.Kind.PAWN);
+        int mark = journalSize;
+        try {
+            if (occupant != null) {
+                int tileId = placedTileId(occupant);
+                Preconditions.checkArgument(occupants[tileId] != NONE
+                        && OccupantTemplate.of(tiles[tileId]).occupant(occupants[tileId]).equals(occupant));
+                removeOccupant(tileId);
+            }
+            finishTurnIfOccupationImpossible();
+        } catch (RuntimeException e) {
+            rollback(mark);
+            throw e;
+        }
+        pushAction(mark);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Board">
+
+    /**
+     * Calculates the row major index of the given position.
+     *
+     * @param pos the position
+     * @return the row major index of the given position
+     */
+    private static int rowMajorIndex(Pos pos) {
+        return (pos.y() + Board.REACH) * SIZE + pos.x() + Board.REACH;
+    }
+
+    /**
+     * Transposes the given row major index into a column major index, or conversely.
+     *
+     * @param index the index
+     * @return the transposed index
+     */
+    private static int transposed(int index) {
+        return index % SIZE * SIZE + index / SIZE;
+    }
+
+    /**
+     * Returns the row major index of the neighbor of the given row major index in the given direction, or
+     * {@link #NONE} if it is off the board.
+     *
+     * @param cell      the row major index
+     * @param direction the direction
+     * @return the row major index of the neighbor, or {@link #NONE}
+     */
+    private static int neighbor(int cell, Direction direction) {
+        int x = cell % SIZE;
+        int y = cell / SIZE;
+        return switch (direction) {
+            case N -> y > 0 ? cell - SIZE : NONE;
+            case E -> x < SIZE - 1 ? cell + 1 : NONE;
+            case S -> y < SIZE - 1 ? cell + SIZE : NONE;
+            case W -> x > 0 ? cell - 1 : NONE;
+        };
+    }
+
+    /**
+     * Determines whether a tile with the given edge signature satisfies the given packed requirement of an
+     * insertion position.
+     *
+     * @param signature   the edge signature of the tile
+     * @param requirement the packed requirement
+     * @return whether the tile satisfies the requirement
+     */
+    private static boolean satisfies(int signature, int requirement) {
+        return requirement != 0
+                && (signature & requirement >>> REQUIREMENT_MASK_SHIFT) == (requirement & REQUIREMENT_BYTE_MASK);
+    }
+
+    /**
+     * Returns the id of the last placed tile.
+     *
+     * @return the id of the last placed tile
+     */
+    private int lastPlacedTileId() {
+        return placementOrder[registers[PLACED_TILE_COUNT] - 1];
+    }
+
+    /**
+     * Returns the id of the placed tile of the zone of the given occupant.
+     *
+     * @param occupant the occupant
+     * @return the id of its tile
+     * @throws IllegalArgumentException if the tile of the occupant is not on the board
+     */
+    private int placedTileId(Occupant occupant) {
+        int tileId = Zone.tileId(occupant.zoneId());
+        Preconditions.checkArgument(tileId < tiles.length && tileCells[tileId] != NONE);
+        return tileId;
+    }
+
+    /**
+     * Returns the side of the given placed tile in the given direction.
+     *
+     * @param tileId    the id of the placed tile
+     * @param direction the direction
+     * @return the side of the tile in the given direction
+     */
+    private TileSide side(int tileId, Direction direction) {
+        Tile tile = tiles[tileId];
+        return switch (direction.rotated(Rotation.ALL.get(rotations[tileId]).negated())) {
+            case N -> tile.n();
+            case E -> tile.e();
+            case S -> tile.s();
+            case W -> tile.w();
+        };
+    }
+
+    /**
+     * Adds the given tile to the board, updating the fringe and connecting its zones to those of its neighbors.
+     *
+     * @param tileId   the id of the tile
+     * @param cell     the row major index of the tile
+     * @param rotation the ordinal of the rotation of the tile
+     * @param placer   the ordinal of the placer of the tile, or {@link #NONE}
+     */
+    private void addTile(int tileId, int cell, int rotation, int placer) {
+        Preconditions.checkArgument(cells[cell] == NONE && tileCells[tileId] == NONE);
+        write(cells, cell, tileId);
+        write(tileCells, tileId, cell);
+        write(rotations, tileId, rotation);
+        write(placers, tileId, placer);
+        write(placementOrder, registers[PLACED_TILE_COUNT], tileId);
+        write(registers, PLACED_TILE_COUNT, registers[PLACED_TILE_COUNT] + 1);
+
+        // The cell is no longer an insertion position, but its free neighbors are
+        setRequirement(cell, 0);
+        int signature = EdgeSignatures.rotated(signatures[tileId], Rotation.ALL.get(rotation));
+        for (Direction direction : Direction.ALL) {
+            int neighbor = neighbor(cell, direction);
+            if (neighbor == NONE || cells[neighbor] != NONE)
+                continue;
+            int shift = EdgeSignatures.shift(direction.opposite());
+            setRequirement(neighbor, requirements[neighbor]
+                    | EdgeSignatures.SIDE_MASK << shift << REQUIREMENT_MASK_SHIFT
+                    | EdgeSignatures.sideCode(signature, direction) << shift);
+        }
+
+        addZones(tiles[tileId]);
+        for (Direction direction : Direction.ALL) {
+            int neighbor = neighbor(cell, direction);
+            if (neighbor != NONE && cells[neighbor] != NONE)
+                connectSides(side(tileId, direction), side(cells[neighbor], direction.opposite()));
+        }
+    }
+
+    /**
+     * Sets the requirement of the given row major index, updating the fringe and the playable counts.
+     *
+     * @param cell        the row major index
+     * @param requirement the new packed requirement, 0 if it is not an insertion position
+     */
+    private void setRequirement(int cell, int requirement) {
+        int oldRequirement = requirements[cell];
+        if (oldRequirement == requirement)
+            return;
+        for (int accepted = acceptedClasses(oldRequirement); accepted != 0; accepted &= accepted - 1) {
+            int rotationClass = Integer.numberOfTrailingZeros(accepted);
+            write(playableCounts, rotationClass, playableCounts[rotationClass] - 1);
+        }
+        for (int accepted = acceptedClasses(requirement); accepted != 0; accepted &= accepted - 1) {
+            int rotationClass = Integer.numberOfTrailingZeros(accepted);
+            write(playableCounts, rotationClass, playableCounts[rotationClass] + 1);
+        }
+        write(requirements, cell, requirement);
+        int columnIndex = transposed(cell);
+        int word = fringe[columnIndex / Integer.SIZE];
+        write(fringe, columnIndex / Integer.SIZE,
+                requirement != 0 ? word | 1 << columnIndex : word & ~(1 << columnIndex));
+    }
+
+    /**
+     * Returns the bitset of the rotation classes accepted by the given packed requirement.
+     *
+     * @param requirement the packed requirement, 0 if it is not an insertion position
+     * @return the bitset of the accepted rotation classes
+     */
+    private static int acceptedClasses(int requirement) {
+        return requirement != 0 ? EdgeSignatures.acceptedClasses(requirement & REQUIREMENT_BYTE_MASK) : 0;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Areas">
+
+    /**
+     * Returns the index in the disjoint-set forest of the given zone in the given layer.
+     *
+     * @param layer the layer
+     * @param zone  the zone
+     * @return the index of the zone in the layer
+     */
+    private int node(int layer, Zone zone) {
+        return layer * zoneCount + zone.id();
+    }
+
+    /**
+     * Returns the root of the area containing the given node of the disjoint-set forest.
+     *
+     * @param node the node
+     * @return the root of its area
+     */
+    private int find(int node) {
+        while (parents[node] != node)
+            node = parents[node];
+        return node;
+    }
+
+    /**
+     * Adds the zones of the given tile to the disjoint-set forest, each in its own area, except the rivers
+     * which are connected to their lake, with the open connections computed as by
+     * {@link ZonePartitions.Builder#addTile(Tile)}.
+     *
+     * @param tile the tile
+     */
+    private void addZones(Tile tile) {
+        int[] sideCounts = this.sideCounts;
+        Arrays.fill(sideCounts, 0);
+        for (TileSide side : tile.sides()) {
+            for (Zone zone : side.zones()) {
+                ++sideCounts[zone.localId()];
+                if (zone instanceof Zone.River river && river.hasLake()) {
+                    ++sideCounts[river.lake().localId()];
+                    ++sideCounts[zone.localId()];
+                }
+            }
+        }
+        for (Zone zone : tile.zones()) {
+            int count = sideCounts[zone.localId()];
+            switch (zone) {
+                case Zone.River river -> {
+                    addSingleton(node(AREAS, river), river.hasLake() ? count - 1 : count);
+                    addSingleton(node(RIVER_SYSTEMS, river), count);
+                }
+                case Zone.Lake lake -> addSingleton(node(RIVER_SYSTEMS, lake), count);
+                default -> addSingleton(node(AREAS, zone), count);
+            }
+        }
+        for (Zone zone : tile.zones()) {
+            if (zone instanceof Zone.River river && river.hasLake())
+                union(node(RIVER_SYSTEMS, river), node(RIVER_SYSTEMS, river.lake()));
+        }
+    }
+
+    /**
+     * Makes the given node the only zone of a new unoccupied area with the given number of open connections.
+     *
+     * @param node            the node
+     * @param openConnections the number of open connections
+     */
+    private void addSingleton(int node, int openConnections) {
+        write(parents, node, node);
+        write(sizes, node, 1);
+        write(this.openConnections, node, openConnections);
+        write(nextZones, node, node);
+        for (int player = 0; player < PLAYER_COUNT; ++player)
+            write(areaOccupants, node * PLAYER_COUNT + player, 0);
+    }
+
+    /**
+     * Connects the areas of the given nodes, as {@link Area#connectTo(Area)} does.
+     *
+     * @param node1 the first node
+     * @param node2 the second node
+     */
+    private void union(int node1, int node2) {
+        int root = find(node1);
+        int other = find(node2);
+        if (root == other) {
+            write(openConnections, root, openConnections[root] - 2);
+            return;
+        }
+        // The smallest area is attached to the largest one, to keep the trees shallow
+        if (sizes[root] < sizes[other]) {
+            int swap = root;
+            root = other;
+            other = swap;
+        }
+        write(parents, other, root);
+        write(sizes, root, sizes[root] + sizes[other]);
+        write(openConnections, root, openConnections[root] + openConnections[other] - 2);
+        for (int player = 0; player < PLAYER_COUNT; ++player) {
+            int count = areaOccupants[other * PLAYER_COUNT + player];
+            if (count != 0)
+                write(areaOccupants, root * PLAYER_COUNT + player, areaOccupants[root * PLAYER_COUNT + player] + count);
+        }
+        // Splice the two circular lists of zones
+        int next = nextZones[root];
+        write(nextZones, root, nextZones[other]);
+        write(nextZones, other, next);
+    }
+
+    /**
+     * Connects to each other the two given tile sides, as {@link ZonePartitions.Builder#connectSides} does.
+     *
+     * @param s1 the first tile side
+     * @param s2 the second tile side
+     * @throws IllegalArgumentException if the two given tile sides are not of the same kind
+     */
+    private void connectSides(TileSide s1, TileSide s2) {
+        switch (s1) {
+            case TileSide.Meadow(Zone.Meadow m1) when s2 instanceof TileSide.Meadow(Zone.Meadow m2) ->
+                    union(node(AREAS, m1), node(AREAS, m2));
+            case TileSide.Forest(Zone.Forest f1) when s2 instanceof TileSide.Forest(Zone.Forest f2) ->
+                    union(node(AREAS, f1), node(AREAS, f2));
+            case TileSide.River(
+                    Zone.Meadow m3, Zone.River r1, Zone.Meadow m4
+            ) when s2 instanceof TileSide.River(Zone.Meadow m5, Zone.River r2, Zone.Meadow m6) -> {
+                union(node(RIVER_SYSTEMS, r1), node(RIVER_SYSTEMS, r2));
+                union(node(AREAS, r1), node(AREAS, r2));
+                union(node(AREAS, m3), node(AREAS, m6));
+                union(node(AREAS, m4), node(AREAS, m5));
+            }
+            default -> throw new IllegalArgumentException("The tile sides are not of the same kind");
+        }
+    }
+
+    /**
+     * Returns the number of occupants of the area of the given root.
+     *
+     * @param root the root of the area
+     * @return the number of occupants of the area
+     */
+    private int occupantCount(int root) {
+        int count = 0;
+        for (int player = 0; player < PLAYER_COUNT; ++player)
+            count += areaOccupants[root * PLAYER_COUNT + player];
+        return count;
+    }
+
+    /**
+     * Returns the players who have the majority of occupants in the area of the given root.
+     *
+     * @param root the root of the area
+     * @return the majority occupants of the area
+     */
+    private Set<PlayerColor> majorityOccupants(int root) {
+        int max = 0;
+        for (int player = 0; player < PLAYER_COUNT; ++player)
+            max = Math.max(max, areaOccupants[root * PLAYER_COUNT + player]);
+        Set<PlayerColor> majorityOccupants = EnumSet.noneOf(PlayerColor.class);
+        for (int player = 0; max > 0 && player < PLAYER_COUNT; ++player) {
+            if (areaOccupants[root * PLAYER_COUNT + player] == max)
+                majorityOccupants.add(PlayerColor.ALL.get(player));
+        }
+        return majorityOccupants;
+    }
+
+    /**
+     * Returns the ids of the distinct tiles of the zones of the area of the given root, or of those of its zones
+     * which are adjacent to the given row major index if it is not {@link #NONE}.
+     *
+     * @param root the root of the area
+     * @param cell the row major index the zones must be adjacent to, or {@link #NONE}
+     * @return the ids of the tiles of the zones
+     */
+    private Set<Integer> tileIds(int root, int cell) {
+        List<Integer> tileIds = new ArrayList<>();
+        ++tileStamp;
+        int node = root;
+        do {
+            int tileId = Zone.tileId(node % zoneCount);
+            if (tileStamps[tileId] != tileStamp && (cell == NONE || isAdjacent(tileCells[tileId], cell))) {
+                tileStamps[tileId] = tileStamp;
+                tileIds.add(tileId);
+            }
+            node = nextZones[node];
+        } while (node != root);
+        return Set.copyOf(tileIds);
+    }
+
+    /**
+     * Returns the smallest zone id of the area of the given root.
+     *
+     * @param root the root of the area
+     * @return the smallest zone id of the area
+     */
+    private int smallestZoneId(int root) {
+        int smallest = root % zoneCount;
+        for (int node = nextZones[root]; node != root; node = nextZones[node])
+            smallest = Math.min(smallest, node % zoneCount);
+        return smallest;
+    }
+
+    /**
+     * Determines whether the tiles at the given row major indices are adjacent, diagonally included, or the same.
+     *
+     * @param cell      the first row major index
+     * @param otherCell the second row major index
+     * @return whether the tiles are adjacent
+     */
+    private static boolean isAdjacent(int cell, int otherCell) {
+        return Math.abs(cell % SIZE - otherCell % SIZE) <= 1 && Math.abs(cell / SIZE - otherCell / SIZE) <= 1;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Occupants">
+
+    /**
+     * Returns the index of the given occupant in the occupant template of the given tile.
+     *
+     * @param tile     the tile
+     * @param occupant the occupant
+     * @return the index of the occupant in the template
+     * @throws IllegalArgumentException if the occupant is not a potential occupant of the tile
+     */
+    private static int templateIndex(Tile tile, Occupant occupant) {
+        OccupantTemplate template = OccupantTemplate.of(tile);
+        for (int i = 0; i < template.size(); ++i) {
+            if (template.occupant(i).equals(occupant))
+                return i;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Returns the root of the area an occupant of the given kind placed on the given zone would occupy.
+     *
+     * @param kind the kind of the occupant
+     * @param zone the zone
+     * @return the root of the occupied area
+     */
+    private int occupiedRoot(Occupant.Kind kind, Zone zone) {
+        return find(node(kind == Occupant.Kind.PAWN ? AREAS : RIVER_SYSTEMS, zone));
+    }
+
+    /**
+     * Returns the bitmask of the occupants of the given template, the one of the last placed tile, which can
+     * be placed by the current player, as {@link GameState} computes it.
+     *
+     * @param template the occupant template of the last placed tile
+     * @return the bitmask of the occupants which can be placed
+     */
+    private int occupiableMask(OccupantTemplate template) {
+        PlayerColor player = players[registers[CURRENT_PLAYER]];
+        int mask = 0;
+        if (freeOccupantsCount(player, Occupant.Kind.PAWN) > 0)
+            mask |= template.kindMask(Occupant.Kind.PAWN);
+        if (freeOccupantsCount(player, Occupant.Kind.HUT) > 0)
+            mask |= template.kindMask(Occupant.Kind.HUT);
+        for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int index = Integer.numberOfTrailingZeros(remaining);
+            if (occupantCount(occupiedRoot(template.occupant(index).kind(), template.zone(index))) > 0)
+                mask &= ~(1 << index);
+        }
+        return mask;
+    }
+
+    /**
+     * Places the occupant of the given index of the template of the given tile, on behalf of its placer.
+     *
+     * @param tileId        the id of the tile
+     * @param templateIndex the index of the occupant in the template of the tile
+     * @throws IllegalArgumentException if the area of the occupant is already occupied
+     */
+    private void addOccupant(int tileId, int templateIndex) {
+        OccupantTemplate template = OccupantTemplate.of(tiles[tileId]);
+        Occupant.Kind kind = template.occupant(templateIndex).kind();
+        int root = occupiedRoot(kind, template.zone(templateIndex));
+        Preconditions.checkArgument(occupantCount(root) == 0);
+        int placer = placers[tileId];
+        write(areaOccupants, root * PLAYER_COUNT + placer, 1);
+        write(occupants, tileId, templateIndex);
+        int countIndex = placer * OCCUPANT_KIND_COUNT + kind.ordinal();
+        write(occupantCounts, countIndex, occupantCounts[countIndex] + 1);
+    }
+
+    /**
+     * Removes the pawn of the given tile from the board.
+     *
+     * @param tileId the id of the tile
+     */
+    private void removeOccupant(int tileId) {
+        OccupantTemplate template = OccupantTemplate.of(tiles[tileId]);
+        int placer = placers[tileId];
+        int areaIndex = find(node(AREAS, template.zone(occupants[tileId]))) * PLAYER_COUNT + placer;
+        Preconditions.checkArgument(areaOccupants[areaIndex] > 0);
+        write(areaOccupants, areaIndex, areaOccupants[areaIndex] - 1);
+        write(occupants, tileId, NONE);
+        int countIndex = placer * OCCUPANT_KIND_COUNT + Occupant.Kind.PAWN.ordinal();
+        write(occupantCounts, countIndex, occupantCounts[countIndex] - 1);
+    }
+
+    /**
+     * Removes the pawns of the area of the given root, which are gatherers or fishers.
+     *
+     * @param root the root of the closed forest or river
+     */
+    private void removePawnsOf(int root) {
+        int node = root;
+        do {
+            int zoneId = node % zoneCount;
+            int tileId = Zone.tileId(zoneId);
+            if (occupants[tileId] != NONE) {
+                Occupant occupant = OccupantTemplate.of(tiles[tileId]).occupant(occupants[tileId]);
+                if (occupant.kind() == Occupant.Kind.PAWN && occupant.zoneId() == zoneId)
+                    removeOccupant(tileId);
+            }
+            node = nextZones[node];
+        } while (node != root);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Scoring">
+
+    /**
+     * Adds the given message to the message board, and its points to its scorers.
+     *
+     * @param message the message
+     */
+    private void addMessage(MessageBoard.Message message) {
+        int count = registers[MESSAGE_COUNT];
+        if (count == messages.length)
+            messages = Arrays.copyOf(messages, count * 2);
+        // The messages after the current count are no longer referenced, and can be overwritten
+        messages[count] = message;
+        write(registers, MESSAGE_COUNT, count + 1);
+        for (PlayerColor scorer : message.scorers()) {
+            write(points, scorer.ordinal(), points[scorer.ordinal()] + message.points());
+            write(registers, SCORER_MASK, registers[SCORER_MASK] | 1 << scorer.ordinal());
+        }
+    }
+
+    /**
+     * Returns whether the animal with the given id is cancelled.
+     *
+     * @param animalId the id of the animal
+     * @return whether the animal is cancelled
+     */
+    private boolean isCancelled(int animalId) {
+        return (cancelledAnimals[animalId / Integer.SIZE] & 1 << animalId) != 0;
+    }
+
+    /**
+     * Cancels the animal with the given id.
+     *
+     * @param animalId the id of the animal
+     */
+    private void cancelAnimal(int animalId) {
+        write(cancelledAnimals, animalId / Integer.SIZE, cancelledAnimals[animalId / Integer.SIZE] | 1 << animalId);
+    }
+
+    /**
+     * Gives the current player the points of the animals of the meadow adjacent to the given hunting trap,
+     * the deer eaten by its tigers excluded, then cancels all these animals, as {@link GameState} does.
+     *
+     * @param huntingTrap the meadow of the hunting trap
+     * @param cell        the row major index of the tile of the hunting trap
+     */
+    private void scoreHuntingTrap(Zone.Meadow huntingTrap, int cell) {
+        int root = find(node(AREAS, huntingTrap));
+        int[] animalCounts = new int[ANIMAL_KIND_COUNT];
+        int node = root;
+        do {
+            int zoneId = node % zoneCount;
+            if (isAdjacent(tileCells[Zone.tileId(zoneId)], cell)) {
+                for (Animal animal : ((Zone.Meadow) zones[zoneId]).animals()) {
+                    ++animalCounts[animal.kind().ordinal()];
+                    cancelAnimal(animal.id());
+                }
+            }
+            node = nextZones[node];
+        } while (node != root);
+
+        int deerCount = animalCounts[Animal.Kind.DEER.ordinal()];
+        animalCounts[Animal.Kind.DEER.ordinal()] -= Math.min(animalCounts[Animal.Kind.TIGER.ordinal()], deerCount);
+        Map<Animal.Kind, Integer> animals = new EnumMap<>(Animal.Kind.class);
+        for (Animal.Kind kind : Animal.Kind.values()) {
+            if (animalCounts[kind.ordinal()] > 0)
+                animals.put(kind, animalCounts[kind.ordinal()]);
+        }
+        int scored = Points.forMeadow(animalCounts[Animal.Kind.MAMMOTH.ordinal()],
+                animalCounts[Animal.Kind.AUROCHS.ordinal()], animalCounts[Animal.Kind.DEER.ordinal()]);
+        if (scored > 0) {
+            Set<PlayerColor> scorers = Set.of(players[registers[CURRENT_PLAYER]]);
+            addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.SCORED_HUNTING_TRAP, scorers,
+                    0, animals, scored, scorers, tileIds(root, cell)));
+        }
+    }
+
+    /**
+     * Gives the current player the points of the lakes of the river system of the given logboat.
+     *
+     * @param logboat the lake of the logboat
+     */
+    private void scoreLogboat(Zone.Lake logboat) {
+        int root = find(node(RIVER_SYSTEMS, logboat));
+        int lakeCount = 0;
+        int node = root;
+        do {
+            if (zones[node % zoneCount] instanceof Zone.Lake)
+                ++lakeCount;
+            node = nextZones[node];
+        } while (node != root);
+        Set<PlayerColor> scorers = Set.of(players[registers[CURRENT_PLAYER]]);
+        addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.SCORED_LOGBOAT, scorers,
+                lakeCount, Map.of(), Points.forLogboat(lakeCount), scorers, tileIds(root, NONE)));
+    }
+
+    /**
+     * Gives the majority occupants of the closed forest of the given root its points, if it is occupied.
+     *
+     * @param root the root of the closed forest
+     */
+    private void scoreForest(int root) {
+        if (occupantCount(root) == 0)
+            return;
+        int mushroomGroupCount = 0;
+        int node = root;
+        do {
+            if (((Zone.Forest) zones[node % zoneCount]).kind() == Zone.Forest.Kind.WITH_MUSHROOMS)
+                ++mushroomGroupCount;
+            node = nextZones[node];
+        } while (node != root);
+        Set<Integer> tileIds = tileIds(root, NONE);
+        Set<PlayerColor> scorers = majorityOccupants(root);
+        addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.SCORED_FOREST, scorers,
+                mushroomGroupCount, Map.of(), Points.forClosedForest(tileIds.size(), mushroomGroupCount),
+                scorers, tileIds));
+    }
+
+    /**
+     * Gives the majority occupants of the closed river of the given root its points, if it is occupied.
+     *
+     * @param root the root of the closed river
+     */
+    private void scoreRiver(int root) {
+        if (occupantCount(root) == 0)
+            return;
+        int fishCount = 0;
+        List<Zone.Lake> lakes = new ArrayList<>(2);
+        int node = root;
+        do {
+            Zone.River river = (Zone.River) zones[node % zoneCount];
+            fishCount += river.fishCount();
+            // The lakes at the ends of the river are only counted once
+            if (river.hasLake() && !lakes.contains(river.lake())) {
+                lakes.add(river.lake());
+                fishCount += river.lake().fishCount();
+            }
+            node = nextZones[node];
+        } while (node != root);
+        Set<Integer> tileIds = tileIds(root, NONE);
+        Set<PlayerColor> scorers = majorityOccupants(root);
+        addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.SCORED_RIVER, scorers, fishCount,
+                Map.of(), Points.forClosedRiver(tileIds.size(), fishCount), scorers, tileIds));
+    }
+
+    /**
+     * Returns whether the forest of the given root contains a menhir.
+     *
+     * @param root the root of the forest
+     * @return whether the forest contains a menhir
+     */
+    private boolean hasMenhir(int root) {
+        int node = root;
+        do {
+            if (((Zone.Forest) zones[node % zoneCount]).kind() == Zone.Forest.Kind.WITH_MENHIR)
+                return true;
+            node = nextZones[node];
+        } while (node != root);
+        return false;
+    }
+
+    /**
+     * Writes in the scratch buffer of the closed areas, from the given position, the roots of the areas of the
+     * zones of the given kind of the last placed tile which are closed, sorted by their smallest zone id.
+     *
+     * @param from      the position from which to write the roots
+     * @param zoneClass the class of the zones
+     * @return the position after the last written root
+     */
+    private int collectClosedAreas(int from, Class<? extends Zone> zoneClass) {
+        int to = from;
+        for (Zone zone : tiles[lastPlacedTileId()].zones()) {
+            if (!zoneClass.isInstance(zone))
+                continue;
+            int root = find(node(AREAS, zone));
+            if (openConnections[root] != 0)
+                continue;
+            boolean known = false;
+            for (int i = from; i < to; ++i)
+                known |= closedAreas[i] == root;
+            if (!known)
+                closedAreas[to++] = root;
+        }
+        // Insertion sort by smallest zone id, so that the messages do not depend on the orientation of the tile
+        for (int i = from + 1; i < to; ++i) {
+            int root = closedAreas[i];
+            int j = i;
+            for (; j > from && smallestZoneId(closedAreas[j - 1]) > smallestZoneId(root); --j)
+                closedAreas[j] = closedAreas[j - 1];
+            closedAreas[j] = root;
+        }
+        return to;
+    }
+
+    /**
+     * Draws the top tile of the deck of the given kind.
+     *
+     * @param kind the kind of the deck
+     * @return the drawn tile
+     * @throws IllegalArgumentException if the deck is empty
+     */
+    private Tile drawTopTile(Tile.Kind kind) {
+        Tile[] deck = decks[kind.ordinal()];
+        int top = registers[DECK_TOPS + kind.ordinal()];
+        Preconditions.checkArgument(top < deck.length);
+        write(registers, DECK_TOPS + kind.ordinal(), top + 1);
+        return deck[top];
+    }
+
+    /**
+     * Draws the tiles of the deck of the given kind until its top tile can be placed on the board, and returns
+     * the number of remaining tiles.
+     *
+     * @param kind the kind of the deck
+     * @return the number of remaining tiles of the deck
+     */
+    private int drawUntilPlaceable(Tile.Kind kind) {
+        Tile[] deck = decks[kind.ordinal()];
+        int top = registers[DECK_TOPS + kind.ordinal()];
+        while (top < deck.length && !couldPlaceTile(deck[top]))
+            ++top;
+        write(registers, DECK_TOPS + kind.ordinal(), top);
+        return deck.length - top;
+    }
+
+    /**
+     * Finishes the turn if the current player cannot occupy the last placed tile, and waits for the occupant
+     * otherwise.
+     */
+    private void finishTurnIfOccupationImpossible() {
+        int tileId = lastPlacedTileId();
+        if (placers[tileId] == NONE || occupiableMask(OccupantTemplate.of(tiles[tileId])) == 0)
+            finishTurn();
+        else
+            write(registers, NEXT_ACTION, GameState.Action.OCCUPY_TILE.ordinal());
+    }
+
+    /**
+     * Finishes the turn of the current player as {@link GameState} does: scores the forests and rivers closed
+     * by the last placed tile and removes their pawns, then either gives the player a second turn with a menhir
+     * tile, or passes to the next player, or ends the game.
+     */
+    private void finishTurn() {
+        int forestCount = collectClosedAreas(0, Zone.Forest.class);
+        int areaCount = collectClosedAreas(forestCount, Zone.River.class);
+        int forestWithMenhir = NONE;
+        for (int i = 0; i < forestCount; ++i) {
+            scoreForest(closedAreas[i]);
+            if (hasMenhir(closedAreas[i]))
+                forestWithMenhir = closedAreas[i];
+        }
+        for (int i = forestCount; i < areaCount; ++i)
+            scoreRiver(closedAreas[i]);
+        // The tile ids of the forest are needed before its gatherers are removed
+        Set<Integer> forestWithMenhirTileIds = forestWithMenhir != NONE ? tileIds(forestWithMenhir, NONE) : null;
+        for (int i = 0; i < areaCount; ++i)
+            removePawnsOf(closedAreas[i]);
+
+        PlayerColor player = players[registers[CURRENT_PLAYER]];
+        boolean hasSecondTurn = forestWithMenhir != NONE && tiles[lastPlacedTileId()].kind() == Tile.Kind.NORMAL;
+        if (hasSecondTurn && drawUntilPlaceable(Tile.Kind.MENHIR) > 0) {
+            addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.CLOSED_FOREST_WITH_MENHIR,
+                    Set.of(player), 0, Map.of(), 0, Set.of(), forestWithMenhirTileIds));
+            write(registers, TILE_TO_PLACE, drawTopTile(Tile.Kind.MENHIR).id());
+            write(registers, NEXT_ACTION, GameState.Action.PLACE_TILE.ordinal());
+            return;
+        }
+
+        if (drawUntilPlaceable(Tile.Kind.NORMAL) == 0) {
+            countFinalPoints();
+            return;
+        }
+        write(registers, CURRENT_PLAYER, (registers[CURRENT_PLAYER] + 1) % players.length);
+        write(registers, TILE_TO_PLACE, drawTopTile(Tile.Kind.NORMAL).id());
+        write(registers, NEXT_ACTION, GameState.Action.PLACE_TILE.ordinal());
+    }
+
+    /**
+     * Ends the game: gives the majority occupants of each meadow and river system their points, then adds the
+     * message announcing the winners.
+     */
+    private void countFinalPoints() {
+        int placedTileCount = registers[PLACED_TILE_COUNT];
+        ++rootStamp;
+        for (int i = 0; i < placedTileCount; ++i) {
+            for (Zone zone : tiles[placementOrder[i]].zones()) {
+                if (zone instanceof Zone.Meadow && markRoot(find(node(AREAS, zone))))
+                    scoreFinalMeadow(find(node(AREAS, zone)));
+            }
+        }
+        for (int i = 0; i < placedTileCount; ++i) {
+            for (Zone zone : tiles[placementOrder[i]].zones()) {
+                if (zone instanceof Zone.Water && markRoot(find(node(RIVER_SYSTEMS, zone))))
+                    scoreFinalRiverSystem(find(node(RIVER_SYSTEMS, zone)));
+            }
+        }
+
+        int maxPoints = 0;
+        for (int mask = registers[SCORER_MASK]; mask != 0; mask &= mask - 1)
+            maxPoints = Math.max(maxPoints, points[Integer.numberOfTrailingZeros(mask)]);
+        Set<PlayerColor> winners = EnumSet.noneOf(PlayerColor.class);
+        for (int mask = registers[SCORER_MASK]; mask != 0; mask &= mask - 1) {
+            int ordinal = Integer.numberOfTrailingZeros(mask);
+            if (points[ordinal] == maxPoints)
+                winners.add(PlayerColor.ALL.get(ordinal));
+        }
+        addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.PLAYERS_WON, winners, maxPoints,
+                Map.of(), 0, Set.of(), Set.of()));
+        write(registers, NEXT_ACTION, GameState.Action.END_GAME.ordinal());
+    }
+
+    /**
+     * Marks the given root as visited by the current scoring pass, and returns whether it was not yet.
+     *
+     * @param root the root of an area
+     * @return whether the root had not been visited yet by the current scoring pass
+     */
+    private boolean markRoot(int root) {
+        if (rootStamps[root] == rootStamp)
+            return false;
+        rootStamps[root] = rootStamp;
+        return true;
+    }
+
+    /**
+     * Gives the majority occupants of the meadow of the given root the points of its animals, and those of
+     * the animals adjacent to its pit trap if any, once the tigers have eaten the deer.
+     * <p>
+     * The tigers of a meadow without wildfire eat as many deer as possible, those out of the reach of the pit
+     * trap first. Among the deer of a group, they eat those which were already cancelled first, then the
+     * others in the order of the zones of the meadow.
+     *
+     * @param root the root of the meadow
+     */
+    private void scoreFinalMeadow(int root) {
+        // The counts of the animals which are not cancelled, and of the cancelled deer, of each group
+        int[] animalCounts = new int[2 * ANIMAL_KIND_COUNT];
+        int[] cancelledDeerCounts = new int[2];
+        int pitTrapCell = NONE;
+        boolean containsWildFire = false;
+        int node = root;
+        do {
+            Zone zone = zones[node % zoneCount];
+            if (zone.specialPower() == Zone.SpecialPower.PIT_TRAP)
+                pitTrapCell = tileCells[zone.tileId()];
+            containsWildFire |= zone.specialPower() == Zone.SpecialPower.WILD_FIRE;
+            node = nextZones[node];
+        } while (node != root);
+        int tigerCount = 0;
+        node = root;
+        do {
+            int zoneId = node % zoneCount;
+            int group = meadowGroup(zoneId, pitTrapCell);
+            for (Animal animal : ((Zone.Meadow) zones[zoneId]).animals()) {
+                if (animal.kind() == Animal.Kind.TIGER)
+                    ++tigerCount;
+                if (!isCancelled(animal.id()))
+                    ++animalCounts[group * ANIMAL_KIND_COUNT + animal.kind().ordinal()];
+                else if (animal.kind() == Animal.Kind.DEER)
+                    ++cancelledDeerCounts[group];
+            }
+            node = nextZones[node];
+        } while (node != root);
+        if (containsWildFire)
+            tigerCount = 0;
+
+        // The deer which are out of the reach of the pit trap are eaten first
+        for (int group = 0; group < 2; ++group) {
+            int deerIndex = group * ANIMAL_KIND_COUNT + Animal.Kind.DEER.ordinal();
+            int deerCount = animalCounts[deerIndex] + cancelledDeerCounts[group];
+            int eatenCount = Math.max(0, Math.min(tigerCount, deerCount) - cancelledDeerCounts[group]);
+            tigerCount = Math.max(0, tigerCount - deerCount);
+            animalCounts[deerIndex] -= eatenCount;
+            cancelDeer(root, group, pitTrapCell, eatenCount);
+        }
+
+        if (occupantCount(root) == 0)
+            return;
+        Set<PlayerColor> scorers = majorityOccupants(root);
+        if (pitTrapCell != NONE) {
+            addMeadowMessage(MessageBoard.Message.Kind.SCORED_PIT_TRAP, scorers,
+                    Arrays.copyOfRange(animalCounts, ANIMAL_KIND_COUNT, 2 * ANIMAL_KIND_COUNT),
+                    tileIds(root, pitTrapCell));
+        }
+        for (int kind = 0; kind < ANIMAL_KIND_COUNT; ++kind)
+            animalCounts[kind] += animalCounts[ANIMAL_KIND_COUNT + kind];
+        addMeadowMessage(MessageBoard.Message.Kind.SCORED_MEADOW, scorers,
+                Arrays.copyOf(animalCounts, ANIMAL_KIND_COUNT), tileIds(root, NONE));
+    }
+
+    /**
+     * Returns the group of the given meadow zone: 1 if it is within the reach of the pit trap of its meadow,
+     * 0 if it is out of its reach or if there is none.
+     *
+     * @param zoneId      the id of the meadow zone
+     * @param pitTrapCell the row major index of the tile of the pit trap, or {@link #NONE}
+     * @return the group of the zone
+     */
+    private int meadowGroup(int zoneId, int pitTrapCell) {
+        return pitTrapCell != NONE && isAdjacent(tileCells[Zone.tileId(zoneId)], pitTrapCell) ? 1 : 0;
+    }
+
+    /**
+     * Cancels the given number of deer of the given group of the meadow of the given root, which are not
+     * cancelled yet.
+     *
+     * @param root        the root of the meadow
+     * @param group       the group of the deer
+     * @param pitTrapCell the row major index of the tile of the pit trap, or {@link #NONE}
+     * @param count       the number of deer to cancel
+     */
+    private void cancelDeer(int root, int group, int pitTrapCell, int count) {
+        int node = root;
+        while (count > 0) {
+            int zoneId = node % zoneCount;
+            if (meadowGroup(zoneId, pitTrapCell) == group) {
+                for (Animal animal : ((Zone.Meadow) zones[zoneId]).animals()) {
+                    if (count > 0 && animal.kind() == Animal.Kind.DEER && !isCancelled(animal.id())) {
+                        cancelAnimal(animal.id());
+                        --count;
+                    }
+                }
+            }
+            node = nextZones[node];
+        }
+    }
+
+    /**
+     * Adds the message of the given kind giving the given scorers the points of the given animals, if they
+     * score any.
+     *
+     * @param kind         the kind of the message, SCORED_MEADOW or SCORED_PIT_TRAP
+     * @param scorers      the majority occupants of the meadow
+     * @param animalCounts the number of animals of each kind, indexed by ordinal
+     * @param tileIds      the ids of the tiles of the scored zones
+     */
+    private void addMeadowMessage(MessageBoard.Message.Kind kind, Set<PlayerColor> scorers, int[] animalCounts,
+                                  Set<Integer> tileIds) {
+        int scored = Points.forMeadow(animalCounts[Animal.Kind.MAMMOTH.ordinal()],
+                animalCounts[Animal.Kind.AUROCHS.ordinal()], animalCounts[Animal.Kind.DEER.ordinal()]);
+        if (scored == 0)
+            return;
+        Map<Animal.Kind, Integer> animals = new EnumMap<>(Animal.Kind.class);
+        for (Animal.Kind animalKind : Animal.Kind.values()) {
+            if (animalCounts[animalKind.ordinal()] > 0)
+                animals.put(animalKind, animalCounts[animalKind.ordinal()]);
+        }
+        addMessage(new MessageBoard.Message(textMaker, kind, scorers, 0, animals, scored, scorers, tileIds));
+    }
+
+    /**
+     * Gives the majority occupants of the river system of the given root the points of its fish, and those of
+     * its lakes if it contains the raft.
+     *
+     * @param root the root of the river system
+     */
+    private void scoreFinalRiverSystem(int root) {
+        if (occupantCount(root) == 0)
+            return;
+        int fishCount = 0;
+        int lakeCount = 0;
+        boolean containsRaft = false;
+        int node = root;
+        do {
+            Zone.Water water = (Zone.Water) zones[node % zoneCount];
+            fishCount += water.fishCount();
+            if (water instanceof Zone.Lake)
+                ++lakeCount;
+            containsRaft |= water.specialPower() == Zone.SpecialPower.RAFT;
+            node = nextZones[node];
+        } while (node != root);
+        Set<PlayerColor> scorers = majorityOccupants(root);
+        Set<Integer> tileIds = tileIds(root, NONE);
+        if (containsRaft) {
+            addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.SCORED_RAFT, scorers,
+                    lakeCount, Map.of(), Points.forRaft(lakeCount), scorers, tileIds));
+        }
+        int scored = Points.forRiverSystem(fishCount);
+        if (scored > 0) {
+            addMessage(new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.SCORED_RIVER_SYSTEM, scorers,
+                    fishCount, Map.of(), scored, scorers, tileIds));
+        }
+    }
+    //</editor-fold>
+}
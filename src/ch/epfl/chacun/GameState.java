@@ -72,6 +72,49 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
         return Occupant.occupantsCount(kind) - board.occupantCount(player, kind);
     }
 
+    /**
+     * Returns the 64-bit key of the position of the game, which combines the position key of the board with the
+     * current player, the next action, the tile to place and the sizes of the decks.
+     * <p>
+     * Within a game, whose decks are shuffled once, two states with the same key can be considered as the same
+     * position by search algorithms and caches. The key is computed in constant time.
+     *
+     * @return the position key of the game state
+     */
+    public long positionKey() {
+        return board.positionKey() ^ ZobristKeys.turn(currentPlayer(), nextAction, tileToPlace,
+                tileDecks.deckSize(Tile.Kind.NORMAL), tileDecks.deckSize(Tile.Kind.MENHIR));
+    }
+
+    /**
+     * Returns the provisional total of each player of the game: the points scored so far, plus those the open
+     * meadows and river systems would yield if the game ended now.
+     * <p>
+     * The projection is maintained by the board as areas are merged and occupied, so that it can be used as an
+     * evaluation function. Once the game is over, the
+     * provisional totals are the final points.
+     * <p>
+     * Before that, they can differ from the points {@link #withFinalPointsCounted()} would give if the game
+     * ended now in a single case: when an occupied meadow contains fewer tigers than deer, some of which were
+     * cancelled by a hunting trap. The final scoring then lets the tigers eat any deer of the meadow, cancelled
+     * or not, chosen in an unspecified order, while the projection assumes that they eat the cancelled deer
+     * first.
+     *
+     * @return the provisional total of each player of the game
+     */
+    public Map<PlayerColor, Integer> projectedScores() {
+        Map<PlayerColor, Integer> scores = new HashMap<>();
+        for (PlayerColor player : players)
+            scores.put(player, 0);
+        scores.putAll(messageBoard.points());
+        if (nextAction != Action.END_GAME) {
+            int[] projectedPoints = board.projectedPoints();
+            for (PlayerColor player : players)
+                scores.merge(player, projectedPoints[player.ordinal()], Integer::sum);
+        }
+        return Map.copyOf(scores);
+    }
+
     /**
      * Returns the set of all the potential occupants of the last placed tile.
      *
@@ -82,23 +125,96 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
         Preconditions.checkArgument(!board.equals(Board.EMPTY));
         PlacedTile lastPlacedTile = board.lastPlacedTile();
         assert lastPlacedTile != null;
-        // Calculate the potential occupants of the last placed tile
-        Set<Occupant> potentialOccupants = lastPlacedTile.potentialOccupants();
-        potentialOccupants.removeIf(occupant -> {
-            Zone zone = lastPlacedTile.zoneWithId(occupant.zoneId());
-            // If the player has no more occupants of the given kind, any occupant should be removed
-            if (freeOccupantsCount(currentPlayer(), occupant.kind()) <= 0)
-                return true;
-            // Prevent the player from placing a pawn on a zone within an occupied area
-            return switch (zone) {
-                case Zone.Forest forest -> board.forestArea(forest).isOccupied();
-                case Zone.River river when occupant.kind() == Occupant.Kind.PAWN ->
-                        board.riverArea(river).isOccupied();
-                case Zone.Meadow meadow -> board.meadowArea(meadow).isOccupied();
-                case Zone.Water water -> board.riverSystemArea(water).isOccupied();
-            };
-        });
-        return potentialOccupants;
+        // The origin tile cannot be occupied
+        if (lastPlacedTile.placer() == null)
+            return Set.of();
+        OccupantTemplate template = OccupantTemplate.of(lastPlacedTile.tile());
+        return template.occupants(occupiableMask(template));
+    }
+
+    /**
+     * Returns the bitmask of the occupants of the given template, the one of the last placed tile, which can
+     * be placed by the current player.
+     *
+     * @param template the occupant template of the last placed tile
+     * @return the bitmask of the occupants which can be placed
+     */
+    private int occupiableMask(OccupantTemplate template) {
+        // If the player has no more occupants of a given kind, no occupant of this kind can be placed
+        int mask = 0;
+        if (freeOccupantsCount(currentPlayer(), Occupant.Kind.PAWN) > 0)
+            mask |= template.kindMask(Occupant.Kind.PAWN);
+        if (freeOccupantsCount(currentPlayer(), Occupant.Kind.HUT) > 0)
+            mask |= template.kindMask(Occupant.Kind.HUT);
+        for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int index = Integer.numberOfTrailingZeros(remaining);
+            if (isAreaOccupied(template.occupant(index).kind(), template.zone(index)))
+                mask &= ~(1 << index);
+        }
+        return mask;
+    }
+
+    /**
+     * Determines whether the area in which an occupant of the given kind placed on the given zone of the last
+     * placed tile would be is already occupied.
+     *
+     * @param kind the kind of the occupant
+     * @param zone the zone of the last placed tile
+     * @return whether the area of the given zone for an occupant of the given kind is occupied
+     */
+    private boolean isAreaOccupied(Occupant.Kind kind, Zone zone) {
+        // Prevent the player from placing a pawn on a zone within an occupied area
+        return switch (zone) {
+            case Zone.Forest forest -> board.forestArea(forest).isOccupied();
+            case Zone.River river when kind == Occupant.Kind.PAWN -> board.riverArea(river).isOccupied();
+            case Zone.Meadow meadow -> board.meadowArea(meadow).isOccupied();
+            case Zone.Water water -> board.riverSystemArea(water).isOccupied();
+        };
+    }
+
+    /**
+     * Writes in the given buffer the packed code of every legal placement of the tile to place, and returns
+     * their number.
+     * <p>
+     * The codes use the layout of {@link ActionEncoder}: the index of the insertion position in the fringe,
+     * sorted by x coordinate then by y coordinate, shifted two bits to the left and combined with the ordinal
+     * of the rotation. They are written in ascending order, without creating any placed tile.
+     *
+     * @param buffer the buffer in which to write the codes
+     * @return the number of legal placements
+     * @throws IllegalArgumentException if the next action is not PLACE_TILE or if the buffer is too small
+     */
+    public int legalPlacements(int[] buffer) {
+        Preconditions.checkArgument(nextAction == Action.PLACE_TILE);
+        return board.legalPlacements(tileToPlace, ActionEncoder.PLACED_TILE_INDEX_SHIFT, buffer);
+    }
+
+    /**
+     * Writes in the given buffer the packed code of every occupant the current player can place on the last
+     * placed tile, and returns their number.
+     * <p>
+     * The codes use the layout of {@link ActionEncoder}: the ordinal of the occupant kind shifted four bits to
+     * the left, combined with the local id of the occupied zone. They are written in ascending order, without
+     * creating any occupant. Placing no occupant is always legal and has no code in the buffer.
+     *
+     * @param buffer the buffer in which to write the codes
+     * @return the number of legal occupants
+     * @throws IllegalArgumentException if the next action is not OCCUPY_TILE or if the buffer is too small
+     */
+    public int legalOccupants(int[] buffer) {
+        Preconditions.checkArgument(nextAction == Action.OCCUPY_TILE);
+        PlacedTile lastPlacedTile = board.lastPlacedTile();
+        assert lastPlacedTile != null;
+        OccupantTemplate template = OccupantTemplate.of(lastPlacedTile.tile());
+        int count = 0;
+        // The occupants of the template are sorted by kind then by zone id, so are their codes
+        for (int mask = occupiableMask(template); mask != 0; mask &= mask - 1) {
+            Preconditions.checkArgument(count < buffer.length);
+            Occupant occupant = template.occupant(Integer.numberOfTrailingZeros(mask));
+            buffer[count++] = occupant.kind().ordinal() << ActionEncoder.OCCUPANT_KIND_SHIFT
+                    | Zone.localId(occupant.zoneId());
+        }
+        return count;
     }
 
     /**
@@ -310,37 +426,43 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      * - the meadows, considering the presence of the wildfire and the pit trap.<p>
      * - the river systems, considering the presence of the raft.<p>
      * Determines the winners of the game.
+     * <p>
+     * Every meadow and river system is visited once: the deer eaten by the tigers are only looked for in the
+     * meadows containing both, the board is updated once with all of them, and the scoring messages are added
+     * to the message board in a single batch.
      *
      * @return an updated game state
      */
     private GameState withFinalPointsCounted() {
-        Board updatedBoard = board;
-        MessageBoard updatedMessageBoard = messageBoard;
+        Set<Animal> cancelledAnimals = new HashSet<>(board.cancelledAnimals());
+        List<MessageBoard.Message> scoreMessages = new ArrayList<>();
         // Add all points scored with meadow areas
-        for (Area<Zone.Meadow> meadow : updatedBoard.meadowAreas()) {
+        for (Area<Zone.Meadow> meadow : board.meadowAreas()) {
             boolean containsWildFire = meadow.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null;
             Zone.Meadow zoneWithPitTrap = (Zone.Meadow) meadow.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
+            // The deer only have to be chosen when the meadow contains tigers which can eat some
+            boolean tigersEatDeer = !containsWildFire
+                    && Area.animalCount(meadow, Set.of(), Animal.Kind.TIGER) > 0
+                    && Area.animalCount(meadow, Set.of(), Animal.Kind.DEER) > 0;
             if (zoneWithPitTrap != null) {
-                PlacedTile tileWithPitTrap = updatedBoard.tileWithId(zoneWithPitTrap.tileId());
-                if (!containsWildFire) {
-                    updatedBoard = updatedBoard.withMoreCancelledAnimals(computeCancelledAnimalsWithPitTrap(meadow));
-                }
-                Area<Zone.Meadow> adjacentMeadows = updatedBoard.adjacentMeadow(tileWithPitTrap.pos(), zoneWithPitTrap);
-                updatedMessageBoard =
-                        updatedMessageBoard.withScoredPitTrap(adjacentMeadows, updatedBoard.cancelledAnimals());
-            } else if (!containsWildFire) {
-                updatedBoard = updatedBoard.withMoreCancelledAnimals(computeCancelledAnimals(meadow));
+                Area<Zone.Meadow> adjacentMeadow =
+                        board.adjacentMeadow(board.tileWithId(zoneWithPitTrap.tileId()).pos(), zoneWithPitTrap);
+                if (tigersEatDeer)
+                    cancelledAnimals.addAll(computeCancelledAnimalsWithPitTrap(meadow, adjacentMeadow));
+                addIfNotNull(scoreMessages, messageBoard.scoredPitTrapMessage(adjacentMeadow, cancelledAnimals));
+            } else if (tigersEatDeer) {
+                cancelledAnimals.addAll(computeCancelledAnimals(meadow));
             }
-
-            updatedMessageBoard = updatedMessageBoard.withScoredMeadow(meadow, updatedBoard.cancelledAnimals());
+            addIfNotNull(scoreMessages, messageBoard.scoredMeadowMessage(meadow, cancelledAnimals));
         }
 
         // Add all points scored with river systems
         for (Area<Zone.Water> riverSystem : board.riverSystemAreas()) {
-            updatedMessageBoard = riverSystem.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null
-                    ? updatedMessageBoard.withScoredRaft(riverSystem).withScoredRiverSystem(riverSystem)
-                    : updatedMessageBoard.withScoredRiverSystem(riverSystem);
+            if (riverSystem.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null)
+                addIfNotNull(scoreMessages, messageBoard.scoredRaftMessage(riverSystem));
+            addIfNotNull(scoreMessages, messageBoard.scoredRiverSystemMessage(riverSystem));
         }
+        MessageBoard updatedMessageBoard = messageBoard.withMessages(scoreMessages);
 
         // Determine the winners of the game
         Set<PlayerColor> winners = new HashSet<>();
@@ -351,10 +473,21 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
                 .forEach(entry -> winners.add(entry.getKey()));
         updatedMessageBoard = updatedMessageBoard.withWinners(winners, maxPoints);
         // Return a new game state with updated data
-        return new GameState(players, tileDecks, null, updatedBoard,
+        return new GameState(players, tileDecks, null, board.withMoreCancelledAnimals(cancelledAnimals),
                 Action.END_GAME, updatedMessageBoard);
     }
 
+    /**
+     * Adds the given message to the given list, unless it is null.
+     *
+     * @param messages the list of messages
+     * @param message  the message to add, or null
+     */
+    private static void addIfNotNull(List<MessageBoard.Message> messages, MessageBoard.Message message) {
+        if (message != null)
+            messages.add(message);
+    }
+
     /**
      * Determine the animals to be cancelled from a given meadow area with a given number of tigers.
      * <p>
@@ -399,14 +532,12 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
      * When a meadow contains a pit trap, the deer which are out of the pit trap reach must be cancelled
      * in priority.
      *
-     * @param meadow the meadow containing the pit trap
+     * @param meadow             the meadow containing the pit trap
+     * @param adjacentMeadowArea the area containing the meadows adjacent to the pit trap
      * @return the set of cancelled animals
      */
-    private Set<Animal> computeCancelledAnimalsWithPitTrap(Area<Zone.Meadow> meadow) {
-        PlacedTile pitTrapTile = board.tileWithId(meadow.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP).tileId());
-        // The area containing the adjacent meadows
-        Area<Zone.Meadow> adjacentMeadowArea = board.adjacentMeadow(pitTrapTile.pos(),
-                (Zone.Meadow) pitTrapTile.specialPowerZone());
+    private Set<Animal> computeCancelledAnimalsWithPitTrap(Area<Zone.Meadow> meadow,
+                                                           Area<Zone.Meadow> adjacentMeadowArea) {
         // The set of the meadow zones which are out of the pit trap reach
         Set<Zone.Meadow> outOfReachMeadowZones = new HashSet<>(meadow.zones());
         outOfReachMeadowZones.removeAll(adjacentMeadowArea.zones());
@@ -414,11 +545,11 @@ public record GameState(List<PlayerColor> players, TileDecks tileDecks, Tile til
         Area<Zone.Meadow> outOfReachMeadowArea =
                 new Area<>(outOfReachMeadowZones, meadow.occupants(), meadow.openConnections());
         // The total number of tigers
-        int tigerCount = getAnimalsOfKind(Area.animals(meadow, Set.of()), Animal.Kind.TIGER).size();
+        int tigerCount = Area.animalCount(meadow, Set.of(), Animal.Kind.TIGER);
         // Compute the cancelled animals which are out of the pit trap reach
         Set<Animal> cancelledAnimals = computeCancelledAnimals(outOfReachMeadowArea, tigerCount);
         // Subtract the tigers that have already eaten a deer
-        tigerCount -= getAnimalsOfKind(Area.animals(outOfReachMeadowArea, Set.of()), Animal.Kind.DEER).size();
+        tigerCount -= Area.animalCount(outOfReachMeadowArea, Set.of(), Animal.Kind.DEER);
         // If there are some tigers left, add the remaining cancelled animals from the adjacent meadows
         if (tigerCount > 0)
             cancelledAnimals.addAll(computeCancelledAnimals(adjacentMeadowArea, tigerCount));
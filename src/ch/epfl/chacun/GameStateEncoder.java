@@ -0,0 +1,243 @@
+package ch.epfl.chacun;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Helper class to encode a game state into a compact binary snapshot, and to decode it.
+ * <p>
+ * A snapshot contains the players, the content of the three decks, the tile to place, the next action, the
+ * tiles of the board in placement order with their rotation, placer and occupant, the cancelled animals and
+ * the points of each player. It takes a few hundred bytes, and is decoded without replaying the actions of
+ * the game: the board is rebuilt in a single pass over its tiles.
+ * <p>
+ * The messages of the message board are dropped, only the total points of each player are kept. The decoded
+ * message board therefore does not describe the history of the game: it contains one message per player who
+ * scored, with an empty text and no tiles, which only carries the total points of this player so that
+ * {@link MessageBoard#points()} is preserved.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+public final class GameStateEncoder {
+
+    /**
+     * The version of the snapshot format, written as its first byte.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * The byte encoding the absence of a tile or of an occupant.
+     */
+    private static final int NONE = 0xFF;
+
+    /**
+     * The mask to apply to a byte to read it as an unsigned value.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * The code of the absence of placer of a placed tile.
+     */
+    private static final int NO_PLACER = 0b111;
+
+    /**
+     * The number of bits to shift to encode the placer of a placed tile.
+     * Encoded format: ppprr, where p is a bit of the placer and r is a bit of the rotation.
+     */
+    private static final int PLACER_SHIFT = 2;
+
+    /**
+     * The mask to apply to the encoded rotation and placer to get the rotation.
+     */
+    private static final int ROTATION_MASK = (1 << PLACER_SHIFT) - 1;
+
+    /**
+     * The number of bits to shift to encode the kind of a cancelled animal.
+     * Encoded format: kk-iiiiiiiiiiiiii, where k is a bit of the kind and i is a bit of the animal id.
+     */
+    private static final int ANIMAL_KIND_SHIFT = 14;
+
+    /**
+     * The mask to apply to an encoded cancelled animal to get its id.
+     */
+    private static final int ANIMAL_ID_MASK = (1 << ANIMAL_KIND_SHIFT) - 1;
+
+    /**
+     * The number of bytes of the fixed part of a snapshot: the version, the player count, the next action,
+     * the tile to place, the size of the three decks, the tile count, the cancelled animal count and the
+     * scorer count.
+     */
+    private static final int HEADER_SIZE = 10;
+
+    /**
+     * The number of bytes of an encoded placed tile: id, x, y, rotation and placer, occupant.
+     */
+    private static final int PLACED_TILE_SIZE = 5;
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private GameStateEncoder() {
+    }
+
+    /**
+     * Encodes the given game state into a binary snapshot.
+     *
+     * @param gameState the game state to encode
+     * @return the snapshot of the given game state
+     */
+    public static byte[] encode(GameState gameState) {
+        TileDecks decks = gameState.tileDecks();
+        List<PlacedTile> tiles = gameState.board().placedTilesInOrder();
+        Set<Animal> cancelledAnimals = gameState.board().cancelledAnimals();
+        Map<PlayerColor, Integer> points = gameState.messageBoard().points();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + gameState.players().size()
+                + decks.startTiles().size() + decks.normalTiles().size() + decks.menhirTiles().size()
+                + tiles.size() * PLACED_TILE_SIZE + cancelledAnimals.size() * Short.BYTES
+                + points.size() * (1 + Integer.BYTES));
+
+        buffer.put((byte) FORMAT_VERSION);
+        buffer.put((byte) gameState.players().size());
+        for (PlayerColor player : gameState.players())
+            buffer.put((byte) player.ordinal());
+        buffer.put((byte) gameState.nextAction().ordinal());
+        buffer.put((byte) (gameState.tileToPlace() != null ? gameState.tileToPlace().id() : NONE));
+        putTiles(buffer, decks.startTiles());
+        putTiles(buffer, decks.normalTiles());
+        putTiles(buffer, decks.menhirTiles());
+
+        buffer.put((byte) tiles.size());
+        for (PlacedTile tile : tiles) {
+            int placer = tile.placer() != null ? tile.placer().ordinal() : NO_PLACER;
+            Occupant occupant = tile.occupant();
+            buffer.put((byte) tile.id());
+            buffer.put((byte) (tile.pos().x() + Board.REACH));
+            buffer.put((byte) (tile.pos().y() + Board.REACH));
+            buffer.put((byte) (placer << PLACER_SHIFT | tile.rotation().ordinal()));
+            buffer.put((byte) (occupant != null
+                    ? occupant.kind().ordinal() << ActionEncoder.OCCUPANT_KIND_SHIFT | Zone.localId(occupant.zoneId())
+                    : NONE));
+        }
+
+        // The cancelled animals and the scorers are written in a fixed order, so that equal states are encoded
+        // into equal snapshots
+        buffer.put((byte) cancelledAnimals.size());
+        cancelledAnimals.stream()
+                .mapToInt(animal -> animal.kind().ordinal() << ANIMAL_KIND_SHIFT | animal.id())
+                .sorted()
+                .forEach(encodedAnimal -> buffer.putShort((short) encodedAnimal));
+
+        buffer.put((byte) points.size());
+        for (PlayerColor player : PlayerColor.ALL) {
+            Integer playerPoints = points.get(player);
+            if (playerPoints != null) {
+                buffer.put((byte) player.ordinal());
+                buffer.putInt(playerPoints);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Writes the size of the given deck, followed by the id of each of its tiles.
+     *
+     * @param buffer the buffer to write to
+     * @param tiles  the tiles of the deck
+     */
+    private static void putTiles(ByteBuffer buffer, List<Tile> tiles) {
+        buffer.put((byte) tiles.size());
+        for (Tile tile : tiles)
+            buffer.put((byte) tile.id());
+    }
+
+    /**
+     * Decodes the given snapshot into a game state, whose message board uses the given text maker.
+     * <p>
+     * The messages of the encoded state are dropped: the decoded message board contains one message with an
+     * empty text per player who scored, giving the total points of this player.
+     *
+     * @param snapshot  the snapshot to decode
+     * @param textMaker the text maker of the message board
+     * @return the decoded game state
+     * @throws IllegalArgumentException if the snapshot is malformed
+     */
+    public static GameState decode(byte[] snapshot, TextMaker textMaker) {
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+        try {
+            Preconditions.checkArgument(buffer.get() == FORMAT_VERSION);
+            int playerCount = unsigned(buffer.get());
+            List<PlayerColor> players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; ++i)
+                players.add(PlayerColor.ALL.get(unsigned(buffer.get())));
+            GameState.Action nextAction = GameState.Action.values()[unsigned(buffer.get())];
+            int tileToPlaceId = unsigned(buffer.get());
+            Tile tileToPlace = tileToPlaceId != NONE ? Tiles.TILES.get(tileToPlaceId) : null;
+            TileDecks decks = new TileDecks(getTiles(buffer), getTiles(buffer), getTiles(buffer));
+
+            int tileCount = unsigned(buffer.get());
+            List<PlacedTile> tiles = new ArrayList<>(tileCount);
+            for (int i = 0; i < tileCount; ++i) {
+                Tile tile = Tiles.TILES.get(unsigned(buffer.get()));
+                Pos pos = new Pos(unsigned(buffer.get()) - Board.REACH, unsigned(buffer.get()) - Board.REACH);
+                int rotationAndPlacer = unsigned(buffer.get());
+                int placer = rotationAndPlacer >>> PLACER_SHIFT;
+                int encodedOccupant = unsigned(buffer.get());
+                Occupant occupant = encodedOccupant != NONE
+                        ? new Occupant(Occupant.Kind.values()[encodedOccupant >>> ActionEncoder.OCCUPANT_KIND_SHIFT],
+                        tile.id() * 10 + (encodedOccupant & ((1 << ActionEncoder.OCCUPANT_KIND_SHIFT) - 1)))
+                        : null;
+                // Only a tile placed by a player can hold an occupant
+                Preconditions.checkArgument(occupant == null || placer != NO_PLACER);
+                tiles.add(new PlacedTile(tile, placer != NO_PLACER ? PlayerColor.ALL.get(placer) : null,
+                        Rotation.ALL.get(rotationAndPlacer & ROTATION_MASK), pos, occupant));
+            }
+
+            int cancelledAnimalCount = unsigned(buffer.get());
+            Set<Animal> cancelledAnimals = new HashSet<>();
+            for (int i = 0; i < cancelledAnimalCount; ++i) {
+                int encodedAnimal = Short.toUnsignedInt(buffer.getShort());
+                cancelledAnimals.add(new Animal(encodedAnimal & ANIMAL_ID_MASK,
+                        Animal.Kind.values()[encodedAnimal >>> ANIMAL_KIND_SHIFT]));
+            }
+
+            int scorerCount = unsigned(buffer.get());
+            List<MessageBoard.Message> messages = new ArrayList<>(scorerCount);
+            for (int i = 0; i < scorerCount; ++i) {
+                PlayerColor scorer = PlayerColor.ALL.get(unsigned(buffer.get()));
+                messages.add(new MessageBoard.Message("", buffer.getInt(), Set.of(scorer), Set.of()));
+            }
+            Preconditions.checkArgument(!buffer.hasRemaining());
+
+            return new GameState(players, decks, tileToPlace, Board.of(tiles, cancelledAnimals), nextAction,
+                    new MessageBoard(textMaker, messages));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Reads the size of a deck, followed by the id of each of its tiles.
+     *
+     * @param buffer the buffer to read from
+     * @return the tiles of the deck
+     */
+    private static List<Tile> getTiles(ByteBuffer buffer) {
+        int size = unsigned(buffer.get());
+        List<Tile> tiles = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i)
+            tiles.add(Tiles.TILES.get(unsigned(buffer.get())));
+        return tiles;
+    }
+
+    /**
+     * Returns the given byte as an unsigned value.
+     *
+     * @param b the byte
+     * @return the unsigned value of the given byte
+     */
+    private static int unsigned(byte b) {
+        return b & BYTE_MASK;
+    }
+}
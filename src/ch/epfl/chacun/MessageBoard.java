@@ -4,46 +4,117 @@ import java.util.*;
 
 /**
  * Represents the message board of the game.
+ * <p>
+ * The message board keeps the points scored by each player up to date as messages are added, so that
+ * they are known without going through the messages. Adding messages does not copy the previous ones, which
+ * are shared with the message board the new one is derived from.
  *
- * @param textMaker the text maker used to create the messages
- * @param messages  the list of messages on the message board
  * @author Maxence Espagnet (sciper: 372808)
  * @author Balthazar Baillat (sciper: 373420)
  */
-public record MessageBoard(TextMaker textMaker, List<Message> messages) {
+public final class MessageBoard {
 
     /**
-     * Defensive copy of the list of messages.
+     * The text maker used to create the messages.
      */
-    public MessageBoard {
-        messages = List.copyOf(messages);
+    private final TextMaker textMaker;
+    /**
+     * The list of messages on the message board, sharing its storage with the message boards it was derived from.
+     */
+    private final PersistentList<Message> messages;
+    /**
+     * The points scored by each player, indexed by the ordinal of the players.
+     */
+    private final int[] points;
+    /**
+     * The bitset of the ordinals of the players who are the scorers of at least one message.
+     */
+    private final int scorerMask;
+
+    /**
+     * Constructs a message board with the given text maker and messages.
+     *
+     * @param textMaker the text maker used to create the messages
+     * @param messages  the list of messages on the message board
+     */
+    public MessageBoard(TextMaker textMaker, List<Message> messages) {
+        this.textMaker = textMaker;
+        this.messages = PersistentList.<Message>empty().withAll(messages);
+        this.points = new int[PlayerColor.ALL.size()];
+        int mask = 0;
+        for (Message message : this.messages)
+            mask = addPoints(points, mask, message);
+        this.scorerMask = mask;
+    }
+
+    /**
+     * Private constructor of the message board to initialize values.
+     */
+    private MessageBoard(TextMaker textMaker, PersistentList<Message> messages, int[] points, int scorerMask) {
+        this.textMaker = textMaker;
+        this.messages = messages;
+        this.points = points;
+        this.scorerMask = scorerMask;
+    }
+
+    /**
+     * Adds the points of the given message to the given points of each player.
+     *
+     * @param points     the points of each player, to update
+     * @param scorerMask the bitset of the players who scored before the message
+     * @param message    the message
+     * @return the bitset of the players who scored, including the scorers of the message
+     */
+    private static int addPoints(int[] points, int scorerMask, Message message) {
+        for (PlayerColor scorer : message.scorers()) {
+            points[scorer.ordinal()] += message.points();
+            scorerMask |= 1 << scorer.ordinal();
+        }
+        return scorerMask;
+    }
+
+    /**
+     * Returns the text maker used to create the messages.
+     *
+     * @return the text maker used to create the messages
+     */
+    public TextMaker textMaker() {
+        return textMaker;
+    }
+
+    /**
+     * Returns the list of messages on the message board.
+     *
+     * @return the unmodifiable list of messages on the message board
+     */
+    public List<Message> messages() {
+        return messages;
     }
 
     /**
      * Returns the points scored by each player.
+     * <p>
+     * The returned map is an unmodifiable view, created in constant time, containing the players who are
+     * the scorers of at least one message.
      *
      * @return the points scored by each player
      */
     public Map<PlayerColor, Integer> points() {
-        Map<PlayerColor, Integer> scorers = new HashMap<>();
-        for (Message message : messages) {
-            for (PlayerColor scorer : message.scorers)
-                scorers.merge(scorer, message.points, Integer::sum);
-        }
-        return scorers;
+        return new Scores(points, scorerMask);
     }
 
     /**
-     * Counts the number of animals of each kind in the given set of animals.
+     * Counts the number of animals of each kind in the given meadow, excluding the cancelled animals.
      * Only consider an animal if there's more than one.
      *
-     * @param animals the set of animals
-     * @return a map which gives the number of each kind in the given set of animals
+     * @param meadow           the meadow
+     * @param cancelledAnimals the animals that have been cancelled
+     * @return a map which gives the number of each kind of animal in the given meadow
      */
-    private Map<Animal.Kind, Integer> countAnimals(Set<Animal> animals) {
+    private Map<Animal.Kind, Integer> countAnimals(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
         Map<Animal.Kind, Integer> animalCount = new HashMap<>();
         for (Animal.Kind kind : Animal.Kind.values()) {
-            int count = (int) animals.stream().filter(a -> a.kind() == kind).count();
+            int count = Area.animalCount(meadow, cancelledAnimals, kind);
             if (count > 0)
                 animalCount.put(kind, count);
         }
@@ -64,9 +135,9 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
             int mushroomGroupCount = Area.mushroomGroupCount(forest);
             int tileCount = forest.tileIds().size();
             int points = Points.forClosedForest(tileCount, mushroomGroupCount);
-            String messageContent = textMaker
-                    .playersScoredForest(forest.majorityOccupants(), points, mushroomGroupCount, tileCount);
-            return addMessage(messageContent, points, forest.majorityOccupants(), forest.tileIds());
+            Set<PlayerColor> scorers = forest.majorityOccupants();
+            return withMessage(new Message(textMaker, Message.Kind.SCORED_FOREST, scorers, mushroomGroupCount,
+                    Map.of(), points, scorers, forest.tileIds()));
         }
         return this;
     }
@@ -80,8 +151,8 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return the same message board, or a new one with a message added if the forest contains a menhir
      */
     public MessageBoard withClosedForestWithMenhir(PlayerColor player, Area<Zone.Forest> forest) {
-        String messageContent = textMaker.playerClosedForestWithMenhir(player);
-        return addMessage(messageContent, 0, Set.of(), forest.tileIds());
+        return withMessage(new Message(textMaker, Message.Kind.CLOSED_FOREST_WITH_MENHIR, Set.of(player), 0,
+                Map.of(), 0, Set.of(), forest.tileIds()));
     }
 
     /**
@@ -99,9 +170,8 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
             int fishCount = Area.riverFishCount(river);
             int points = Points.forClosedRiver(tileIds.size(), fishCount);
             Set<PlayerColor> scorers = river.majorityOccupants();
-            String messageContent = textMaker
-                    .playersScoredRiver(scorers, points, fishCount, tileIds.size());
-            return addMessage(messageContent, points, scorers, tileIds);
+            return withMessage(new Message(textMaker, Message.Kind.SCORED_RIVER, scorers, fishCount, Map.of(),
+                    points, scorers, tileIds));
         }
         return this;
     }
@@ -119,15 +189,15 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      */
     public MessageBoard withScoredHuntingTrap(PlayerColor scorer, Area<Zone.Meadow> adjacentMeadow,
                                               Set<Animal> cancelledAnimals) {
-        Set<Animal> animals = Area.animals(adjacentMeadow, cancelledAnimals);
         // Calculate the data needed
-        Map<Animal.Kind, Integer> animalCount = countAnimals(animals);
+        Map<Animal.Kind, Integer> animalCount = countAnimals(adjacentMeadow, cancelledAnimals);
         int points = pointsForMeadow(animalCount);
         // Check if the hunting trap enabled the player to score points
         if (points > 0) {
             // Add a new message
-            String messageContent = textMaker.playerScoredHuntingTrap(scorer, points, animalCount);
-            return addMessage(messageContent, points, Set.of(scorer), adjacentMeadow.tileIds());
+            Set<PlayerColor> scorers = Set.of(scorer);
+            return withMessage(new Message(textMaker, Message.Kind.SCORED_HUNTING_TRAP, scorers, 0, animalCount,
+                    points, scorers, adjacentMeadow.tileIds()));
         }
         return this;
     }
@@ -144,8 +214,9 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
         // Calculate the data needed
         int lakeCount = Area.lakeCount(riverSystem);
         int points = Points.forLogboat(lakeCount);
-        String messageContent = textMaker.playerScoredLogboat(scorer, points, lakeCount);
-        return addMessage(messageContent, points, Set.of(scorer), riverSystem.tileIds());
+        Set<PlayerColor> scorers = Set.of(scorer);
+        return withMessage(new Message(textMaker, Message.Kind.SCORED_LOGBOAT, scorers, lakeCount, Map.of(),
+                points, scorers, riverSystem.tileIds()));
     }
 
     /**
@@ -158,6 +229,17 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * and points are scored
      */
     public MessageBoard withScoredRiverSystem(Area<Zone.Water> riverSystem) {
+        return withMessage(scoredRiverSystemMessage(riverSystem));
+    }
+
+    /**
+     * Returns the message indicating that the majority occupants of the given river system have won the points
+     * it yields, or null if it is not occupied or if it yields no points.
+     *
+     * @param riverSystem the river system that has been scored
+     * @return the message of the scored river system, or null
+     */
+    Message scoredRiverSystemMessage(Area<Zone.Water> riverSystem) {
         if (riverSystem.isOccupied()) {
             // Calculate the data needed
             int fishCount = Area.riverSystemFishCount(riverSystem);
@@ -165,11 +247,11 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
             Set<PlayerColor> scorers = riverSystem.majorityOccupants();
             // Don't create a message if no points are scored
             if (points > 0) {
-                String messageContent = textMaker.playersScoredRiverSystem(scorers, points, fishCount);
-                return addMessage(messageContent, points, scorers, riverSystem.tileIds());
+                return new Message(textMaker, Message.Kind.SCORED_RIVER_SYSTEM, scorers, fishCount, Map.of(),
+                        points, scorers, riverSystem.tileIds());
             }
         }
-        return this;
+        return null;
     }
 
     /**
@@ -185,19 +267,30 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * and points are scored
      */
     public MessageBoard withScoredMeadow(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
+        return withMessage(scoredMeadowMessage(meadow, cancelledAnimals));
+    }
+
+    /**
+     * Returns the message indicating that the majority occupants of the given meadow have won the points it
+     * yields, the given cancelled animals excluded, or null if it is not occupied or if it yields no points.
+     *
+     * @param meadow           the meadow that has been scored
+     * @param cancelledAnimals the animals that have been cancelled
+     * @return the message of the scored meadow, or null
+     */
+    Message scoredMeadowMessage(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
         if (meadow.isOccupied()) {
             // Calculate the data needed
-            Set<Animal> animals = Area.animals(meadow, cancelledAnimals);
-            Map<Animal.Kind, Integer> animalCount = countAnimals(animals);
+            Map<Animal.Kind, Integer> animalCount = countAnimals(meadow, cancelledAnimals);
             int points = pointsForMeadow(animalCount);
             Set<PlayerColor> scorers = meadow.majorityOccupants();
             // Don't create a message if no points are scored
             if (points > 0) {
-                String messageContent = textMaker.playersScoredMeadow(scorers, points, animalCount);
-                return addMessage(messageContent, points, scorers, meadow.tileIds());
+                return new Message(textMaker, Message.Kind.SCORED_MEADOW, scorers, 0, animalCount,
+                        points, scorers, meadow.tileIds());
             }
         }
-        return this;
+        return null;
     }
 
     /**
@@ -216,9 +309,21 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * and points are scored
      */
     public MessageBoard withScoredPitTrap(Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals) {
+        return withMessage(scoredPitTrapMessage(adjacentMeadow, cancelledAnimals));
+    }
+
+    /**
+     * Returns the message indicating that the majority occupants of the meadow adjacent to the pit trap have
+     * won the points it yields, the given cancelled animals excluded, or null if it is not occupied or if it
+     * yields no points.
+     *
+     * @param adjacentMeadow   the meadow adjacent to the pit trap
+     * @param cancelledAnimals the animals that have been cancelled
+     * @return the message of the scored pit trap, or null
+     */
+    Message scoredPitTrapMessage(Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals) {
         if (adjacentMeadow.isOccupied()) {
-            Set<Animal> animals = Area.animals(adjacentMeadow, cancelledAnimals);
-            Map<Animal.Kind, Integer> animalCount = countAnimals(animals);
+            Map<Animal.Kind, Integer> animalCount = countAnimals(adjacentMeadow, cancelledAnimals);
             int points = Points.forMeadow(
                     animalCount.getOrDefault(Animal.Kind.MAMMOTH, 0),
                     animalCount.getOrDefault(Animal.Kind.AUROCHS, 0),
@@ -227,11 +332,11 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
             Set<PlayerColor> scorers = adjacentMeadow.majorityOccupants();
             // Don't create a message if no points are scored
             if (points > 0) {
-                String messageContent = textMaker.playersScoredPitTrap(scorers, points, animalCount);
-                return addMessage(messageContent, points, scorers, adjacentMeadow.tileIds());
+                return new Message(textMaker, Message.Kind.SCORED_PIT_TRAP, scorers, 0, animalCount,
+                        points, scorers, adjacentMeadow.tileIds());
             }
         }
-        return this;
+        return null;
     }
 
     /**
@@ -243,15 +348,26 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return the same message board, or a new one with a message added if the river system is occupied
      */
     public MessageBoard withScoredRaft(Area<Zone.Water> riverSystem) {
+        return withMessage(scoredRaftMessage(riverSystem));
+    }
+
+    /**
+     * Returns the message indicating that the majority occupants of the given river system, which contains
+     * the raft, have won the corresponding points, or null if it is not occupied.
+     *
+     * @param riverSystem the river system containing the raft
+     * @return the message of the scored raft, or null
+     */
+    Message scoredRaftMessage(Area<Zone.Water> riverSystem) {
         if (riverSystem.isOccupied()) {
             // Calculate the data needed
             Set<PlayerColor> scorers = riverSystem.majorityOccupants();
             int lakeCount = Area.lakeCount(riverSystem);
             int points = Points.forRaft(lakeCount);
-            String messageContent = textMaker.playersScoredRaft(scorers, lakeCount, points);
-            return addMessage(messageContent, points, scorers, riverSystem.tileIds());
+            return new Message(textMaker, Message.Kind.SCORED_RAFT, scorers, lakeCount, Map.of(),
+                    points, scorers, riverSystem.tileIds());
         }
-        return this;
+        return null;
     }
 
     /**
@@ -262,8 +378,8 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return the same message board with a game won message
      */
     public MessageBoard withWinners(Set<PlayerColor> winners, int points) {
-        String messageContent = textMaker.playersWon(winners, points);
-        return addMessage(messageContent, 0, Set.of(), Set.of());
+        return withMessage(new Message(textMaker, Message.Kind.PLAYERS_WON, winners, points, Map.of(),
+                0, Set.of(), Set.of()));
     }
 
     /**
@@ -280,43 +396,402 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
     }
 
     /**
-     * Adds a new message to the message board.
-     * @param text the text of the message
-     * @param points the points associated with the message
-     * @param scorers the players who have scored the points
-     * @param tileIds the ids of the tiles involved in the message
-     * @return the list of messages with the new message added
+     * Returns the same message board with the given message added, or the same message board if it is null.
+     *
+     * @param message the message to add, or null
+     * @return the message board with the given message added
      */
-    private MessageBoard addMessage(String text, int points, Set<PlayerColor> scorers, Set<Integer> tileIds) {
-        List<Message> newMessages = new ArrayList<>(messages);
-        newMessages.add(new Message(text, points, scorers, tileIds));
-        return new MessageBoard(textMaker, newMessages);
+    private MessageBoard withMessage(Message message) {
+        return message == null ? this : withMessages(List.of(message));
     }
 
     /**
-     * Represents a message on the message board.
+     * Returns the same message board with the given messages added at once, in the given order.
      *
-     * @param text    the text of the message
-     * @param points  the points associated with the message (no points if the action doesn't grant any)
-     * @param scorers the players who have scored the points (no player if no points)
-     * @param tileIds the ids of the tiles involved in the message
+     * @param newMessages the messages to add
+     * @return the message board with the given messages added
+     */
+    MessageBoard withMessages(List<Message> newMessages) {
+        if (newMessages.isEmpty())
+            return this;
+        int[] newPoints = points.clone();
+        int newScorerMask = scorerMask;
+        for (Message message : newMessages)
+            newScorerMask = addPoints(newPoints, newScorerMask, message);
+        return new MessageBoard(textMaker, messages.withAll(newMessages), newPoints, newScorerMask);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MessageBoard messageBoard
+                && textMaker.equals(messageBoard.textMaker)
+                && messages.equals(messageBoard.messages);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(textMaker, messages);
+    }
+
+    @Override
+    public String toString() {
+        return STR."MessageBoard[textMaker=\{textMaker}, messages=\{messages}]";
+    }
+
+    /**
+     * Represents the unmodifiable view of the points scored by each player of a message board.
+     */
+    private static final class Scores extends AbstractMap<PlayerColor, Integer> {
+
+        /**
+         * The points scored by each player, indexed by the ordinal of the players.
+         */
+        private final int[] points;
+        /**
+         * The bitset of the ordinals of the players who scored.
+         */
+        private final int scorerMask;
+
+        /**
+         * Constructs the view of the given points of the given players.
+         *
+         * @param points     the points scored by each player
+         * @param scorerMask the bitset of the players who scored
+         */
+        private Scores(int[] points, int scorerMask) {
+            this.points = points;
+            this.scorerMask = scorerMask;
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(scorerMask);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof PlayerColor player && (scorerMask & 1 << player.ordinal()) != 0;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return containsKey(key) ? points[((PlayerColor) key).ordinal()] : null;
+        }
+
+        @Override
+        public Set<Entry<PlayerColor, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return Scores.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<PlayerColor, Integer>> iterator() {
+                    return new Iterator<>() {
+                        /**
+                         * The bitset of the players which have not been returned yet.
+                         */
+                        private int remaining = scorerMask;
+
+                        @Override
+                        public boolean hasNext() {
+                            return remaining != 0;
+                        }
+
+                        @Override
+                        public Entry<PlayerColor, Integer> next() {
+                            if (remaining == 0)
+                                throw new NoSuchElementException();
+                            int ordinal = Integer.numberOfTrailingZeros(remaining);
+                            remaining &= remaining - 1;
+                            return Map.entry(PlayerColor.ALL.get(ordinal), points[ordinal]);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * Represents a message on the message board.
+     * <p>
+     * The messages created by the message board only keep the data describing what happened, and their text
+     * is rendered by the text maker of the board the first time it is requested, then cached. This way, no
+     * text is built for the messages which are never displayed nor compared.
      */
-    public record Message(String text, int points, Set<PlayerColor> scorers, Set<Integer> tileIds) {
+    public static final class Message {
+
+        /**
+         * The text maker used to render the text, or null if the text was given.
+         */
+        private final TextMaker textMaker;
+        /**
+         * The kind of the message.
+         */
+        private final Kind kind;
+        /**
+         * The players the message is about.
+         */
+        private final Set<PlayerColor> players;
+        /**
+         * The mushroom group, fish or lake count, or the points of the winners, depending on the kind.
+         */
+        private final int count;
+        /**
+         * The number of animals of each kind, for the messages about a meadow.
+         */
+        private final Map<Animal.Kind, Integer> animals;
+        /**
+         * The points associated with the message.
+         */
+        private final int points;
+        /**
+         * The players who have scored the points.
+         */
+        private final Set<PlayerColor> scorers;
+        /**
+         * The ids of the tiles involved in the message.
+         */
+        private final Set<Integer> tileIds;
+        /**
+         * The text of the message, or null if it has not been rendered yet.
+         */
+        private String text;
 
         /**
-         * Validates the given text, points, scorers and tileIds.
+         * Constructs a message with the given text.
          *
+         * @param text    the text of the message
+         * @param points  the points associated with the message (no points if the action doesn't grant any)
+         * @param scorers the players who have scored the points (no player if no points)
+         * @param tileIds the ids of the tiles involved in the message
          * @throws NullPointerException     if the text is null
          * @throws IllegalArgumentException if the points are negative
          */
-        public Message {
-            Objects.requireNonNull(text);
+        public Message(String text, int points, Set<PlayerColor> scorers, Set<Integer> tileIds) {
+            this(null, Kind.TEXT, Set.of(), 0, Map.of(), points, scorers, tileIds);
+            this.text = Objects.requireNonNull(text);
+        }
+
+        /**
+         * Constructs a message whose text will be rendered by the given text maker from the given data.
+         *
+         * @param textMaker the text maker used to render the text
+         * @param kind      the kind of the message
+         * @param players   the players the message is about
+         * @param count     the mushroom group, fish or lake count, or the points of the winners
+         * @param animals   the number of animals of each kind
+         * @param points    the points associated with the message
+         * @param scorers   the players who have scored the points
+         * @param tileIds   the ids of the tiles involved in the message
+         * @throws IllegalArgumentException if the points are negative
+         */
+        Message(TextMaker textMaker, Kind kind, Set<PlayerColor> players, int count,
+                Map<Animal.Kind, Integer> animals, int points, Set<PlayerColor> scorers, Set<Integer> tileIds) {
             Preconditions.checkArgument(points >= 0);
+            this.textMaker = textMaker;
+            this.kind = kind;
+            this.players = Set.copyOf(players);
+            this.count = count;
+            // Defensive copy, an enum map keeping the animals in the order of their kind
+            this.animals = animals.isEmpty() ? Map.of() : Collections.unmodifiableMap(new EnumMap<>(animals));
+            this.points = points;
             // Defensive copy
-            scorers = Set.copyOf(scorers);
-            tileIds = Set.copyOf(tileIds);
+            this.scorers = Set.copyOf(scorers);
+            this.tileIds = Set.copyOf(tileIds);
+        }
+
+        /**
+         * Returns the text of the message, rendering it the first time.
+         *
+         * @return the text of the message
+         */
+        public String text() {
+            // Strings are immutable, so a concurrent rendering at worst renders the same text twice
+            if (text == null)
+                text = render();
+            return text;
+        }
+
+        /**
+         * Renders the text of the message with its text maker.
+         *
+         * @return the text of the message
+         */
+        private String render() {
+            int tileCount = tileIds.size();
+            return switch (kind) {
+                case TEXT -> throw new IllegalStateException();
+                case CLOSED_FOREST_WITH_MENHIR -> textMaker.playerClosedForestWithMenhir(player());
+                case SCORED_FOREST -> textMaker.playersScoredForest(players, points, count, tileCount);
+                case SCORED_RIVER -> textMaker.playersScoredRiver(players, points, count, tileCount);
+                case SCORED_HUNTING_TRAP -> textMaker.playerScoredHuntingTrap(player(), points, animals);
+                case SCORED_LOGBOAT -> textMaker.playerScoredLogboat(player(), points, count);
+                case SCORED_MEADOW -> textMaker.playersScoredMeadow(players, points, animals);
+                case SCORED_RIVER_SYSTEM -> textMaker.playersScoredRiverSystem(players, points, count);
+                case SCORED_PIT_TRAP -> textMaker.playersScoredPitTrap(players, points, animals);
+                case SCORED_RAFT -> textMaker.playersScoredRaft(players, count, points);
+                case PLAYERS_WON -> textMaker.playersWon(players, count);
+            };
+        }
+
+        /**
+         * Returns the only player the message is about.
+         *
+         * @return the only player the message is about
+         */
+        private PlayerColor player() {
+            return players.iterator().next();
+        }
+
+        /**
+         * Returns the points associated with the message.
+         *
+         * @return the points associated with the message (no points if the action doesn't grant any)
+         */
+        public int points() {
+            return points;
+        }
+
+        /**
+         * Returns the players who have scored the points.
+         *
+         * @return the players who have scored the points (no player if no points)
+         */
+        public Set<PlayerColor> scorers() {
+            return scorers;
+        }
+
+        /**
+         * Returns the ids of the tiles involved in the message.
+         *
+         * @return the ids of the tiles involved in the message
+         */
+        public Set<Integer> tileIds() {
+            return tileIds;
+        }
+
+        /**
+         * Returns the kind of the message.
+         *
+         * @return the kind of the message
+         */
+        public Kind kind() {
+            return kind;
+        }
+
+        /**
+         * Returns the players the message is about: the scorers, the player who closed the forest or placed
+         * the hunting trap or the logboat, or the winners.
+         *
+         * @return the players the message is about
+         */
+        public Set<PlayerColor> players() {
+            return players;
+        }
+
+        /**
+         * Returns the mushroom group count of a forest, the fish count of a river or river system, the lake
+         * count of a river system, or the points of the winners, depending on the kind of the message.
+         *
+         * @return the count given by the message, or 0 if it gives none
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Returns the number of animals of each kind of the meadow the message is about.
+         *
+         * @return the number of animals of each kind, or an empty map if the message is not about a meadow
+         */
+        public Map<Animal.Kind, Integer> animals() {
+            return animals;
+        }
+
+        /**
+         * Determines whether the given object is a message equal to this one.
+         * <p>
+         * Messages are compared by their text, rendering it if needed, their points, their scorers and their
+         * tile ids, whether they were given their text or rendered it from their data.
+         *
+         * @param obj the object to compare with
+         * @return whether the given object is an equal message
+         */
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Message message
+                    && points == message.points
+                    && scorers.equals(message.scorers)
+                    && tileIds.equals(message.tileIds)
+                    && text().equals(message.text());
+        }
+
+        /**
+         * Returns the hash code of the message, computed from the same values as {@link #equals(Object)}.
+         *
+         * @return the hash code of the message
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(text(), points, scorers, tileIds);
+        }
+
+        @Override
+        public String toString() {
+            return STR."Message[text=\{text()}, points=\{points}, scorers=\{scorers}, tileIds=\{tileIds}]";
         }
 
+        /**
+         * Represents the different kinds of messages, which determine how their text is rendered.
+         */
+        public enum Kind {
+            /**
+             * A message whose text was given.
+             */
+            TEXT,
+            /**
+             * A player closed a forest containing a menhir.
+             */
+            CLOSED_FOREST_WITH_MENHIR,
+            /**
+             * The majority occupants of a closed forest scored points, given its mushroom group count.
+             */
+            SCORED_FOREST,
+            /**
+             * The majority occupants of a closed river scored points, given its fish count.
+             */
+            SCORED_RIVER,
+            /**
+             * A player scored the animals of the meadow adjacent to the hunting trap.
+             */
+            SCORED_HUNTING_TRAP,
+            /**
+             * A player scored the lakes of a river system by placing the logboat, given its lake count.
+             */
+            SCORED_LOGBOAT,
+            /**
+             * The majority occupants of a meadow scored its animals.
+             */
+            SCORED_MEADOW,
+            /**
+             * The majority occupants of a river system scored points, given its fish count.
+             */
+            SCORED_RIVER_SYSTEM,
+            /**
+             * The majority occupants of a meadow scored the animals within the reach of its pit trap.
+             */
+            SCORED_PIT_TRAP,
+            /**
+             * The majority occupants of a river system scored its raft, given its lake count.
+             */
+            SCORED_RAFT,
+            /**
+             * Players won the game, with the points given as count.
+             */
+            PLAYERS_WON
+        }
     }
 
 }
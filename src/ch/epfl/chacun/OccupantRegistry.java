@@ -0,0 +1,188 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents the occupants placed on a board, along with the number of occupants of each kind
+ * placed by each player.
+ * <p>
+ * The registry is immutable: the occupants are kept in an array sorted by zone id, which is copied
+ * when an occupant is added or removed.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class OccupantRegistry {
+
+    /**
+     * An empty registry.
+     */
+    static final OccupantRegistry EMPTY =
+            new OccupantRegistry(new Occupant[0], new int[PlayerColor.ALL.size() * Occupant.Kind.values().length]);
+
+    /**
+     * The occupants, sorted by zone id.
+     */
+    private final Occupant[] occupants;
+
+    /**
+     * The number of occupants of each kind placed by each player, indexed by {@link #counterIndex}.
+     */
+    private final int[] counts;
+
+    /**
+     * The set view of the occupants.
+     */
+    private final Set<Occupant> occupantsView;
+
+    /**
+     * Private constructor of the registry to initialize values.
+     *
+     * @param occupants the occupants, sorted by zone id
+     * @param counts    the number of occupants of each kind placed by each player
+     */
+    private OccupantRegistry(Occupant[] occupants, int[] counts) {
+        this.occupants = occupants;
+        this.counts = counts;
+        this.occupantsView = new OccupantsView();
+    }
+
+    /**
+     * Returns the index of the counter of the given player and occupant kind.
+     *
+     * @param player the player
+     * @param kind   the occupant kind
+     * @return the index of the counter of the given player and occupant kind
+     */
+    private static int counterIndex(PlayerColor player, Occupant.Kind kind) {
+        return player.ordinal() * Occupant.Kind.values().length + kind.ordinal();
+    }
+
+    /**
+     * Returns the position of the occupant of the given zone in the sorted occupants,
+     * or {@code -(insertion point) - 1} if there is none.
+     *
+     * @param zoneId the zone id
+     * @return the position of the occupant of the given zone
+     */
+    private int positionOf(int zoneId) {
+        int low = 0;
+        int high = occupants.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleZoneId = occupants[middle].zoneId();
+            if (middleZoneId < zoneId)
+                low = middle + 1;
+            else if (middleZoneId > zoneId)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -low - 1;
+    }
+
+    /**
+     * Returns an immutable view of the set of occupants, which iterates in zone id order.
+     *
+     * @return the set of occupants
+     */
+    Set<Occupant> occupants() {
+        return occupantsView;
+    }
+
+    /**
+     * Returns the index of the given occupant in the occupants sorted by zone id, or -1 if it is not registered.
+     *
+     * @param occupant the occupant
+     * @return the index of the given occupant, or -1 if it is not registered
+     */
+    int indexOf(Occupant occupant) {
+        int position = positionOf(occupant.zoneId());
+        return position >= 0 && occupants[position].equals(occupant) ? position : -1;
+    }
+
+    /**
+     * Returns the occupant of the given index in the occupants sorted by zone id, or null if there is none.
+     *
+     * @param index the index of the occupant
+     * @return the occupant of the given index, or null if the index is out of bounds
+     */
+    Occupant get(int index) {
+        return index >= 0 && index < occupants.length ? occupants[index] : null;
+    }
+
+    /**
+     * Returns the number of occupants of the given kind placed by the given player.
+     *
+     * @param player the player
+     * @param kind   the occupant kind
+     * @return the number of occupants of the given kind placed by the given player
+     */
+    int count(PlayerColor player, Occupant.Kind kind) {
+        return counts[counterIndex(player, kind)];
+    }
+
+    /**
+     * Returns the same registry, but with the given occupant placed by the given player.
+     *
+     * @param occupant the occupant to add
+     * @param player   the player who placed the occupant
+     * @return the same registry, but with the given occupant
+     * @throws IllegalArgumentException if the zone of the occupant is already occupied
+     */
+    OccupantRegistry with(Occupant occupant, PlayerColor player) {
+        int position = positionOf(occupant.zoneId());
+        Preconditions.checkArgument(position < 0);
+        int insertionPoint = -position - 1;
+        Occupant[] newOccupants = new Occupant[occupants.length + 1];
+        System.arraycopy(occupants, 0, newOccupants, 0, insertionPoint);
+        newOccupants[insertionPoint] = occupant;
+        System.arraycopy(occupants, insertionPoint, newOccupants, insertionPoint + 1,
+                occupants.length - insertionPoint);
+        int[] newCounts = counts.clone();
+        ++newCounts[counterIndex(player, occupant.kind())];
+        return new OccupantRegistry(newOccupants, newCounts);
+    }
+
+    /**
+     * Returns the same registry, but without the given occupant placed by the given player.
+     *
+     * @param occupant the occupant to remove
+     * @param player   the player who placed the occupant
+     * @return the same registry, but without the given occupant
+     * @throws IllegalArgumentException if the registry does not contain the given occupant
+     */
+    OccupantRegistry without(Occupant occupant, PlayerColor player) {
+        int position = positionOf(occupant.zoneId());
+        Preconditions.checkArgument(position >= 0 && occupants[position].equals(occupant));
+        Occupant[] newOccupants = new Occupant[occupants.length - 1];
+        System.arraycopy(occupants, 0, newOccupants, 0, position);
+        System.arraycopy(occupants, position + 1, newOccupants, position, occupants.length - position - 1);
+        int[] newCounts = counts.clone();
+        --newCounts[counterIndex(player, occupant.kind())];
+        return new OccupantRegistry(newOccupants, newCounts);
+    }
+
+    /**
+     * Represents an immutable set view of the sorted occupants.
+     */
+    private final class OccupantsView extends AbstractSet<Occupant> {
+        @Override
+        public Iterator<Occupant> iterator() {
+            return Collections.unmodifiableList(Arrays.asList(occupants)).iterator();
+        }
+
+        @Override
+        public int size() {
+            return occupants.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Occupant occupant))
+                return false;
+            int position = positionOf(occupant.zoneId());
+            return position >= 0 && occupants[position].equals(occupant);
+        }
+    }
+}
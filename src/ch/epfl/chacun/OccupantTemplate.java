@@ -0,0 +1,219 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents the potential occupants of a tile, i.e. the occupants the game rules allow on each of its zones,
+ * whatever the state of the board.
+ * <p>
+ * The template of each tile of the catalog is computed once, when the class is loaded. The occupants are
+ * sorted by kind then by zone id, and a subset of them is described by a bitmask over their positions, so
+ * that the occupants which can actually be placed are selected without creating any occupant.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class OccupantTemplate {
+
+    /**
+     * The template of each tile of the catalog, indexed by tile id.
+     */
+    private static final OccupantTemplate[] CATALOG_TEMPLATES = Tiles.TILES.stream()
+            .map(OccupantTemplate::compute)
+            .toArray(OccupantTemplate[]::new);
+
+    /**
+     * The template of the tiles which cannot be occupied.
+     */
+    static final OccupantTemplate EMPTY = new OccupantTemplate(new Occupant[0], new Zone[0]);
+
+    /**
+     * The potential occupants, sorted by kind then by zone id.
+     */
+    private final Occupant[] occupants;
+
+    /**
+     * The zone of each potential occupant.
+     */
+    private final Zone[] zones;
+
+    /**
+     * The bitmask of the potential occupants of each kind, indexed by the ordinal of the kind.
+     */
+    private final int[] kindMasks = new int[Occupant.Kind.values().length];
+
+    /**
+     * The set of all the potential occupants.
+     */
+    private final Set<Occupant> all;
+
+    /**
+     * Private constructor of the template to initialize values.
+     *
+     * @param occupants the potential occupants, sorted by kind then by zone id
+     * @param zones     the zone of each potential occupant
+     */
+    private OccupantTemplate(Occupant[] occupants, Zone[] zones) {
+        this.occupants = occupants;
+        this.zones = zones;
+        for (int i = 0; i < occupants.length; ++i)
+            kindMasks[occupants[i].kind().ordinal()] |= 1 << i;
+        this.all = new Selection(fullMask());
+    }
+
+    /**
+     * Computes the template of the given tile.
+     *
+     * @param tile the tile
+     * @return the template of the given tile
+     */
+    private static OccupantTemplate compute(Tile tile) {
+        List<Zone> zones = tile.zones().stream().sorted(Comparator.comparingInt(Zone::id)).toList();
+        List<Occupant> occupants = new ArrayList<>();
+        List<Zone> occupantZones = new ArrayList<>();
+        // A pawn can only be placed on a meadow, a forest or a river
+        for (Zone zone : zones) {
+            if (!(zone instanceof Zone.Lake)) {
+                occupants.add(new Occupant(Occupant.Kind.PAWN, zone.id()));
+                occupantZones.add(zone);
+            }
+        }
+        // A hut can only be placed on a lake or on a river if there's no lake
+        for (Zone zone : zones) {
+            if (zone instanceof Zone.Lake || (zone instanceof Zone.River river && !river.hasLake())) {
+                occupants.add(new Occupant(Occupant.Kind.HUT, zone.id()));
+                occupantZones.add(zone);
+            }
+        }
+        return new OccupantTemplate(occupants.toArray(Occupant[]::new), occupantZones.toArray(Zone[]::new));
+    }
+
+    /**
+     * Returns the template of the given tile.
+     * <p>
+     * The template of the tiles of the catalog is precomputed, the one of any other tile is computed.
+     *
+     * @param tile the tile
+     * @return the template of the given tile
+     */
+    static OccupantTemplate of(Tile tile) {
+        int id = tile.id();
+        if (id >= 0 && id < CATALOG_TEMPLATES.length && Tiles.TILES.get(id) == tile)
+            return CATALOG_TEMPLATES[id];
+        return compute(tile);
+    }
+
+    /**
+     * Returns the number of potential occupants.
+     *
+     * @return the number of potential occupants
+     */
+    int size() {
+        return occupants.length;
+    }
+
+    /**
+     * Returns the potential occupant at the given position.
+     *
+     * @param index the position of the occupant
+     * @return the potential occupant at the given position
+     */
+    Occupant occupant(int index) {
+        return occupants[index];
+    }
+
+    /**
+     * Returns the zone of the potential occupant at the given position.
+     *
+     * @param index the position of the occupant
+     * @return the zone of the potential occupant at the given position
+     */
+    Zone zone(int index) {
+        return zones[index];
+    }
+
+    /**
+     * Returns the bitmask of all the potential occupants.
+     *
+     * @return the bitmask of all the potential occupants
+     */
+    int fullMask() {
+        return (1 << occupants.length) - 1;
+    }
+
+    /**
+     * Returns the bitmask of the potential occupants of the given kind.
+     *
+     * @param kind the kind of the occupants
+     * @return the bitmask of the potential occupants of the given kind
+     */
+    int kindMask(Occupant.Kind kind) {
+        return kindMasks[kind.ordinal()];
+    }
+
+    /**
+     * Returns the unmodifiable set of the potential occupants selected by the given bitmask, which is a view
+     * of the template.
+     *
+     * @param mask the bitmask of the selected occupants
+     * @return the set of the selected occupants
+     */
+    Set<Occupant> occupants(int mask) {
+        return mask == fullMask() ? all : new Selection(mask);
+    }
+
+    /**
+     * Represents the unmodifiable set of the potential occupants selected by a bitmask.
+     */
+    private final class Selection extends AbstractSet<Occupant> {
+
+        /**
+         * The bitmask of the selected occupants.
+         */
+        private final int mask;
+
+        /**
+         * Constructs a new selection of the occupants of the given bitmask.
+         *
+         * @param mask the bitmask of the selected occupants
+         */
+        private Selection(int mask) {
+            this.mask = mask;
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(mask);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                if (occupants[Integer.numberOfTrailingZeros(remaining)].equals(o))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<Occupant> iterator() {
+            return new Iterator<>() {
+                private int remaining = mask;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining != 0;
+                }
+
+                @Override
+                public Occupant next() {
+                    if (remaining == 0)
+                        throw new NoSuchElementException();
+                    Occupant occupant = occupants[Integer.numberOfTrailingZeros(remaining)];
+                    remaining &= remaining - 1;
+                    return occupant;
+                }
+            };
+        }
+    }
+}
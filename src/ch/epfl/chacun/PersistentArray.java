@@ -0,0 +1,209 @@
+package ch.epfl.chacun;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Represents an immutable array of references which shares its storage with the arrays it was derived from.
+ * <p>
+ * The elements are stored in fixed size chunks, and a modification only copies the chunks it touches.
+ * Two successive versions of the array therefore share every chunk that has not been modified in between.
+ * Missing elements are {@code null}, and the array grows automatically when an element is set
+ * beyond its current capacity.
+ *
+ * @param <E> the type of the elements
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class PersistentArray<E> {
+
+    /**
+     * The number of bits used to index an element inside a chunk.
+     */
+    private static final int CHUNK_BITS = 5;
+
+    /**
+     * The number of elements of a chunk.
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /**
+     * The mask to apply to an index to get the index of the element inside its chunk.
+     */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * An empty array.
+     */
+    private static final PersistentArray<?> EMPTY = new PersistentArray<>(new Object[0][]);
+
+    /**
+     * The chunks of the array, a null chunk contains only null elements.
+     */
+    private final Object[][] chunks;
+
+    /**
+     * Private constructor of the array to initialize the chunks.
+     *
+     * @param chunks the chunks of the array
+     */
+    private PersistentArray(Object[][] chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Returns an empty array.
+     *
+     * @param <E> the type of the elements
+     * @return an empty array
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentArray<E> empty() {
+        return (PersistentArray<E>) EMPTY;
+    }
+
+    /**
+     * Returns the element at the given index, or null if there is none.
+     *
+     * @param index the index of the element
+     * @return the element at the given index, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        int chunkIndex = index >>> CHUNK_BITS;
+        if (chunkIndex >= chunks.length || chunks[chunkIndex] == null)
+            return null;
+        return (E) chunks[chunkIndex][index & CHUNK_MASK];
+    }
+
+    /**
+     * Applies the given action to each non-null element of the array, in index order.
+     *
+     * @param action the action to apply
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(Consumer<? super E> action) {
+        for (Object[] chunk : chunks) {
+            if (chunk == null)
+                continue;
+            for (Object element : chunk) {
+                if (element != null)
+                    action.accept((E) element);
+            }
+        }
+    }
+
+    /**
+     * Returns the same array, but with the given element at the given index.
+     *
+     * @param index   the index of the element
+     * @param element the element to set
+     * @return the same array, but with the given element at the given index
+     */
+    PersistentArray<E> with(int index, E element) {
+        Builder<E> builder = new Builder<>(this);
+        builder.set(index, element);
+        return builder.build();
+    }
+
+    /**
+     * Represents the builder of a persistent array.
+     * <p>
+     * The builder copies a chunk of the initial array the first time one of its elements is modified,
+     * and then modifies this copy in place. As long as no element is modified, nothing is copied and
+     * the initial array is returned by {@link #build()}.
+     *
+     * @param <E> the type of the elements
+     * @author Maxence Espagnet (sciper: 372808)
+     * @author Balthazar Baillat (sciper: 373420)
+     */
+    static final class Builder<E> {
+
+        /**
+         * The chunks of the array under construction.
+         */
+        private Object[][] chunks;
+
+        /**
+         * Whether each chunk has already been copied by the builder, and can therefore be modified in place.
+         */
+        private boolean[] ownedChunks;
+
+        /**
+         * The array whose chunks are those of the builder, or null if an element has been modified since
+         * it was built.
+         */
+        private PersistentArray<E> built;
+
+        /**
+         * Initialises the builder with the chunks of the given array, which are only copied once modified.
+         *
+         * @param initial the initial array
+         */
+        Builder(PersistentArray<E> initial) {
+            this.chunks = initial.chunks;
+            this.built = initial;
+        }
+
+        /**
+         * Returns the element at the given index, or null if there is none.
+         *
+         * @param index the index of the element
+         * @return the element at the given index, or null if there is none
+         */
+        @SuppressWarnings("unchecked")
+        E get(int index) {
+            int chunkIndex = index >>> CHUNK_BITS;
+            if (chunkIndex >= chunks.length || chunks[chunkIndex] == null)
+                return null;
+            return (E) chunks[chunkIndex][index & CHUNK_MASK];
+        }
+
+        /**
+         * Sets the element at the given index.
+         *
+         * @param index   the index of the element
+         * @param element the element to set
+         * @throws IllegalArgumentException if the index is negative
+         */
+        void set(int index, E element) {
+            Preconditions.checkArgument(index >= 0);
+            if (get(index) == element)
+                return;
+            // The chunks of the last built array must not be modified
+            if (built != null) {
+                chunks = chunks.clone();
+                ownedChunks = new boolean[chunks.length];
+                built = null;
+            }
+            int chunkIndex = index >>> CHUNK_BITS;
+            // Grow the array if needed
+            if (chunkIndex >= chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkIndex + 1);
+                ownedChunks = Arrays.copyOf(ownedChunks, chunkIndex + 1);
+            }
+            // Copy the chunk the first time it is modified
+            if (!ownedChunks[chunkIndex]) {
+                Object[] chunk = chunks[chunkIndex];
+                chunks[chunkIndex] = chunk == null ? new Object[CHUNK_SIZE] : chunk.clone();
+                ownedChunks[chunkIndex] = true;
+            }
+            chunks[chunkIndex][index & CHUNK_MASK] = element;
+        }
+
+        /**
+         * Builds the array under construction.
+         * <p>
+         * The builder can still be used afterwards, without modifying the built array. If no element has been
+         * modified since the last call, or since the creation of the builder, the same array is returned.
+         *
+         * @return the array under construction
+         */
+        PersistentArray<E> build() {
+            // The chunks now belong to the built array
+            if (built == null)
+                built = new PersistentArray<>(chunks);
+            return built;
+        }
+    }
+}
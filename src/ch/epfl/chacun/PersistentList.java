@@ -0,0 +1,186 @@
+package ch.epfl.chacun;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Represents an immutable list to which elements can only be appended, and which shares its storage with the
+ * lists it was derived from.
+ * <p>
+ * The elements are stored in full chunks of 32 elements, which are the leaves of a trie whose nodes have 32
+ * children, followed by a tail containing the last elements. Appending k elements to a list of n elements
+ * copies the tail, of at most 32 elements, and adds each chunk they fill to the trie by copying the
+ * log<sub>32</sub>(n) nodes of the path leading to it, so it takes O(k + 32 + k/32 log<sub>32</sub>(n)) time.
+ * Two successive versions of the list share all the other nodes and chunks. The list cannot be modified through
+ * the {@link List} interface, and does not accept null elements.
+ *
+ * @param <E> the type of the elements
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * The number of bits used to index a child inside a node of the trie, or an element inside a chunk.
+     */
+    private static final int CHUNK_BITS = 5;
+
+    /**
+     * The number of children of a node of the trie, and of elements of a chunk.
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /**
+     * The mask to apply to an index to get the index of the child inside its node, or of the element inside
+     * its chunk.
+     */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * An empty list.
+     */
+    private static final PersistentList<?> EMPTY =
+            new PersistentList<>(0, CHUNK_BITS, new Object[CHUNK_SIZE], new Object[0]);
+
+    /**
+     * The number of elements of the list.
+     */
+    private final int size;
+
+    /**
+     * The number of bits to shift an index to get the index of the child of the root containing it.
+     */
+    private final int shift;
+
+    /**
+     * The root of the trie of the full chunks, whose missing children are null.
+     */
+    private final Object[] root;
+
+    /**
+     * The last elements of the list, which do not fill a chunk yet.
+     */
+    private final Object[] tail;
+
+    /**
+     * Private constructor of the list to initialize values.
+     *
+     * @param size  the number of elements of the list
+     * @param shift the number of bits to shift an index to get the index of the child of the root
+     * @param root  the root of the trie of the full chunks
+     * @param tail  the last elements of the list
+     */
+    private PersistentList(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Returns an empty list.
+     *
+     * @param <E> the type of the elements
+     * @return an empty list
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Returns the same list, but with the given elements appended, in the given order.
+     *
+     * @param newElements the elements to append
+     * @return the same list, but with the given elements appended, or this list if there are none
+     * @throws NullPointerException if one of the given elements is null
+     */
+    PersistentList<E> withAll(List<? extends E> newElements) {
+        if (newElements.isEmpty())
+            return this;
+        int newSize = size;
+        int newShift = shift;
+        Object[] newRoot = root;
+        // The tail is copied once, and every chunk it fills is moved to the trie
+        Object[] newTail = Arrays.copyOf(tail, CHUNK_SIZE);
+        int tailSize = tail.length;
+        for (E element : newElements) {
+            if (tailSize == CHUNK_SIZE) {
+                // The root is full when it already holds as many chunks as the trie can index
+                if (newSize >>> CHUNK_BITS > 1 << newShift) {
+                    Object[] grownRoot = new Object[CHUNK_SIZE];
+                    grownRoot[0] = newRoot;
+                    grownRoot[1] = pathTo(newShift, newTail);
+                    newRoot = grownRoot;
+                    newShift += CHUNK_BITS;
+                } else {
+                    newRoot = withChunk(newRoot, newShift, newSize - 1, newTail);
+                }
+                newTail = new Object[CHUNK_SIZE];
+                tailSize = 0;
+            }
+            newTail[tailSize++] = Objects.requireNonNull(element);
+            ++newSize;
+        }
+        return new PersistentList<>(newSize, newShift, newRoot, Arrays.copyOf(newTail, tailSize));
+    }
+
+    /**
+     * Returns a copy of the given node of the trie, to which the given chunk, whose last element has the given
+     * index, has been added.
+     *
+     * @param node  the node
+     * @param shift the number of bits to shift an index to get the index of the child of the node containing it
+     * @param index the index of the last element of the chunk
+     * @param chunk the chunk to add
+     * @return the updated copy of the node
+     */
+    private static Object[] withChunk(Object[] node, int shift, int index, Object[] chunk) {
+        Object[] newNode = node.clone();
+        int childIndex = index >>> shift & CHUNK_MASK;
+        Object[] child = (Object[]) node[childIndex];
+        if (shift == CHUNK_BITS)
+            newNode[childIndex] = chunk;
+        else if (child == null)
+            newNode[childIndex] = pathTo(shift - CHUNK_BITS, chunk);
+        else
+            newNode[childIndex] = withChunk(child, shift - CHUNK_BITS, index, chunk);
+        return newNode;
+    }
+
+    /**
+     * Returns a new branch of the trie, whose only chunk is the given one.
+     *
+     * @param shift the number of bits to shift an index to get the index of the child of the branch
+     * @param chunk the chunk
+     * @return the new branch of the trie, or the chunk itself if the shift is zero
+     */
+    private static Object[] pathTo(int shift, Object[] chunk) {
+        if (shift == 0)
+            return chunk;
+        Object[] node = new Object[CHUNK_SIZE];
+        node[0] = pathTo(shift - CHUNK_BITS, chunk);
+        return node;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        int tailOffset = size - tail.length;
+        if (index >= tailOffset)
+            return (E) tail[index - tailOffset];
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= CHUNK_BITS)
+            node = (Object[]) node[index >>> level & CHUNK_MASK];
+        return (E) node[index & CHUNK_MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
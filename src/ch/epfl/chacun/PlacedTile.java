@@ -146,24 +146,18 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
 
     /**
      * Returns each potential occupant of each zone of the tile based on the game rules.
+     * <p>
+     * The returned set is immutable and shared by all the placed tiles of the same tile: trying to modify it
+     * throws an {@link UnsupportedOperationException}, so callers needing a modifiable set must copy it.
      *
-     * @return each potential occupant of each zone of the tile
+     * @return the immutable set of each potential occupant of each zone of the tile
      */
     public Set<Occupant> potentialOccupants() {
-        // Calculate all the potential occupants
-        Set<Occupant> potentialOccupants = new HashSet<>();
         // The origin tile cannot be occupied
-        if (placer != null) {
-            for (Zone zone : tile.zones()) {
-                // A pawn can only be placed on a meadow, a forest or a river
-                if (!(zone instanceof Zone.Lake))
-                    potentialOccupants.add(new Occupant(Occupant.Kind.PAWN, zone.id()));
-                // A hut can only be placed on a lake or on a river if there's no lake
-                if (zone instanceof Zone.Lake || (zone instanceof Zone.River river && !river.hasLake()))
-                    potentialOccupants.add(new Occupant(Occupant.Kind.HUT, zone.id()));
-            }
-        }
-        return potentialOccupants;
+        if (placer == null)
+            return Set.of();
+        OccupantTemplate template = OccupantTemplate.of(tile);
+        return template.occupants(template.fullMask());
     }
 
     /**
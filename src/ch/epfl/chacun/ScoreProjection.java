@@ -0,0 +1,171 @@
+package ch.epfl.chacun;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Helper class computing the points the open meadows and river systems of a board would yield to each player
+ * if the game ended now, as they would be attributed by the final scoring.
+ * <p>
+ * The points of an area only depend on its aggregated animal, fish and lake counts, which each area maintains
+ * incrementally as it is merged with others, on its occupants and on the cancelled animals. The projection is
+ * the sum of the points of each area, so a board updates it by subtracting the points of the areas an action
+ * replaces and adding those of the areas replacing them. Only the zones of the meadows containing a pit trap or
+ * cancelled animals are visited.
+ * When some deer of a meadow were cancelled before the end of the game, the final scoring does not specify
+ * which deer the tigers eat, and the projection assumes that they eat the cancelled ones first.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class ScoreProjection {
+
+    /**
+     * The number of kinds of animals.
+     */
+    private static final int KIND_COUNT = Animal.Kind.values().length;
+
+    /**
+     * The group of the animals out of the reach of the pit trap, or of all the animals if there is none.
+     */
+    private static final int OUT_OF_REACH = 0;
+
+    /**
+     * The group of the animals within the reach of the pit trap.
+     */
+    private static final int WITHIN_REACH = 1;
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private ScoreProjection() {
+    }
+
+    /**
+     * Returns the points the given open meadows and river systems would yield to each player if the game ended
+     * now, indexed by the ordinal of the players.
+     *
+     * @param zonePartitions   the zone partitions of the board
+     * @param cancelledAnimals the animals cancelled so far
+     * @param tilePositions    the function giving the position of the tile with a given id
+     * @return the projected points of each player
+     */
+    static int[] of(ZonePartitions zonePartitions, Set<Animal> cancelledAnimals, IntFunction<Pos> tilePositions) {
+        int[] points = new int[PlayerColor.ALL.size()];
+        for (Area<Zone.Meadow> meadow : zonePartitions.meadows().areas())
+            addMeadowPoints(points, 1, meadow, cancelledAnimals, tilePositions);
+        for (Area<Zone.Water> riverSystem : zonePartitions.riverSystems().areas())
+            addRiverSystemPoints(points, 1, riverSystem);
+        return points;
+    }
+
+    /**
+     * Adds to the given points, multiplied by the given sign, those the given meadow, and its pit trap if any,
+     * would yield to its majority occupants.
+     *
+     * @param points           the points of each player
+     * @param sign             1 to add the points of the meadow, -1 to subtract them
+     * @param meadow           the meadow
+     * @param cancelledAnimals the animals cancelled so far
+     * @param tilePositions    the function giving the position of the tile with a given id
+     */
+    static void addMeadowPoints(int[] points, int sign, Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals,
+                                IntFunction<Pos> tilePositions) {
+        if (!meadow.isOccupied())
+            return;
+        boolean containsWildFire = meadow.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null;
+        Zone.Meadow zoneWithPitTrap = (Zone.Meadow) meadow.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
+        int tigerCount = containsWildFire ? 0 : Area.animalCount(meadow, Set.of(), Animal.Kind.TIGER);
+        // Without pit trap nor cancelled animals, the aggregated counts are enough
+        if (zoneWithPitTrap == null && cancelledAnimals.isEmpty()) {
+            int deerCount = Area.animalCount(meadow, Set.of(), Animal.Kind.DEER);
+            award(points, meadow.occupants(), sign * Points.forMeadow(
+                    Area.animalCount(meadow, Set.of(), Animal.Kind.MAMMOTH),
+                    Area.animalCount(meadow, Set.of(), Animal.Kind.AUROCHS),
+                    deerCount - Math.min(tigerCount, deerCount)));
+            return;
+        }
+
+        // Count the animals which are not cancelled and the cancelled deer of each group
+        Pos pitTrapPos = zoneWithPitTrap != null ? tilePositions.apply(zoneWithPitTrap.tileId()) : null;
+        int[] counts = new int[2 * KIND_COUNT];
+        int[] cancelledDeerCounts = new int[2];
+        for (Zone.Meadow zone : meadow.zones()) {
+            int group = pitTrapPos != null && isAdjacent(tilePositions.apply(zone.tileId()), pitTrapPos)
+                    ? WITHIN_REACH : OUT_OF_REACH;
+            for (Animal animal : zone.animals()) {
+                if (!cancelledAnimals.contains(animal))
+                    ++counts[group * KIND_COUNT + animal.kind().ordinal()];
+                else if (animal.kind() == Animal.Kind.DEER)
+                    ++cancelledDeerCounts[group];
+            }
+        }
+        // The deer which are out of the pit trap reach are eaten in priority
+        int[] deerCounts = new int[2];
+        for (int group = OUT_OF_REACH; group <= WITHIN_REACH; ++group) {
+            int deerCount = counts[group * KIND_COUNT + Animal.Kind.DEER.ordinal()];
+            int eatenCount = Math.min(tigerCount, deerCount + cancelledDeerCounts[group]);
+            tigerCount = Math.max(0, tigerCount - deerCount - cancelledDeerCounts[group]);
+            deerCounts[group] = deerCount - Math.max(0, eatenCount - cancelledDeerCounts[group]);
+        }
+
+        award(points, meadow.occupants(), sign * Points.forMeadow(
+                counts[Animal.Kind.MAMMOTH.ordinal()] + counts[KIND_COUNT + Animal.Kind.MAMMOTH.ordinal()],
+                counts[Animal.Kind.AUROCHS.ordinal()] + counts[KIND_COUNT + Animal.Kind.AUROCHS.ordinal()],
+                deerCounts[OUT_OF_REACH] + deerCounts[WITHIN_REACH]));
+        if (zoneWithPitTrap != null) {
+            award(points, meadow.occupants(), sign * Points.forMeadow(
+                    counts[KIND_COUNT + Animal.Kind.MAMMOTH.ordinal()],
+                    counts[KIND_COUNT + Animal.Kind.AUROCHS.ordinal()],
+                    deerCounts[WITHIN_REACH]));
+        }
+    }
+
+    /**
+     * Adds to the given points, multiplied by the given sign, those the given river system, and its raft if
+     * any, would yield to its majority occupants.
+     *
+     * @param points      the points of each player
+     * @param sign        1 to add the points of the river system, -1 to subtract them
+     * @param riverSystem the river system
+     */
+    static void addRiverSystemPoints(int[] points, int sign, Area<Zone.Water> riverSystem) {
+        if (!riverSystem.isOccupied())
+            return;
+        if (riverSystem.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null)
+            award(points, riverSystem.occupants(), sign * Points.forRaft(Area.lakeCount(riverSystem)));
+        award(points, riverSystem.occupants(), sign * Points.forRiverSystem(Area.riverSystemFishCount(riverSystem)));
+    }
+
+    /**
+     * Determines whether the tiles at the given positions are adjacent, diagonally included, or the same.
+     *
+     * @param pos      the position of the first tile
+     * @param otherPos the position of the second tile
+     * @return whether the tiles at the given positions are adjacent
+     */
+    private static boolean isAdjacent(Pos pos, Pos otherPos) {
+        return Math.abs(pos.x() - otherPos.x()) <= 1 && Math.abs(pos.y() - otherPos.y()) <= 1;
+    }
+
+    /**
+     * Adds the given points to each majority occupant among the given occupants.
+     *
+     * @param points    the points of each player
+     * @param occupants the occupants of an area
+     * @param scored    the points to add
+     */
+    private static void award(int[] points, List<PlayerColor> occupants, int scored) {
+        if (scored == 0)
+            return;
+        int[] occupantCounts = new int[PlayerColor.ALL.size()];
+        int max = 0;
+        for (PlayerColor occupant : occupants)
+            max = Math.max(max, ++occupantCounts[occupant.ordinal()]);
+        for (int i = 0; i < occupantCounts.length; ++i) {
+            if (occupantCounts[i] == max)
+                points[i] += scored;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ch.epfl.chacun;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Represents an immutable deck of tiles, as an unmodifiable list view of the tiles which have not been drawn yet.
+ * <p>
+ * The tiles are stored in an array shared by all the decks derived from the same deck, possibly with other
+ * decks, and a deck only knows the range of its tiles in this array. Drawing tiles therefore takes constant
+ * time per tile and copies nothing.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class TileDeck extends AbstractList<Tile> implements RandomAccess {
+
+    /**
+     * The array containing the tiles of the deck, including those which have been drawn, never modified.
+     */
+    private final Tile[] tiles;
+
+    /**
+     * The index of the top tile of the deck in the tiles array.
+     */
+    private final int top;
+
+    /**
+     * The index following the bottom tile of the deck in the tiles array.
+     */
+    private final int end;
+
+    /**
+     * Private constructor of the deck to initialize values.
+     *
+     * @param tiles the array containing the tiles of the deck, including those which have been drawn
+     * @param top   the index of the top tile
+     * @param end   the index following the bottom tile
+     */
+    private TileDeck(Tile[] tiles, int top, int end) {
+        this.tiles = tiles;
+        this.top = top;
+        this.end = end;
+    }
+
+    /**
+     * Returns a deck containing the given tiles, in the given order, the first one being at the top.
+     * <p>
+     * If the given list is already a deck, it is returned as is, as it is immutable.
+     *
+     * @param tiles the tiles of the deck
+     * @return a deck containing the given tiles
+     * @throws NullPointerException if the list or one of its tiles is null
+     */
+    static TileDeck copyOf(List<Tile> tiles) {
+        if (tiles instanceof TileDeck deck)
+            return deck;
+        Tile[] array = tiles.toArray(new Tile[0]);
+        for (Tile tile : array)
+            Objects.requireNonNull(tile);
+        return new TileDeck(array, 0, array.length);
+    }
+
+    /**
+     * Returns a deck containing the tiles of the given array between the given indices, without copying them.
+     * <p>
+     * The array is shared with the deck, and must not be modified afterwards.
+     *
+     * @param tiles the array containing the tiles of the deck
+     * @param from  the index of the top tile, inclusive
+     * @param to    the index following the bottom tile, exclusive
+     * @return a deck containing the tiles of the given array between the given indices
+     * @throws IndexOutOfBoundsException if the indices are out of the bounds of the array
+     */
+    static TileDeck of(Tile[] tiles, int from, int to) {
+        Objects.checkFromToIndex(from, to, tiles.length);
+        return new TileDeck(tiles, from, to);
+    }
+
+    /**
+     * Returns the tile at the top of the deck, or null if the deck is empty.
+     *
+     * @return the tile at the top of the deck, or null if the deck is empty
+     */
+    Tile topTile() {
+        return top < end ? tiles[top] : null;
+    }
+
+    /**
+     * Returns the same deck, but without its top tile.
+     *
+     * @return the same deck, but without its top tile
+     * @throws IllegalArgumentException if the deck is empty
+     */
+    TileDeck withTopTileDrawn() {
+        Preconditions.checkArgument(top < end);
+        return new TileDeck(tiles, top + 1, end);
+    }
+
+    /**
+     * Returns the same deck, but without the tiles at its top which do not satisfy the given predicate.
+     *
+     * @param predicate the predicate the top tile must satisfy
+     * @return the same deck, but whose top tile satisfies the given predicate, or the empty deck
+     */
+    TileDeck withTopTileDrawnUntil(Predicate<Tile> predicate) {
+        int newTop = top;
+        while (newTop < end && !predicate.test(tiles[newTop]))
+            ++newTop;
+        return newTop == top ? this : new TileDeck(tiles, newTop, end);
+    }
+
+    @Override
+    public Tile get(int index) {
+        return tiles[top + Objects.checkIndex(index, size())];
+    }
+
+    @Override
+    public int size() {
+        return end - top;
+    }
+}
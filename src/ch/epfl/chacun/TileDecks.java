@@ -15,16 +15,17 @@ import java.util.function.Predicate;
  */
 public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile> menhirTiles) {
     /**
-     * Makes a defensive copy of the tile lists.
+     * Makes a defensive copy of the tile lists, unless they are already decks derived from other decks,
+     * which are immutable and shared.
      *
      * @param startTiles  the deck containing the start tiles
      * @param normalTiles the deck containing the normal tiles
      * @param menhirTiles the deck containing the menhir tiles
      */
     public TileDecks {
-        startTiles = List.copyOf(startTiles);
-        normalTiles = List.copyOf(normalTiles);
-        menhirTiles = List.copyOf(menhirTiles);
+        startTiles = TileDeck.copyOf(startTiles);
+        normalTiles = TileDeck.copyOf(normalTiles);
+        menhirTiles = TileDeck.copyOf(menhirTiles);
     }
 
     /**
@@ -35,6 +36,21 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
         this(tilesByKind.get(Tile.Kind.START), tilesByKind.get(Tile.Kind.NORMAL), tilesByKind.get(Tile.Kind.MENHIR));
     }
 
+    /**
+     * Returns the deck containing tiles of the given kind.
+     *
+     * @param kind the kind of tile
+     * @return the deck containing tiles of the given kind
+     */
+    private TileDeck deck(Tile.Kind kind) {
+        // The compact constructor ensures that the decks are instances of TileDeck
+        return (TileDeck) switch (kind) {
+            case START -> startTiles;
+            case NORMAL -> normalTiles;
+            case MENHIR -> menhirTiles;
+        };
+    }
+
     /**
      * Returns the size of the deck containing tiles of a given kind.
      *
@@ -42,11 +58,7 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
      * @return the size of the deck o a given kind
      */
     public int deckSize(Tile.Kind kind) {
-        return switch (kind) {
-            case START -> startTiles.size();
-            case NORMAL -> normalTiles.size();
-            case MENHIR -> menhirTiles.size();
-        };
+        return deck(kind).size();
     }
 
     /**
@@ -58,11 +70,7 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
      * or null if the deck is empty
      */
     public Tile topTile(Tile.Kind kind) {
-        return deckSize(kind) <= 0 ? null : switch (kind) {
-            case START -> startTiles.getFirst();
-            case NORMAL -> normalTiles.getFirst();
-            case MENHIR -> menhirTiles.getFirst();
-        };
+        return deck(kind).topTile();
     }
 
     /**
@@ -75,52 +83,35 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
      * @throws IllegalArgumentException if the receiver deck of the given tile kind is empty
      */
     public TileDecks withTopTileDrawn(Tile.Kind kind) {
-        Preconditions.checkArgument(deckSize(kind) > 0);
-        return switch (kind) {
-            case START -> new TileDecks(removeDeckFirstTile(startTiles), normalTiles, menhirTiles);
-            case NORMAL -> new TileDecks(startTiles, removeDeckFirstTile(normalTiles), menhirTiles);
-            case MENHIR -> new TileDecks(startTiles, normalTiles, removeDeckFirstTile(menhirTiles));
-        };
+        return withDeck(kind, deck(kind).withTopTileDrawn());
     }
 
     /**
-     * Returns a new triplet of decks after testing on the receiver deck containing the given tile kind a
-     * given predicate using the {@code testPredicateOnDeck} function.
+     * Returns a new triplet of decks after removing from the receiver deck containing the given tile kind
+     * the top tiles which do not satisfy the given predicate.
      *
      * @param kind      the kind of tile
      * @param predicate the predicate to test
      * @return a new triplet of decks after testing a given predicate on the receiver triplet
      */
     public TileDecks withTopTileDrawnUntil(Tile.Kind kind, Predicate<Tile> predicate) {
-        return switch (kind) {
-            case START -> new TileDecks(filterDeck(startTiles, predicate), normalTiles, menhirTiles);
-            case NORMAL -> new TileDecks(startTiles, filterDeck(normalTiles, predicate), menhirTiles);
-            case MENHIR -> new TileDecks(startTiles, normalTiles, filterDeck(menhirTiles, predicate));
-        };
+        TileDeck deck = deck(kind);
+        TileDeck drawnDeck = deck.withTopTileDrawnUntil(predicate);
+        return drawnDeck == deck ? this : withDeck(kind, drawnDeck);
     }
 
     /**
-     * Modify a deck of tiles by removing the tiles that does not respect a given predicate.
+     * Returns the same triplet of decks, but with the given deck of tiles of the given kind.
      *
-     * @param deck      the deck of tiles
-     * @param predicate the predicate to check
-     * @return a new deck of tiles after removing the tiles that does not respect the given predicate
-     */
-    private List<Tile> filterDeck(List<Tile> deck, Predicate<Tile> predicate) {
-        List<Tile> filteredDeck = deck;
-        while (!filteredDeck.isEmpty() && !predicate.test(filteredDeck.getFirst())) {
-            filteredDeck = removeDeckFirstTile(filteredDeck);
-        }
-        return filteredDeck;
-    }
-
-    /**
-     * Removes the first tile from a given deck of tiles.
-     *
-     * @param deck the deck of tiles
-     * @return a new deck that excludes the first tile from the original deck
+     * @param kind the kind of tile
+     * @param deck the new deck of tiles of the given kind
+     * @return the same triplet of decks, but with the given deck
      */
-    private List<Tile> removeDeckFirstTile(List<Tile> deck) {
-        return deck.subList(1, deck.size());
+    private TileDecks withDeck(Tile.Kind kind, TileDeck deck) {
+        return switch (kind) {
+            case START -> new TileDecks(deck, normalTiles, menhirTiles);
+            case NORMAL -> new TileDecks(startTiles, deck, menhirTiles);
+            case MENHIR -> new TileDecks(startTiles, normalTiles, deck);
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package ch.epfl.chacun;
+
+/**
+ * Helper class giving the 64-bit Zobrist keys of the elements of a board.
+ * <p>
+ * The position key of a board is the exclusive or of the keys of its placed tiles, of their occupants and of
+ * its cancelled animals, so that it can be updated in constant time when one of them is added or removed.
+ * The keys are obtained by mixing the packed description of each element, which makes them stable from one
+ * execution to another without storing any table.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class ZobristKeys {
+
+    /**
+     * The tag of the keys of the placed tiles.
+     */
+    private static final long TILE_TAG = 1L << 60;
+
+    /**
+     * The tag of the keys of the occupants.
+     */
+    private static final long OCCUPANT_TAG = 2L << 60;
+
+    /**
+     * The tag of the keys of the cancelled animals.
+     */
+    private static final long ANIMAL_TAG = 3L << 60;
+
+    /**
+     * The tag of the keys of the turns.
+     */
+    private static final long TURN_TAG = 4L << 60;
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private ZobristKeys() {
+    }
+
+    /**
+     * Mixes the bits of the given value with the finalizer of the SplitMix64 generator.
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the key of the given placed tile, without its occupant, at the given row major index.
+     *
+     * @param placedTile the placed tile
+     * @param index      the row major index of the tile
+     * @return the key of the given placed tile
+     */
+    static long tile(PlacedTile placedTile, int index) {
+        int placer = placedTile.placer() == null ? PlayerColor.ALL.size() : placedTile.placer().ordinal();
+        return mix(TILE_TAG
+                | (placedTile.id() & 0xFFFFFFFFL) << 24
+                | (long) index << 8
+                | (long) placedTile.rotation().ordinal() << 4
+                | placer);
+    }
+
+    /**
+     * Returns the key of the given occupant, or 0 if it is null.
+     *
+     * @param occupant the occupant, or null
+     * @return the key of the given occupant
+     */
+    static long occupant(Occupant occupant) {
+        if (occupant == null)
+            return 0;
+        return mix(OCCUPANT_TAG | (occupant.zoneId() & 0xFFFFFFFFL) << 4 | occupant.kind().ordinal());
+    }
+
+    /**
+     * Returns the key of the given cancelled animal.
+     *
+     * @param animal the cancelled animal
+     * @return the key of the given cancelled animal
+     */
+    static long cancelledAnimal(Animal animal) {
+        return mix(ANIMAL_TAG | (animal.id() & 0xFFFFFFFFL) << 4 | animal.kind().ordinal());
+    }
+
+    /**
+     * Returns the key of a turn, described by its current player, its next action, its tile to place and
+     * the sizes of the normal and menhir decks.
+     *
+     * @param currentPlayer the current player, or null
+     * @param nextAction    the next action
+     * @param tileToPlace   the tile to place, or null
+     * @param normalCount   the number of tiles of the normal deck
+     * @param menhirCount   the number of tiles of the menhir deck
+     * @return the key of the turn
+     */
+    static long turn(PlayerColor currentPlayer, GameState.Action nextAction, Tile tileToPlace,
+                     int normalCount, int menhirCount) {
+        int tileId = tileToPlace == null ? -1 : tileToPlace.id();
+        int player = currentPlayer == null ? PlayerColor.ALL.size() : currentPlayer.ordinal();
+        return mix(TURN_TAG
+                | (tileId & 0xFFFFL) << 32
+                | (long) normalCount << 20
+                | (long) menhirCount << 8
+                | (long) nextAction.ordinal() << 4
+                | player);
+    }
+}
@@ -1,24 +1,61 @@
 package ch.epfl.chacun;
 
-import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 /**
  * Represents a partition of zones of a given kind.
+ * <p>
+ * The partition is stored as a disjoint-set forest keyed by zone id: each zone points to a parent zone
+ * of the same area, and the root zone of each area holds the area itself. The forest is persistent,
+ * so that a partition and the one built from it share all the parts which have not been modified.
  *
- * @param areas the set of areas forming the partition
- * @param <Z>   the kind of zones of the partition
+ * @param <Z> the kind of zones of the partition
  * @author Maxence Espagnet (sciper: 372808)
  * @author Balthazar Baillat (sciper: 373420)
  */
-public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
+public final class ZonePartition<Z extends Zone> {
 
     /**
-     * Defensive copy of the set of areas.
+     * The parent zone id of each zone id of the partition, a root zone being its own parent.
      */
-    public ZonePartition {
-        areas = Set.copyOf(areas);
+    private final PersistentArray<Integer> parents;
+
+    /**
+     * The area of each root zone id of the partition.
+     */
+    private final PersistentArray<Area<Z>> roots;
+
+    /**
+     * The set of areas forming the partition, computed lazily.
+     */
+    private Set<Area<Z>> areas;
+
+    /**
+     * Constructs a partition from the given set of areas.
+     *
+     * @param areas the set of areas forming the partition
+     */
+    public ZonePartition(Set<Area<Z>> areas) {
+        // Defensive copy of the set of areas
+        this.areas = Set.copyOf(areas);
+        PersistentArray.Builder<Integer> parents = new PersistentArray.Builder<>(PersistentArray.empty());
+        PersistentArray.Builder<Area<Z>> roots = new PersistentArray.Builder<>(PersistentArray.empty());
+        for (Area<Z> area : this.areas) {
+            int rootId = -1;
+            for (Z zone : area.zones()) {
+                // The first zone of the area becomes its root
+                if (rootId == -1) {
+                    rootId = zone.id();
+                    roots.set(rootId, area);
+                }
+                parents.set(zone.id(), rootId);
+            }
+        }
+        this.parents = parents.build();
+        this.roots = roots.build();
     }
 
     /**
@@ -28,6 +65,31 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
         this(Set.of());
     }
 
+    /**
+     * Private constructor of the partition from an already built disjoint-set forest.
+     *
+     * @param parents the parent zone id of each zone id
+     * @param roots   the area of each root zone id
+     */
+    private ZonePartition(PersistentArray<Integer> parents, PersistentArray<Area<Z>> roots) {
+        this.parents = parents;
+        this.roots = roots;
+    }
+
+    /**
+     * Returns the set of areas forming the partition.
+     *
+     * @return the set of areas forming the partition
+     */
+    public Set<Area<Z>> areas() {
+        if (areas == null) {
+            Set<Area<Z>> rootAreas = new HashSet<>();
+            roots.forEach(rootAreas::add);
+            areas = Set.copyOf(rootAreas);
+        }
+        return areas;
+    }
+
     /**
      * Returns the area containing the given zone, or throws an {@link IllegalArgumentException} if the
      * given zone is not assigned to any area of the partition.
@@ -37,8 +99,46 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
      * @throws IllegalArgumentException if the given zone is not assigned to any area of the partition
      */
     public Area<Z> areaContaining(Z zone) {
-        return areas.stream().filter(a -> a.zones().contains(zone)).findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("The zone is not assigned to any area."));
+        Area<Z> area = roots.get(findRoot(parents::get, zone));
+        if (!area.zones().contains(zone))
+            throw new IllegalArgumentException("The zone is not assigned to any area.");
+        return area;
+    }
+
+    /**
+     * Returns the id of the root zone of the tree containing the given zone.
+     *
+     * @param parents the function giving the parent zone id of a zone id, or null if there is none
+     * @param zone    the zone
+     * @return the id of the root zone of the tree containing the given zone
+     * @throws IllegalArgumentException if the given zone is not assigned to any area of the partition
+     */
+    private static int findRoot(IntFunction<Integer> parents, Zone zone) {
+        int zoneId = zone.id();
+        Integer parentId = parents.apply(zoneId);
+        if (parentId == null)
+            throw new IllegalArgumentException("The zone is not assigned to any area.");
+        // Go up the tree until a root is found
+        while (parentId != zoneId) {
+            zoneId = parentId;
+            parentId = parents.apply(zoneId);
+        }
+        return zoneId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ZonePartition<?> partition && areas().equals(partition.areas());
+    }
+
+    @Override
+    public int hashCode() {
+        return areas().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return STR."ZonePartition[areas=\{areas()}]";
     }
 
     /**
@@ -49,16 +149,22 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
      * @author Balthazar Baillat (sciper: 373420)
      */
     public static final class Builder<Z extends Zone> {
-        // The set of areas constituting the partition
-        private final Set<Area<Z>> areas;
+        // The parent zone id of each zone id of the partition under construction
+        private final PersistentArray.Builder<Integer> parents;
+        // The area of each root zone id of the partition under construction
+        private final PersistentArray.Builder<Area<Z>> roots;
+        // The last built partition, returned again by build() if nothing changed since
+        private ZonePartition<Z> built;
 
         /**
-         * Initialises the builder's area set with the one of the given partition.
+         * Initialises the builder's disjoint-set forest with the one of the given partition.
          *
          * @param zonePartition the partition
          */
         public Builder(ZonePartition<Z> zonePartition) {
-            this.areas = new HashSet<>(zonePartition.areas);
+            this.parents = new PersistentArray.Builder<>(zonePartition.parents);
+            this.roots = new PersistentArray.Builder<>(zonePartition.roots);
+            this.built = zonePartition;
         }
 
         /**
@@ -69,59 +175,41 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @param openConnections the given number of open connections
          */
         public void addSingleton(Z zone, int openConnections) {
-            areas.add(new Area<>(Set.of(zone), new ArrayList<>(), openConnections));
+            parents.set(zone.id(), zone.id());
+            roots.set(zone.id(), new Area<>(Set.of(zone), List.of(), openConnections));
         }
 
         /**
-         * Checks the validity of a given zone and returns the area of the partition
+         * Checks the validity of a given zone and returns the id of the root zone of the area
          * containing the given zone.
-         * <p>
-         * Verifies if the given zone is already occupied or not assigned to any area of the partition
-         * and throws {@link IllegalArgumentException} if so.
          *
          * @param zone the zone to check
-         * @return the area of the partition containing the given zone
-         * @throws IllegalArgumentException if the zone is not available
+         * @return the id of the root zone of the area containing the given zone
+         * @throws IllegalArgumentException if the zone is not assigned to any area of the partition
          */
-        private Area<Z> findAreaContainingZone(Z zone) {
-            // Create a zone partition (needed to use areaContaining method) containing the set of areas
-            ZonePartition<Z> zonePartition = new ZonePartition<>(areas);
-            try {
-                return zonePartition.areaContaining(zone);
-            } catch (IllegalArgumentException e) {
+        private int findRootContainingZone(Z zone) {
+            int rootId = findRoot(parents::get, zone);
+            if (!roots.get(rootId).zones().contains(zone))
                 throw new IllegalArgumentException("Zone is not assigned to any area of the partition.");
-            }
-        }
-
-        /**
-         * Returns the area containing the given zone if it is not occupied.
-         *
-         * @param zone the given zone
-         * @return the area containing the given zone if it is not occupied
-         * @throws IllegalArgumentException if the given zone is occupied
-         */
-        private Area<Z> findAreaContainingZoneWithoutOccupant(Z zone) {
-            Area<Z> areaContainingZone = findAreaContainingZone(zone);
-            if (areaContainingZone.isOccupied())
-                throw new IllegalArgumentException("The area is already occupied.");
-            return areaContainingZone;
+            return rootId;
         }
 
-
         /**
          * Adds to the area containing the given zone an initial occupant of the given color after checking
          * if the given zone is available.
          *
          * @param zone  the given zone
          * @param color the given occupant color
+         * @throws IllegalArgumentException if the area containing the given zone is already occupied
          */
         public void addInitialOccupant(Z zone, PlayerColor color) {
             // Check if the zone is available in the partition and find the area containing the given zone
-            Area<Z> areaContainingZone = findAreaContainingZoneWithoutOccupant(zone);
-            // Create a new area without the occupant of the given color
-            Area<Z> newArea = areaContainingZone.withInitialOccupant(color);
-            areas.remove(areaContainingZone);
-            areas.add(newArea);
+            int rootId = findRootContainingZone(zone);
+            Area<Z> areaContainingZone = roots.get(rootId);
+            if (areaContainingZone.isOccupied())
+                throw new IllegalArgumentException("The area is already occupied.");
+            // Replace the area containing the given zone by a new one with the occupant of the given color
+            roots.set(rootId, areaContainingZone.withInitialOccupant(color));
         }
 
         /**
@@ -133,12 +221,9 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          */
         public void removeOccupant(Z zone, PlayerColor color) {
             // Check if the zone is available in the partition and find the area containing the given zone
-            Area<Z> areaContainingZone = findAreaContainingZone(zone);
-            // Create a new area without the occupant of the given color
-            Area<Z> newArea = areaContainingZone.withoutOccupant(color);
-            // Replace the area containing the given zone by the new one in the set of areas
-            areas.remove(areaContainingZone);
-            areas.add(newArea);
+            int rootId = findRootContainingZone(zone);
+            // Replace the area containing the given zone by a new one without the occupant of the given color
+            roots.set(rootId, roots.get(rootId).withoutOccupant(color));
         }
 
         /**
@@ -148,12 +233,11 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @throws IllegalArgumentException if the area is not part of the partition
          */
         public void removeAllOccupantsOf(Area<Z> area) {
-            Preconditions.checkArgument(areas.contains(area));
-            // Create a new area with no occupants
-            Area<Z> unoccupiedArea = area.withoutOccupants();
-            // Replace the area containing the given zone by the new one in the set of areas
-            areas.remove(area);
-            areas.add(unoccupiedArea);
+            Preconditions.checkArgument(!area.zones().isEmpty());
+            int rootId = findRoot(parents::get, area.zones().iterator().next());
+            Preconditions.checkArgument(area.equals(roots.get(rootId)));
+            // Replace the area by a new one with no occupants
+            roots.set(rootId, area.withoutOccupants());
         }
 
         /**
@@ -165,26 +249,37 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          *                                  of the partition
          */
         public void union(Z zone1, Z zone2) {
-            Area<Z> area1 = findAreaContainingZone(zone1);
-            Area<Z> area2 = findAreaContainingZone(zone2);
-            // If the two zones are not assigned to the same area, connect the two areas
-            // Otherwise connect the area to itself
-            if (!area1.equals(area2)) {
-                areas.remove(area1);
-                areas.remove(area2);
-            } else {
-                areas.remove(area1);
+            int rootId1 = findRootContainingZone(zone1);
+            int rootId2 = findRootContainingZone(zone2);
+            Area<Z> area1 = roots.get(rootId1);
+            Area<Z> area2 = roots.get(rootId2);
+            // If the two zones are assigned to the same area, connect the area to itself
+            if (rootId1 == rootId2) {
+                roots.set(rootId1, area1.connectTo(area2));
+                return;
             }
-            areas.add(area1.connectTo(area2));
+            // Otherwise attach the smallest tree to the root of the largest one
+            boolean firstIsLarger = area1.zones().size() >= area2.zones().size();
+            int newRootId = firstIsLarger ? rootId1 : rootId2;
+            int oldRootId = firstIsLarger ? rootId2 : rootId1;
+            parents.set(oldRootId, newRootId);
+            roots.set(oldRootId, null);
+            roots.set(newRootId, area1.connectTo(area2));
         }
 
         /**
          * Builds the final zone partition instance.
+         * <p>
+         * If the partition has not been modified, the initial instance is returned.
          *
          * @return the final zone partition
          */
         public ZonePartition<Z> build() {
-            return new ZonePartition<>(areas);
+            PersistentArray<Integer> builtParents = parents.build();
+            PersistentArray<Area<Z>> builtRoots = roots.build();
+            if (builtParents != built.parents || builtRoots != built.roots)
+                built = new ZonePartition<>(builtParents, builtRoots);
+            return built;
         }
 
     }
@@ -46,6 +46,11 @@ public record ZonePartitions(ZonePartition<Zone.Forest> forests, ZonePartition<Z
          */
         private final ZonePartition.Builder<Zone.Water> riverSystems;
 
+        /**
+         * The last built partitions, returned again by build() if none of them has changed since.
+         */
+        private ZonePartitions built;
+
         /**
          * Returns a new builder whose four partitions are initially identical to those of the given
          * group of four partitions.
@@ -57,6 +62,7 @@ public record ZonePartitions(ZonePartition<Zone.Forest> forests, ZonePartition<Z
             this.meadows = new ZonePartition.Builder<>(initial.meadows);
             this.rivers = new ZonePartition.Builder<>(initial.rivers);
             this.riverSystems = new ZonePartition.Builder<>(initial.riverSystems);
+            this.built = initial;
         }
 
         /**
@@ -200,7 +206,15 @@ public record ZonePartitions(ZonePartition<Zone.Forest> forests, ZonePartition<Z
          * @return the group of four partitions under construction
          */
         public ZonePartitions build() {
-            return new ZonePartitions(forests.build(), meadows.build(), rivers.build(), riverSystems.build());
+            // Partitions which have not been modified are the last built instances
+            ZonePartition<Zone.Forest> builtForests = forests.build();
+            ZonePartition<Zone.Meadow> builtMeadows = meadows.build();
+            ZonePartition<Zone.River> builtRivers = rivers.build();
+            ZonePartition<Zone.Water> builtRiverSystems = riverSystems.build();
+            if (builtForests != built.forests || builtMeadows != built.meadows
+                    || builtRivers != built.rivers || builtRiverSystems != built.riverSystems)
+                built = new ZonePartitions(builtForests, builtMeadows, builtRivers, builtRiverSystems);
+            return built;
         }
 
     }
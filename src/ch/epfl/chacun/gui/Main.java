@@ -12,9 +12,7 @@ import javafx.stage.Stage;
 
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.random.RandomGenerator;
 import java.util.random.RandomGeneratorFactory;
-import java.util.stream.Collectors;
 
 /**
  * The main class of the game.
@@ -215,20 +213,9 @@ public class Main extends Application {
      * @return the created tile decks
      */
     private TileDecks createTileDecksWithSeed(String rawSeed) {
-        RandomGeneratorFactory<RandomGenerator> defaultRandomFactory = RandomGeneratorFactory.getDefault();
-
-        RandomGenerator shuffler;
-        if (rawSeed != null) {
-            long seed = Long.parseUnsignedLong(rawSeed);
-            shuffler = defaultRandomFactory.create(seed);
-        } else {
-            // Generate a random seed
-            shuffler = defaultRandomFactory.create();
-        }
-
-        List<Tile> tiles = new ArrayList<>(Tiles.TILES);
-        Collections.shuffle(tiles, shuffler);
-        // Group tiles by kind to create the decks
-        return new TileDecks(tiles.stream().collect(Collectors.groupingBy(Tile::kind)));
+        if (rawSeed != null)
+            return DeckFactory.create(Long.parseUnsignedLong(rawSeed));
+        // Generate a random seed
+        return DeckFactory.create(RandomGeneratorFactory.getDefault().create());
     }
 }
@@ -0,0 +1,56 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionEncoderTest {
+
+    private static GameState stateToRetakePawn() {
+        var random = RandomGeneratorFactory.getDefault().create(0);
+        for (long seed = 0; seed < 100; ++seed) {
+            for (var state : GameSimulator.play(seed)) {
+                if (state.nextAction() != GameState.Action.OCCUPY_TILE
+                        || state.board().occupants().stream().noneMatch(o -> o.kind() == Occupant.Kind.HUT))
+                    continue;
+                // Let the current player retake a pawn instead of occupying the tile
+                var retakingState = new GameState(state.players(), state.tileDecks(), null, state.board(),
+                        GameState.Action.RETAKE_PAWN, state.messageBoard());
+                if (GameSimulator.randomRetakenPawn(retakingState, random) != null)
+                    return retakingState;
+            }
+        }
+        return fail();
+    }
+
+    @Test
+    void actionEncoderEncodesAndDecodesRetakenPawns() {
+        var state = stateToRetakePawn();
+        var board = state.board();
+        for (var occupant : board.occupants()) {
+            var placer = board.tileWithId(Zone.tileId(occupant.zoneId())).placer();
+            var action = Base32.encodeBits5(board.occupantIndex(occupant));
+            var decoded = ActionEncoder.decodeAndApply(state, action);
+            if (occupant.kind() == Occupant.Kind.PAWN && placer == state.currentPlayer()) {
+                var encoded = ActionEncoder.withOccupantRemoved(state, occupant);
+                assertEquals(action, encoded.action());
+                assertNotNull(decoded);
+                assertEquals(action, decoded.action());
+                assertEquals(encoded.gameState().board().occupants(), decoded.gameState().board().occupants());
+                assertFalse(decoded.gameState().board().occupants().contains(occupant));
+            } else {
+                // Huts and the pawns of other players cannot be retaken
+                assertNull(decoded);
+            }
+        }
+
+        var encoded = ActionEncoder.withOccupantRemoved(state, null);
+        var decoded = ActionEncoder.decodeAndApply(state, encoded.action());
+        assertNotNull(decoded);
+        assertEquals(board.occupants(), decoded.gameState().board().occupants());
+        assertNull(ActionEncoder.decodeAndApply(state, Base32.encodeBits5(board.occupants().size())));
+        assertNull(ActionEncoder.decodeAndApply(state, Base32.encodeBits10(0)));
+    }
+}
@@ -0,0 +1,81 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionReplayTest {
+    private record RecordedGame(GameState finalState, List<String> actions) {
+    }
+
+    private static final TextMaker TEXT_MAKER = GameSimulator.textMaker();
+
+    private static RecordedGame record(long seed) {
+        RandomGenerator random = RandomGeneratorFactory.getDefault().create(seed);
+        var state = GameState.initial(GameSimulator.PLAYERS, GameSimulator.decks(seed), TEXT_MAKER)
+                .withStartingTilePlaced();
+        var actions = new ArrayList<String>();
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            var stateAction = switch (state.nextAction()) {
+                case PLACE_TILE -> ActionEncoder.withPLacedTile(state, GameSimulator.randomPlacement(state, random));
+                case OCCUPY_TILE -> ActionEncoder.withNewOccupant(state, GameSimulator.randomOccupant(state, random));
+                case RETAKE_PAWN ->
+                        ActionEncoder.withOccupantRemoved(state, GameSimulator.randomRetakenPawn(state, random));
+                default -> throw new IllegalStateException();
+            };
+            state = stateAction.gameState();
+            actions.add(stateAction.action());
+        }
+        return new RecordedGame(state, actions);
+    }
+
+    @Test
+    void actionReplayReplayReproducesRecordedGames() {
+        for (long seed = 0; seed < 5; ++seed) {
+            var game = record(seed);
+            var result = ActionReplay.replay(GameSimulator.PLAYERS, seed, TEXT_MAKER, game.actions());
+            assertTrue(result.isSuccessful());
+            assertEquals(-1, result.failedIndex());
+            assertEquals(game.finalState(), result.gameState());
+
+            var silentResult = ActionReplay.replay(GameSimulator.PLAYERS, seed, game.actions());
+            assertTrue(silentResult.isSuccessful());
+            assertEquals(game.finalState().board(), silentResult.gameState().board());
+            assertEquals(game.finalState().messageBoard().points(), silentResult.gameState().messageBoard().points());
+        }
+    }
+
+    @Test
+    void actionReplayReplayStopsAtTheFirstInvalidAction() {
+        var game = record(3);
+        var actions = new ArrayList<>(game.actions());
+        int index = actions.size() / 2;
+        actions.set(index, "!");
+        var result = ActionReplay.replay(GameSimulator.PLAYERS, 3, actions);
+        assertFalse(result.isSuccessful());
+        assertEquals(index, result.failedIndex());
+        assertEquals(ActionReplay.Failure.MALFORMED_ACTION, result.failure());
+        assertEquals(ActionReplay.replay(GameSimulator.PLAYERS, 3, actions.subList(0, index)).gameState().board(),
+                result.gameState().board());
+
+        actions.set(index, "ABC");
+        assertEquals(ActionReplay.Failure.MALFORMED_ACTION,
+                ActionReplay.replay(GameSimulator.PLAYERS, 3, actions).failure());
+
+        var illegal = ActionReplay.replay(GameSimulator.PLAYERS, 3, List.of("77"));
+        assertEquals(0, illegal.failedIndex());
+        assertEquals(ActionReplay.Failure.ILLEGAL_ACTION, illegal.failure());
+
+        var overlong = new ArrayList<>(game.actions());
+        overlong.add("A");
+        var gameOver = ActionReplay.replay(GameSimulator.PLAYERS, 3, overlong);
+        assertEquals(game.actions().size(), gameOver.failedIndex());
+        assertEquals(ActionReplay.Failure.GAME_OVER, gameOver.failure());
+        assertEquals(GameState.Action.END_GAME, gameOver.gameState().nextAction());
+    }
+}
@@ -515,4 +515,35 @@ class AreaTest {
         assertEquals(zones.get(3), area.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP));
         assertEquals(zones.get(5), area.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE));
     }
-}
\ No newline at end of file
+
+    @Test
+    void areaRiverFishCountCountsSharedLakeOnceAfterConnection() {
+        var lake = new Zone.Lake(8, 1, null);
+        var area1 = new Area<>(Set.of(new Zone.River(0, 2, lake), new Zone.River(1, 3, null)), List.of(), 1);
+        var area2 = new Area<>(Set.of(new Zone.River(6, 4, lake)), List.of(), 1);
+        var connected = area1.connectTo(area2);
+        assertEquals(10, Area.riverFishCount(connected));
+        assertEquals(Area.riverFishCount(new Area<>(connected.zones(), List.of(), 0)),
+                Area.riverFishCount(connected));
+    }
+
+    @Test
+    void areaAggregatesAreCombinedByConnectTo() {
+        var deer = new Animal(0, Animal.Kind.DEER);
+        var tiger = new Animal(11, Animal.Kind.TIGER);
+        var meadow1 = new Zone.Meadow(0, List.of(deer), null);
+        var meadow2 = new Zone.Meadow(1, List.of(tiger, new Animal(12, Animal.Kind.DEER)), null);
+        var meadow3 = new Zone.Meadow(20, List.of(), Zone.SpecialPower.PIT_TRAP);
+        var area = new Area<>(Set.of(meadow1), List.of(), 2)
+                .connectTo(new Area<>(Set.of(meadow2), List.of(), 2))
+                .connectTo(new Area<>(Set.of(meadow3), List.of(), 1));
+
+        assertEquals(1, area.openConnections());
+        assertEquals(Set.of(0, 2), area.tileIds());
+        assertEquals(meadow3, area.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP));
+        assertEquals(2, Area.animalCount(area, Set.of(), Animal.Kind.DEER));
+        assertEquals(1, Area.animalCount(area, Set.of(deer), Animal.Kind.DEER));
+        assertEquals(1, Area.animalCount(area, Set.of(deer), Animal.Kind.TIGER));
+        assertEquals(2, Area.animalCount(area, Set.of(new Animal(51, Animal.Kind.DEER)), Animal.Kind.DEER));
+    }
+}
@@ -2,6 +2,9 @@ package ch.epfl.chacun;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class Base32Test {
@@ -33,4 +36,43 @@ public class Base32Test {
         assertEquals(31, Base32.decode("7"));
     }
 
+    @Test
+    public void decodeFromSequencesArraysAndBuffersWorks() {
+        assertEquals(33, Base32.decode("xBBx", 1, 3));
+        assertEquals(33, Base32.decode(new StringBuilder("BB"), 0, 2));
+        assertEquals(33, Base32.decode("xBBx".toCharArray(), 1, 3));
+        ByteBuffer buffer = ByteBuffer.wrap("xxBB".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(33, Base32.decode(buffer, 2, 2));
+        assertEquals(0, buffer.position());
+        assertEquals(0, Base32.decode("", 0, 0));
+        assertEquals((1 << 30) - 1, Base32.decode("777777", 0, 6));
+    }
+
+    @Test
+    public void decodeReturnsInvalidOnInvalidInput() {
+        assertEquals(Base32.INVALID, Base32.decode("AB1", 0, 3));
+        assertEquals(Base32.INVALID, Base32.decode("ab", 0, 2));
+        assertEquals(Base32.INVALID, Base32.decode("A\u00C9", 0, 2));
+        assertEquals(Base32.INVALID, Base32.decode("AAAAAAA", 0, 7));
+        assertEquals(Base32.INVALID, Base32.decode(new char[]{'A', '8'}, 0, 2));
+        assertEquals(Base32.INVALID, Base32.decode(ByteBuffer.wrap(new byte[]{'A', (byte) 0xC1}), 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> Base32.decode("A1"));
+        assertThrows(IndexOutOfBoundsException.class, () -> Base32.decode("AB", 1, 3));
+    }
+
+    @Test
+    public void encodeIntoArraysAndBuffersWorks() {
+        char[] chars = new char[4];
+        assertEquals(3, Base32.encode(33, chars, 1, 2));
+        assertEquals("BB", new String(chars, 1, 2));
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+        assertEquals(3, Base32.encode(31, buffer, 2, 1));
+        assertEquals('7', buffer.get(2));
+        assertEquals(0, buffer.position());
+        for (int value = 0; value < 1 << 10; ++value) {
+            assertEquals(value, Base32.decode(Base32.encodeBits10(value)));
+            assertSame(Base32.encodeBits10(value), Base32.encodeBits10(value));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> Base32.encode(0, new char[1], 0, 2));
+    }
 }
@@ -761,7 +761,49 @@ class BoardTest {
         }
     }
 
-    // No explicit test for `withNewTile`, which is used extensively by other tests
+    // No explicit test for `withNewTile`, which is used extensively by other tests, except for occupied tiles
+
+    @Test
+    void boardWithNewTileRegistersTheOccupantOfTheTile() {
+        var allTiles = allTiles();
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var occupant17 = new Occupant(Occupant.Kind.PAWN, 17_0);
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.RED, Rotation.NONE, new Pos(-1, 0), occupant17);
+
+        var board = Board.EMPTY
+                .withNewTile(t56)
+                .withNewTile(t17);
+
+        assertEquals(occupant17, board.tileAt(new Pos(-1, 0)).occupant());
+        assertEquals(Set.of(occupant17), board.occupants());
+        assertEquals(1, board.occupantCount(PlayerColor.RED, Occupant.Kind.PAWN));
+        var occupiedMeadow = board.meadowArea((Zone.Meadow) t17.zoneWithId(17_0));
+        assertEquals(List.of(PlayerColor.RED), occupiedMeadow.occupants());
+        assertEquals(Board.EMPTY.withNewTile(t56).withNewTile(t17.withNoOccupant()).withOccupant(occupant17), board);
+
+        var emptied = board.withoutOccupant(occupant17);
+        assertEquals(Set.of(), emptied.occupants());
+        assertEquals(0, emptied.occupantCount(PlayerColor.RED, Occupant.Kind.PAWN));
+    }
+
+    @Test
+    void boardWithNewTileThrowsWhenTheOccupantOfTheTileJoinsAnOccupiedArea() {
+        var allTiles = allTiles();
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.RED, Rotation.NONE, new Pos(-1, 0),
+                new Occupant(Occupant.Kind.PAWN, 17_2));
+        var board = Board.EMPTY
+                .withNewTile(t56)
+                .withNewTile(t17);
+
+        // The meadow of tile 5 joins the meadow of the start tile, which the pawn of tile 17 already occupies
+        var t5 = new PlacedTile(allTiles.get(5), PlayerColor.BLUE, Rotation.HALF_TURN, new Pos(0, -1),
+                new Occupant(Occupant.Kind.PAWN, 5_0));
+        assertThrows(IllegalArgumentException.class, () -> board.withNewTile(t5));
+        assertThrows(IllegalArgumentException.class, () -> Board.of(List.of(t56, t17, t5), Set.of()));
+        assertEquals(List.of(PlayerColor.RED), board.withNewTile(t5.withNoOccupant())
+                .meadowArea((Zone.Meadow) t5.zoneWithId(5_0)).occupants());
+    }
 
     @Test
     void boardWithOccupantAddsOccupantToBoardAndPartition() {
@@ -947,6 +989,219 @@ class BoardTest {
         assertEquals(board1.hashCode(), board2.hashCode());
     }
 
+    @Test
+    void boardDerivedBoardsKeepTheCellsTheyDoNotModify() {
+        var allTiles = allTiles();
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.RED, Rotation.NONE, new Pos(-1, 0));
+        var t5 = new PlacedTile(allTiles.get(5), PlayerColor.BLUE, Rotation.HALF_TURN, new Pos(0, -1));
+        var occupant17 = new Occupant(Occupant.Kind.PAWN, 17_2);
+
+        var board1 = Board.EMPTY.withNewTile(t56);
+        var board2 = board1.withNewTile(t17);
+        var board3 = board2.withNewTile(t5);
+        var board4 = board3.withOccupant(occupant17);
+        var board5 = board4.withoutOccupant(occupant17);
+
+        assertNull(board1.tileAt(t17.pos()));
+        assertNull(board2.tileAt(t5.pos()));
+        assertNull(board3.tileAt(t17.pos()).occupant());
+        assertEquals(occupant17, board4.tileAt(t17.pos()).occupant());
+        assertNull(board5.tileAt(t17.pos()).occupant());
+        for (var board : List.of(board1, board2, board3, board4, board5))
+            assertSame(t56, board.tileAt(Pos.ORIGIN));
+        for (var board : List.of(board3, board4, board5))
+            assertSame(t5, board.tileAt(t5.pos()));
+        assertSame(t17, board3.tileAt(t17.pos()));
+        assertEquals(board3, board5);
+    }
+
+    @Test
+    void boardInsertionPositionsMatchesFreeNeighborsThroughoutGames() {
+        for (long seed = 0; seed < 5; ++seed) {
+            for (var state : GameSimulator.play(seed)) {
+                var board = state.board();
+                var expected = new HashSet<Pos>();
+                for (int x = -Board.REACH; x <= Board.REACH; ++x) {
+                    for (int y = -Board.REACH; y <= Board.REACH; ++y) {
+                        var pos = new Pos(x, y);
+                        if (board.tileAt(pos) == null && Direction.ALL.stream()
+                                .anyMatch(d -> board.tileAt(pos.neighbor(d)) != null))
+                            expected.add(pos);
+                    }
+                }
+                assertEquals(expected, board.insertionPositions());
+            }
+        }
+    }
+
+    @Test
+    void boardPlacementChecksAgreeWithSideComparisonThroughoutGames() {
+        for (long seed = 0; seed < 3; ++seed) {
+            for (var state : GameSimulator.play(seed)) {
+                var board = state.board();
+                for (var tile : Tiles.TILES)
+                    assertEquals(board.couldPlaceTileBySides(tile), board.couldPlaceTile(tile));
+                if (state.tileToPlace() == null)
+                    continue;
+                for (var pos : board.insertionPositions()) {
+                    for (var rotation : Rotation.ALL) {
+                        var placedTile = new PlacedTile(state.tileToPlace(), PlayerColor.RED, rotation, pos);
+                        assertEquals(board.canAddTileBySides(placedTile), board.canAddTile(placedTile));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void boardOccupantsAndOccupantCountMatchPlacedTilesThroughoutGames() {
+        for (long seed = 0; seed < 5; ++seed) {
+            for (var state : GameSimulator.play(seed)) {
+                var board = state.board();
+                var expectedOccupants = new HashSet<Occupant>();
+                var expectedCounts = new HashMap<PlayerColor, Map<Occupant.Kind, Integer>>();
+                for (int x = -Board.REACH; x <= Board.REACH; ++x) {
+                    for (int y = -Board.REACH; y <= Board.REACH; ++y) {
+                        var placedTile = board.tileAt(new Pos(x, y));
+                        if (placedTile == null || placedTile.occupant() == null)
+                            continue;
+                        expectedOccupants.add(placedTile.occupant());
+                        expectedCounts.computeIfAbsent(placedTile.placer(), _ -> new HashMap<>())
+                                .merge(placedTile.occupant().kind(), 1, Integer::sum);
+                    }
+                }
+                assertEquals(expectedOccupants, board.occupants());
+                var zoneIds = board.occupants().stream().map(Occupant::zoneId).toList();
+                assertEquals(zoneIds.stream().sorted().toList(), zoneIds);
+                for (var player : PlayerColor.ALL) {
+                    for (var kind : Occupant.Kind.values()) {
+                        assertEquals(expectedCounts.getOrDefault(player, Map.of()).getOrDefault(kind, 0),
+                                board.occupantCount(player, kind));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void boardInsertionPositionAndOccupantRanksMatchSortedListsThroughoutGames() {
+        for (long seed = 0; seed < 5; ++seed) {
+            for (var state : GameSimulator.play(seed)) {
+                var board = state.board();
+                var sortedFringe = board.insertionPositions().stream()
+                        .sorted(Comparator.comparing(Pos::x).thenComparing(Pos::y))
+                        .toList();
+                for (int i = 0; i < sortedFringe.size(); ++i) {
+                    assertEquals(sortedFringe.get(i), board.insertionPosition(i));
+                    assertEquals(i, board.insertionPositionIndex(sortedFringe.get(i)));
+                }
+                assertNull(board.insertionPosition(sortedFringe.size()));
+                assertNull(board.insertionPosition(-1));
+                assertEquals(-1, board.insertionPositionIndex(new Pos(Board.REACH + 1, 0)));
+                if (board.lastPlacedTile() != null)
+                    assertEquals(-1, board.insertionPositionIndex(board.lastPlacedTile().pos()));
+
+                var sortedOccupants = board.occupants().stream()
+                        .sorted(Comparator.comparing(Occupant::zoneId))
+                        .toList();
+                for (int i = 0; i < sortedOccupants.size(); ++i) {
+                    assertEquals(sortedOccupants.get(i), board.occupantAt(i));
+                    assertEquals(i, board.occupantIndex(sortedOccupants.get(i)));
+                }
+                assertNull(board.occupantAt(sortedOccupants.size()));
+                assertEquals(-1, board.occupantIndex(new Occupant(Occupant.Kind.PAWN, 999)));
+            }
+        }
+    }
+
+    @Test
+    void boardPositionKeyMatchesRecomputationThroughoutGames() {
+        for (long seed = 0; seed < 5; ++seed) {
+            var states = GameSimulator.play(seed);
+            var replayedStates = GameSimulator.play(seed);
+            for (int i = 0; i < states.size(); ++i) {
+                var board = states.get(i).board();
+                long expectedKey = 0;
+                for (int x = -Board.REACH; x <= Board.REACH; ++x) {
+                    for (int y = -Board.REACH; y <= Board.REACH; ++y) {
+                        var placedTile = board.tileAt(new Pos(x, y));
+                        if (placedTile == null)
+                            continue;
+                        int index = (Board.REACH * 2 + 1) * (y + Board.REACH) + x + Board.REACH;
+                        expectedKey ^= ZobristKeys.tile(placedTile, index)
+                                ^ ZobristKeys.occupant(placedTile.occupant());
+                    }
+                }
+                for (var animal : board.cancelledAnimals())
+                    expectedKey ^= ZobristKeys.cancelledAnimal(animal);
+                assertEquals(expectedKey, board.positionKey());
+
+                var replayedBoard = replayedStates.get(i).board();
+                assertEquals(board, replayedBoard);
+                assertEquals(board.hashCode(), replayedBoard.hashCode());
+                assertEquals(states.get(i).positionKey(), replayedStates.get(i).positionKey());
+            }
+        }
+    }
+
+    @Test
+    void boardOfThrowsOnDisconnectedOrMismatchedTiles() {
+        var allTiles = allTiles();
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.RED, Rotation.NONE, new Pos(-1, 0));
+        assertEquals(Board.EMPTY.withNewTile(t56).withNewTile(t17).positionKey(),
+                Board.of(List.of(t56, t17), Set.of()).positionKey());
+
+        // Tile 17 does not touch the start tile
+        var farTile = new PlacedTile(allTiles.get(17), PlayerColor.RED, Rotation.NONE, new Pos(-2, 0));
+        assertThrows(IllegalArgumentException.class, () -> Board.of(List.of(t56, farTile), Set.of()));
+        // The rivers of tile 17 cannot touch the forest of the start tile
+        var mismatchedTile = new PlacedTile(allTiles.get(17), PlayerColor.RED, Rotation.NONE, new Pos(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Board.of(List.of(t56, mismatchedTile), Set.of()));
+    }
+
+    private static void assertProjectedPointsEqual(int[] expected, Board board) {
+        assertArrayEquals(expected, board.projectedPoints());
+        var rebuiltBoard = Board.of(board.placedTilesInOrder(), board.cancelledAnimals());
+        assertArrayEquals(rebuiltBoard.projectedPoints(), board.projectedPoints());
+    }
+
+    @Test
+    void boardProjectedPointsFollowTilesOccupantsAndCancelledAnimals() {
+        var allTiles = allTiles();
+        var t56 = new PlacedTile(allTiles.get(56), null, Rotation.NONE, new Pos(0, 0));
+        var t17 = new PlacedTile(allTiles.get(17), PlayerColor.RED, Rotation.NONE, new Pos(-1, 0));
+        int red = PlayerColor.RED.ordinal();
+
+        var board = Board.EMPTY.withNewTile(t56).withNewTile(t17);
+        assertProjectedPointsEqual(new int[PlayerColor.ALL.size()], board);
+
+        // The meadow joining the aurochs of tile 56 and the deer of tile 17
+        var expected = new int[PlayerColor.ALL.size()];
+        var pawn = new Occupant(Occupant.Kind.PAWN, 17_2);
+        var occupiedBoard = board.withOccupant(pawn);
+        expected[red] = 3;
+        assertProjectedPointsEqual(expected, occupiedBoard);
+
+        var boardWithoutDeer = occupiedBoard.withMoreCancelledAnimals(Set.of(new Animal(17_2_0, Animal.Kind.DEER)));
+        expected[red] = 2;
+        assertProjectedPointsEqual(expected, boardWithoutDeer);
+
+        expected[red] = 0;
+        assertProjectedPointsEqual(expected, boardWithoutDeer.withoutOccupant(pawn));
+
+        // The river system joining the river of tile 17 to the lake of tile 56, which contains one fish
+        var boardWithHut = board.withOccupant(new Occupant(Occupant.Kind.HUT, 17_1));
+        expected[red] = 1;
+        assertProjectedPointsEqual(expected, boardWithHut);
+
+        // Extending the meadow of the pawn with the aurochs of tile 5
+        var t5 = new PlacedTile(allTiles.get(5), PlayerColor.BLUE, Rotation.HALF_TURN, new Pos(0, -1));
+        expected[red] = 5;
+        assertProjectedPointsEqual(expected, occupiedBoard.withNewTile(t5));
+    }
+
     //<editor-fold desc="Tiles">
     private static List<Tile> allTiles() {
         ArrayList<Tile> tiles = new ArrayList<>();
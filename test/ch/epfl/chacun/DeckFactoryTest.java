@@ -0,0 +1,54 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckFactoryTest {
+    private static TileDecks expectedDecks(long seed) {
+        var tiles = new ArrayList<>(Tiles.TILES);
+        Collections.shuffle(tiles, RandomGeneratorFactory.getDefault().create(seed));
+        return new TileDecks(tiles.stream().collect(Collectors.groupingBy(Tile::kind)));
+    }
+
+    @Test
+    void deckFactoryCreateProducesTheDecksOfTheGraphicalInterface() {
+        for (long seed : new long[]{0, 1, 2024, -1, Long.MIN_VALUE})
+            assertEquals(expectedDecks(seed), DeckFactory.create(seed));
+    }
+
+    @Test
+    void deckFactoryCreateAllProducesReproduciblePermutations() {
+        var decks = DeckFactory.createAll(7, 2_500);
+        assertEquals(2_500, decks.size());
+        assertEquals(decks.subList(0, 3), DeckFactory.createAll(7, 3));
+        assertEquals(decks, DeckFactory.createAll(7, 2_500));
+        assertNotEquals(decks.get(0), decks.get(1));
+        assertNotEquals(decks.get(0), decks.get(1_024));
+        for (var deck : decks) {
+            var tiles = new HashSet<Tile>();
+            for (var kind : Tile.Kind.values()) {
+                for (var tile : switch (kind) {
+                    case START -> deck.startTiles();
+                    case NORMAL -> deck.normalTiles();
+                    case MENHIR -> deck.menhirTiles();
+                }) {
+                    assertEquals(kind, tile.kind());
+                    tiles.add(tile);
+                }
+            }
+            assertEquals(new HashSet<>(Tiles.TILES), tiles);
+        }
+        assertEquals(0, DeckFactory.createAll(7, 0).size());
+        assertThrows(IllegalArgumentException.class, () -> DeckFactory.createAll(7, -1));
+        // The tiles of all the decks of a kind would not fit in an array
+        assertThrows(IllegalArgumentException.class, () -> DeckFactory.createAll(7, Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> DeckFactory.createAll(7, Integer.MAX_VALUE / 50));
+    }
+}
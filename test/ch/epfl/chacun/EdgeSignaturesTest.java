@@ -0,0 +1,69 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeSignaturesTest {
+    private static int expectedCode(TileSide side) {
+        return switch (side) {
+            case TileSide.Forest _ -> 0b01;
+            case TileSide.Meadow _ -> 0b10;
+            case TileSide.River _ -> 0b11;
+        };
+    }
+
+    @Test
+    void edgeSignaturesOfPlacedTileMatchesItsSides() {
+        for (var tile : Tiles.TILES) {
+            for (var rotation : Rotation.ALL) {
+                var placedTile = new PlacedTile(tile, null, rotation, Pos.ORIGIN);
+                var signature = EdgeSignatures.of(placedTile);
+                for (var direction : Direction.ALL)
+                    assertEquals(expectedCode(placedTile.side(direction)),
+                            EdgeSignatures.sideCode(signature, direction));
+            }
+        }
+    }
+
+    @Test
+    void edgeSignaturesOfTileOutsideCatalogIsComputed() {
+        var forest = new TileSide.Forest(new Zone.Forest(0, Zone.Forest.Kind.PLAIN));
+        var meadow = new TileSide.Meadow(new Zone.Meadow(1, List.of(), null));
+        var tile = new Tile(0, Tile.Kind.NORMAL, forest, meadow, meadow, meadow);
+        assertEquals(0b10_10_10_01, EdgeSignatures.of(tile));
+        assertEquals(0b10_10_01_10, EdgeSignatures.rotated(EdgeSignatures.of(tile), Rotation.RIGHT));
+    }
+
+    @Test
+    void edgeSignaturesRotationClassesAreSharedByRotations() {
+        assertEquals(24, EdgeSignatures.ROTATION_CLASS_COUNT);
+        for (var tile : Tiles.TILES) {
+            var signature = EdgeSignatures.of(tile);
+            for (var rotation : Rotation.ALL)
+                assertEquals(EdgeSignatures.rotationClass(signature),
+                        EdgeSignatures.rotationClass(EdgeSignatures.rotated(signature, rotation)));
+        }
+    }
+
+    @Test
+    void edgeSignaturesAcceptedClassesMatchRotatedSignatures() {
+        for (int requiredCodes = 0; requiredCodes < 256; ++requiredCodes) {
+            int mask = 0;
+            for (var direction : Direction.ALL) {
+                if (EdgeSignatures.sideCode(requiredCodes, direction) != 0)
+                    mask |= EdgeSignatures.SIDE_MASK << EdgeSignatures.shift(direction);
+            }
+            for (var tile : Tiles.TILES) {
+                var signature = EdgeSignatures.of(tile);
+                var expected = false;
+                for (var rotation : Rotation.ALL)
+                    expected |= (EdgeSignatures.rotated(signature, rotation) & mask) == requiredCodes;
+                var accepted = EdgeSignatures.acceptedClasses(requiredCodes);
+                assertEquals(expected, (accepted & 1 << EdgeSignatures.rotationClass(signature)) != 0);
+            }
+        }
+    }
+}
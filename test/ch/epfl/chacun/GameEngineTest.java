@@ -0,0 +1,222 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEngineTest {
+
+    private static Map<Object, Long> messageCounts(List<MessageBoard.Message> messages) {
+        // Which forest is reported when a tile closes several forests with a menhir is not specified
+        Function<MessageBoard.Message, Object> key = m ->
+                m.kind() == MessageBoard.Message.Kind.CLOSED_FOREST_WITH_MENHIR ? List.of(m.kind(), m.players()) : m;
+        return messages.stream().collect(Collectors.groupingBy(key, Collectors.counting()));
+    }
+
+    /**
+     * Determines whether the final scoring of the given board, which was reached from a board with the given
+     * cancelled animals, may choose between cancelled and non-cancelled deer to be eaten by the tigers, in
+     * which case its result is not specified.
+     */
+    private static boolean hasUnspecifiedEatenDeer(Board board, Set<Animal> cancelledAnimals) {
+        var specialPowerZone = board.lastPlacedTile().specialPowerZone();
+        if (specialPowerZone != null && specialPowerZone.specialPower() == Zone.SpecialPower.HUNTING_TRAP)
+            return true;
+        for (var meadow : board.meadowAreas()) {
+            int tigerCount = Area.animalCount(meadow, Set.of(), Animal.Kind.TIGER);
+            int deerCount = Area.animalCount(meadow, Set.of(), Animal.Kind.DEER);
+            int remainingDeerCount = Area.animalCount(meadow, cancelledAnimals, Animal.Kind.DEER);
+            if (tigerCount > 0 && tigerCount < deerCount && remainingDeerCount < deerCount)
+                return true;
+        }
+        return false;
+    }
+
+    private static void assertEngineEquals(GameState expected, GameEngine engine) {
+        assertEngineEquals(expected, expected, engine);
+    }
+
+    private static void assertEngineEquals(GameState previous, GameState expected, GameEngine engine) {
+        var actual = engine.toGameState();
+        assertEquals(expected.players(), actual.players());
+        assertEquals(expected.tileDecks(), actual.tileDecks());
+        assertEquals(expected.tileToPlace(), actual.tileToPlace());
+        assertEquals(expected.nextAction(), actual.nextAction());
+        if (expected.nextAction() != GameState.Action.END_GAME
+                || !hasUnspecifiedEatenDeer(expected.board(), previous.board().cancelledAnimals())) {
+            // The areas closed or scored at the same time may be reported in any order
+            assertEquals(messageCounts(expected.messageBoard().messages()),
+                    messageCounts(actual.messageBoard().messages()));
+            assertEquals(expected.messageBoard().points(), engine.points());
+            assertEquals(expected.board().cancelledAnimals().size(), actual.board().cancelledAnimals().size());
+        }
+        assertEquals(expected.board().placedTilesInOrder(), actual.board().placedTilesInOrder());
+        assertEquals(expected.board().occupants(), actual.board().occupants());
+        if (expected.nextAction() != GameState.Action.END_GAME) {
+            // Which deer the tigers eat during the final scoring is not specified, only their number is
+            assertEquals(expected.board().positionKey(), actual.board().positionKey());
+            assertEquals(expected.board().cancelledAnimals(), actual.board().cancelledAnimals());
+        }
+        assertEquals(expected.board().meadowAreas(), actual.board().meadowAreas());
+        assertEquals(expected.board().riverSystemAreas(), actual.board().riverSystemAreas());
+        assertEquals(expected.currentPlayer(), engine.currentPlayer());
+        for (var tile : Tiles.TILES)
+            assertEquals(expected.board().couldPlaceTile(tile), engine.couldPlaceTile(tile));
+        for (var player : PlayerColor.ALL) {
+            for (var kind : Occupant.Kind.values())
+                assertEquals(expected.freeOccupantsCount(player, kind), engine.freeOccupantsCount(player, kind));
+        }
+    }
+
+    @Test
+    void gameEngineReplaysSimulatedGamesIdentically() {
+        for (long seed = 0; seed < 10; ++seed) {
+            var states = GameSimulator.play(seed);
+            var engine = new GameEngine(states.getFirst());
+            var random = RandomGeneratorFactory.getDefault().create(seed);
+            engine.start();
+            assertEngineEquals(states.get(1), engine);
+            for (int i = 2; i < states.size(); ++i) {
+                var state = engine.toGameState();
+                switch (engine.nextAction()) {
+                    case PLACE_TILE -> engine.place(GameSimulator.randomPlacement(state, random));
+                    case OCCUPY_TILE -> {
+                        assertEquals(state.lastTilePotentialOccupants(), engine.potentialOccupants());
+                        engine.occupy(GameSimulator.randomOccupant(state, random));
+                    }
+                    case RETAKE_PAWN -> engine.retake(GameSimulator.randomRetakenPawn(state, random));
+                    default -> fail();
+                }
+                assertEngineEquals(states.get(i - 1), states.get(i), engine);
+            }
+            assertEquals(states.size() - 1, engine.depth());
+            assertEquals(GameState.Action.END_GAME, engine.nextAction());
+        }
+    }
+
+    @Test
+    void gameEngineUndoRestoresPreviousStates() {
+        var states = GameSimulator.play(3);
+        var engine = new GameEngine(states.getFirst());
+        var random = RandomGeneratorFactory.getDefault().create(3);
+        engine.start();
+        for (int i = 2; i < states.size(); ++i) {
+            var state = engine.toGameState();
+            switch (engine.nextAction()) {
+                case PLACE_TILE -> engine.place(GameSimulator.randomPlacement(state, random));
+                case OCCUPY_TILE -> engine.occupy(GameSimulator.randomOccupant(state, random));
+                case RETAKE_PAWN -> engine.retake(GameSimulator.randomRetakenPawn(state, random));
+                default -> fail();
+            }
+        }
+        for (int i = states.size() - 1; i > 0; --i) {
+            assertEquals(i, engine.depth());
+            assertEngineEquals(states.get(i - 1), states.get(i), engine);
+            engine.undo();
+        }
+        assertEngineEquals(states.getFirst(), engine);
+        assertThrows(IllegalArgumentException.class, engine::undo);
+    }
+
+    @Test
+    void gameEngineUndoToRestoresStateBuiltFromMidGame() {
+        var states = GameSimulator.play(4);
+        var middle = states.get(states.size() / 2);
+        var engine = new GameEngine(middle);
+        assertEngineEquals(middle, engine);
+        assertEquals(0, engine.depth());
+
+        int[] placements = new int[256];
+        for (int i = 0; i < 6 && engine.nextAction() != GameState.Action.END_GAME; ++i) {
+            var state = engine.toGameState();
+            switch (engine.nextAction()) {
+                case PLACE_TILE -> {
+                    int count = engine.legalPlacements(placements);
+                    int[] expected = new int[placements.length];
+                    int expectedCount = state.legalPlacements(expected);
+                    assertArrayEquals(Arrays.copyOf(expected, expectedCount), Arrays.copyOf(placements, count));
+                    engine.place(placements[count - 1]);
+                }
+                case OCCUPY_TILE -> engine.occupy(null);
+                case RETAKE_PAWN -> engine.retake(null);
+                default -> fail();
+            }
+        }
+        engine.undoTo(0);
+        assertEngineEquals(middle, engine);
+    }
+
+    @Test
+    void gameEngineKeepsStateWhenActionIsInvalid() {
+        var states = GameSimulator.play(2);
+        var engine = new GameEngine(states.getFirst());
+        assertThrows(IllegalArgumentException.class, () -> engine.occupy(null));
+        assertEquals(GameState.Action.START_GAME, engine.nextAction());
+        assertEquals(0, engine.depth());
+        assertThrows(IllegalArgumentException.class, () -> engine.undoTo(1));
+
+        engine.start();
+        var tile = engine.tileToPlace();
+        // The origin is occupied by the starting tile, and the tile must be placed by the current player
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.place(new PlacedTile(tile, engine.currentPlayer(), Rotation.NONE, Pos.ORIGIN)));
+        assertThrows(IllegalArgumentException.class, () -> engine.place(new PlacedTile(tile,
+                PlayerColor.PURPLE, Rotation.NONE, Pos.ORIGIN.neighbor(Direction.N))));
+        assertThrows(IllegalArgumentException.class, () -> engine.retake(null));
+        assertEquals(1, engine.depth());
+        assertEngineEquals(states.get(1), engine);
+    }
+
+    @Test
+    void gameEngineScoresAndUndoesSmallGame() {
+        var t56 = Tiles.TILES.get(56);
+        var t17 = Tiles.TILES.get(17);
+        var decks = new TileDecks(List.of(t56), List.of(t17), List.of());
+        var initial = GameState.initial(List.of(PlayerColor.RED, PlayerColor.BLUE), decks, new BasicTextMaker());
+        var engine = new GameEngine(initial);
+
+        engine.start();
+        var started = initial.withStartingTilePlaced();
+        assertEquals(t17, engine.tileToPlace());
+        assertEquals(PlayerColor.RED, engine.currentPlayer());
+        assertEngineEquals(started, engine);
+
+        var placedTile = new PlacedTile(t17, PlayerColor.RED, Rotation.NONE, new Pos(-1, 0));
+        engine.place(placedTile);
+        var placed = started.withPlacedTile(placedTile);
+        assertEquals(GameState.Action.OCCUPY_TILE, engine.nextAction());
+        assertEquals(placedTile.potentialOccupants(), engine.potentialOccupants());
+        assertEngineEquals(placed, engine);
+
+        // The pawn occupies the meadow of the start tile, with its aurochs and deer
+        var pawn = new Occupant(Occupant.Kind.PAWN, 17_2);
+        engine.occupy(pawn);
+        var ended = placed.withNewOccupant(pawn);
+        assertEquals(GameState.Action.END_GAME, engine.nextAction());
+        assertEquals(Map.of(PlayerColor.RED, 3), engine.points());
+        assertEquals(0, engine.points(PlayerColor.BLUE));
+        assertEquals(List.of(MessageBoard.Message.Kind.SCORED_MEADOW, MessageBoard.Message.Kind.PLAYERS_WON),
+                engine.toGameState().messageBoard().messages().stream().map(MessageBoard.Message::kind).toList());
+        assertEquals(Occupant.occupantsCount(Occupant.Kind.PAWN) - 1,
+                engine.freeOccupantsCount(PlayerColor.RED, Occupant.Kind.PAWN));
+        assertEngineEquals(placed, ended, engine);
+
+        engine.undo();
+        assertEquals(Map.of(), engine.points());
+        assertEngineEquals(placed, engine);
+        engine.undo();
+        assertEquals(t17, engine.tileToPlace());
+        assertTrue(engine.couldPlaceTile(t17));
+        assertEngineEquals(started, engine);
+        engine.undo();
+        assertEngineEquals(initial, engine);
+    }
+}
@@ -0,0 +1,157 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Helper class used by the tests to play complete games with a seeded random policy.
+ *
+ * @author Maxence Espagnet (sciper: 372808)
+ * @author Balthazar Baillat (sciper: 373420)
+ */
+final class GameSimulator {
+
+    /**
+     * The players of the simulated games.
+     */
+    static final List<PlayerColor> PLAYERS = PlayerColor.ALL.subList(0, 4);
+
+    /**
+     * Non-instantiable class constructor.
+     */
+    private GameSimulator() {
+    }
+
+    /**
+     * Creates the tile decks shuffled with the given seed.
+     *
+     * @param seed the seed
+     * @return the shuffled tile decks
+     */
+    static TileDecks decks(long seed) {
+        return DeckFactory.create(seed);
+    }
+
+    /**
+     * Creates the text maker of the simulated games.
+     *
+     * @return the text maker
+     */
+    static TextMaker textMaker() {
+        Map<PlayerColor, String> names = new EnumMap<>(PlayerColor.class);
+        for (PlayerColor player : PLAYERS)
+            names.put(player, player.name());
+        return new TextMakerFr(names);
+    }
+
+    /**
+     * Plays a complete game with the given seed and returns all the states it went through.
+     * <p>
+     * The decks are shuffled with the seed, and each player places its tile at a random legal position,
+     * then occupies it or retakes one of its pawns at random.
+     *
+     * @param seed the seed
+     * @return all the states of the game, from the initial one to the final one
+     */
+    static List<GameState> play(long seed) {
+        RandomGenerator random = RandomGeneratorFactory.getDefault().create(seed);
+        List<GameState> states = new ArrayList<>();
+        GameState state = GameState.initial(PLAYERS, decks(seed), textMaker());
+        states.add(state);
+        state = state.withStartingTilePlaced();
+        states.add(state);
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            state = switch (state.nextAction()) {
+                case PLACE_TILE -> state.withPlacedTile(randomPlacement(state, random));
+                case OCCUPY_TILE -> state.withNewOccupant(randomOccupant(state, random));
+                case RETAKE_PAWN -> state.withOccupantRemoved(randomRetakenPawn(state, random));
+                default -> throw new IllegalStateException();
+            };
+            states.add(state);
+        }
+        return states;
+    }
+
+    /**
+     * Returns a random legal placement of the tile to place of the given state.
+     *
+     * @param state  the state
+     * @param random the random generator
+     * @return a random legal placement of the tile to place
+     */
+    static PlacedTile randomPlacement(GameState state, RandomGenerator random) {
+        List<PlacedTile> placements = new ArrayList<>();
+        List<Pos> fringe = state.board().insertionPositions().stream()
+                .sorted(Comparator.comparing(Pos::x).thenComparing(Pos::y)).toList();
+        for (Pos pos : fringe) {
+            for (Rotation rotation : Rotation.ALL) {
+                PlacedTile placedTile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos);
+                if (state.board().canAddTile(placedTile))
+                    placements.add(placedTile);
+            }
+        }
+        return placements.get(random.nextInt(placements.size()));
+    }
+
+    /**
+     * Returns a random potential occupant of the last placed tile of the given state, or null.
+     *
+     * @param state  the state
+     * @param random the random generator
+     * @return a random potential occupant, or null
+     */
+    static Occupant randomOccupant(GameState state, RandomGenerator random) {
+        return randomElement(sorted(state.lastTilePotentialOccupants()), random);
+    }
+
+    /**
+     * Returns a random pawn the current player of the given state can retake, or null.
+     *
+     * @param state  the state
+     * @param random the random generator
+     * @return a random pawn to retake, or null
+     */
+    static Occupant randomRetakenPawn(GameState state, RandomGenerator random) {
+        return randomElement(retakablePawns(state), random);
+    }
+
+    /**
+     * Returns the pawns the current player of the given state can retake, sorted by zone id.
+     *
+     * @param state the state
+     * @return the pawns the current player can retake
+     */
+    private static List<Occupant> retakablePawns(GameState state) {
+        Board board = state.board();
+        return sorted(board.occupants()).stream()
+                .filter(o -> o.kind() == Occupant.Kind.PAWN)
+                .filter(o -> board.tileWithId(Zone.tileId(o.zoneId())).placer() == state.currentPlayer())
+                .toList();
+    }
+
+    /**
+     * Returns the given occupants sorted by zone id, then by kind.
+     *
+     * @param occupants the occupants
+     * @return the sorted occupants
+     */
+    private static List<Occupant> sorted(Set<Occupant> occupants) {
+        return occupants.stream()
+                .sorted(Comparator.comparing(Occupant::zoneId).thenComparing(Occupant::kind)).toList();
+    }
+
+    /**
+     * Returns a random element of the given list, or null with a probability of one half or if it is empty.
+     *
+     * @param elements the list
+     * @param random   the random generator
+     * @param <E>      the type of the elements
+     * @return a random element of the given list, or null
+     */
+    private static <E> E randomElement(List<E> elements, RandomGenerator random) {
+        if (elements.isEmpty() || random.nextBoolean())
+            return null;
+        return elements.get(random.nextInt(elements.size()));
+    }
+}
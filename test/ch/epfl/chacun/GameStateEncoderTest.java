@@ -0,0 +1,99 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateEncoderTest {
+    @Test
+    void gameStateEncoderDecodeRestoresEncodedStatesThroughoutGames() {
+        var textMaker = GameSimulator.textMaker();
+        for (long seed = 0; seed < 20; ++seed) {
+            for (var state : GameSimulator.play(seed)) {
+                var snapshot = GameStateEncoder.encode(state);
+                assertTrue(snapshot.length < 600);
+                var decoded = GameStateEncoder.decode(snapshot, textMaker);
+                assertEquals(state.players(), decoded.players());
+                assertEquals(state.tileDecks(), decoded.tileDecks());
+                assertEquals(state.tileToPlace(), decoded.tileToPlace());
+                assertEquals(state.nextAction(), decoded.nextAction());
+                assertEquals(state.messageBoard().points(), decoded.messageBoard().points());
+                // The messages are dropped, only one message per scorer carrying its total is kept
+                var decodedMessages = decoded.messageBoard().messages();
+                assertEquals(state.messageBoard().points().size(), decodedMessages.size());
+                for (var message : decodedMessages) {
+                    assertEquals("", message.text());
+                    assertEquals(Set.of(), message.tileIds());
+                    assertEquals(1, message.scorers().size());
+                }
+                assertEquals(state.board().cancelledAnimals(), decoded.board().cancelledAnimals());
+                assertEquals(state.board().positionKey(), decoded.board().positionKey());
+                assertEquals(state.board().placedTilesInOrder(), decoded.board().placedTilesInOrder());
+                assertEquals(state.board().insertionPositions(), decoded.board().insertionPositions());
+                assertEquals(state.board().meadowAreas(), decoded.board().meadowAreas());
+                assertEquals(state.board().riverSystemAreas(), decoded.board().riverSystemAreas());
+                assertEquals(state.board().occupants(), decoded.board().occupants());
+                for (var tile : Tiles.TILES)
+                    assertEquals(state.board().couldPlaceTile(tile), decoded.board().couldPlaceTile(tile));
+                assertArrayEquals(snapshot, GameStateEncoder.encode(decoded));
+            }
+        }
+    }
+
+    @Test
+    void gameStateEncoderDecodedBoardEqualsBoardBuiltTileByTile() {
+        var states = GameSimulator.play(1);
+        var state = states.get(states.size() - 1);
+        var decoded = GameStateEncoder.decode(GameStateEncoder.encode(state), GameSimulator.textMaker());
+        var board = Board.EMPTY;
+        for (var tile : state.board().placedTilesInOrder()) {
+            board = board.withNewTile(tile.withNoOccupant());
+            if (tile.occupant() != null)
+                board = board.withOccupant(tile.occupant());
+        }
+        assertEquals(board.withMoreCancelledAnimals(state.board().cancelledAnimals()).positionKey(),
+                decoded.board().positionKey());
+        assertEquals(board.meadowAreas(), decoded.board().meadowAreas());
+        assertEquals(board.riverSystemAreas(), decoded.board().riverSystemAreas());
+    }
+
+    @Test
+    void gameStateEncoderKeepsPointsWhichDoNotFitInAShort() {
+        var state = GameSimulator.play(2).get(10);
+        var messages = List.of(new MessageBoard.Message("", 40_000, Set.of(PlayerColor.RED), Set.of()),
+                new MessageBoard.Message("", 3, Set.of(PlayerColor.BLUE), Set.of()));
+        var richState = new GameState(state.players(), state.tileDecks(), state.tileToPlace(), state.board(),
+                state.nextAction(), new MessageBoard(GameSimulator.textMaker(), messages));
+        var decoded = GameStateEncoder.decode(GameStateEncoder.encode(richState), GameSimulator.textMaker());
+        assertEquals(richState.messageBoard().points(), decoded.messageBoard().points());
+    }
+
+    @Test
+    void gameStateEncoderDecodeThrowsOnMalformedSnapshot() {
+        var state = GameSimulator.play(2).get(10);
+        var snapshot = GameStateEncoder.encode(state);
+        var textMaker = GameSimulator.textMaker();
+        assertThrows(IllegalArgumentException.class,
+                () -> GameStateEncoder.decode(Arrays.copyOf(snapshot, snapshot.length - 1), textMaker));
+        assertThrows(IllegalArgumentException.class,
+                () -> GameStateEncoder.decode(Arrays.copyOf(snapshot, snapshot.length + 1), textMaker));
+        assertThrows(IllegalArgumentException.class, () -> GameStateEncoder.decode(new byte[0], textMaker));
+        var wrongVersion = snapshot.clone();
+        wrongVersion[0] = 0;
+        assertThrows(IllegalArgumentException.class, () -> GameStateEncoder.decode(wrongVersion, textMaker));
+        // The first placed tile is the start tile, which has no placer: give it an occupant
+        var decks = state.tileDecks();
+        int startTileOffset = 4 + state.players().size() + 3 + decks.startTiles().size()
+                + decks.normalTiles().size() + decks.menhirTiles().size() + 1;
+        var occupiedStartTile = snapshot.clone();
+        assertEquals((byte) 0xFF, occupiedStartTile[startTileOffset + 4]);
+        occupiedStartTile[startTileOffset + 4] = 0;
+        assertThrows(IllegalArgumentException.class, () -> GameStateEncoder.decode(occupiedStartTile, textMaker));
+        assertEquals(List.of(), GameStateEncoder.decode(
+                GameStateEncoder.encode(GameSimulator.play(2).get(0)), textMaker).board().placedTilesInOrder());
+    }
+}
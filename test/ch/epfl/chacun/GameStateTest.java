@@ -804,6 +804,93 @@ class GameStateTest {
         assertEquals("{GREEN}|8", state.messageBoard().messages().getLast().text());
     }
 
+    @Test
+    void gameStateLegalPlacementsAndOccupantsMatchActionEncoderLayoutThroughoutGames() {
+        var buffer = new int[4 * 625];
+        for (long seed = 0; seed < 5; ++seed) {
+            for (var state : GameSimulator.play(seed)) {
+                switch (state.nextAction()) {
+                    case PLACE_TILE -> {
+                        var fringe = state.board().insertionPositions().stream()
+                                .sorted(Comparator.comparing(Pos::x).thenComparing(Pos::y))
+                                .toList();
+                        var expected = new ArrayList<Integer>();
+                        for (int i = 0; i < fringe.size(); ++i) {
+                            for (var rotation : Rotation.ALL) {
+                                var placedTile = new PlacedTile(
+                                        state.tileToPlace(), state.currentPlayer(), rotation, fringe.get(i));
+                                if (state.board().canAddTile(placedTile))
+                                    expected.add(i << 2 | rotation.ordinal());
+                            }
+                        }
+                        int count = state.legalPlacements(buffer);
+                        assertEquals(expected, Arrays.stream(buffer, 0, count).boxed().toList());
+                    }
+                    case OCCUPY_TILE -> {
+                        var expected = state.lastTilePotentialOccupants().stream()
+                                .map(o -> o.kind().ordinal() << 4 | Zone.localId(o.zoneId()))
+                                .sorted()
+                                .toList();
+                        int count = state.legalOccupants(buffer);
+                        assertEquals(expected, Arrays.stream(buffer, 0, count).boxed().toList());
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void gameStateProjectedScoresMatchFinalPointsIfGameEndedNow() {
+        var emptyDecks = new TileDecks(List.of(), List.of(), List.of());
+        for (long seed = 0; seed < 10; ++seed) {
+            var states = GameSimulator.play(seed);
+            for (var state : states) {
+                if (state.nextAction() != Action.PLACE_TILE || state.board().lastPlacedTile().placer() == null
+                        || hasUnspecifiedEatenDeer(state.board()))
+                    continue;
+                // End the game right after the turn which led to this state
+                var messageBoard = new MessageBoard(new BasicTextMaker(), state.messageBoard().messages());
+                var endedState = new GameState(state.players(), emptyDecks, null, state.board(),
+                        Action.OCCUPY_TILE, messageBoard).withNewOccupant(null);
+                assertEquals(Action.END_GAME, endedState.nextAction());
+                var expected = new HashMap<PlayerColor, Integer>();
+                state.players().forEach(p -> expected.put(p, 0));
+                expected.putAll(endedState.messageBoard().points());
+                assertEquals(expected, state.projectedScores());
+            }
+            var finalState = states.getLast();
+            assertEquals(Action.END_GAME, finalState.nextAction());
+            assertEquals(finalState.messageBoard().points(), Map.copyOf(finalState.projectedScores().entrySet()
+                    .stream().filter(e -> e.getValue() > 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))));
+        }
+    }
+
+    /**
+     * Determines whether the final scoring of the given board may choose between cancelled and non-cancelled
+     * deer to be eaten by the tigers, in which case its result is not specified.
+     */
+    private static boolean hasUnspecifiedEatenDeer(Board board) {
+        for (var meadow : board.meadowAreas()) {
+            int tigerCount = Area.animalCount(meadow, Set.of(), Animal.Kind.TIGER);
+            int deerCount = Area.animalCount(meadow, Set.of(), Animal.Kind.DEER);
+            int remainingDeerCount = Area.animalCount(meadow, board.cancelledAnimals(), Animal.Kind.DEER);
+            if (tigerCount > 0 && tigerCount < deerCount && remainingDeerCount < deerCount)
+                return true;
+        }
+        return false;
+    }
+
+    @Test
+    void gameStateLegalPlacementsAndOccupantsThrowOnWrongActionOrTooSmallBuffer() {
+        var state = initialGameState(List.of(0), List.of());
+        assertThrows(IllegalArgumentException.class, () -> state.legalOccupants(new int[16]));
+        assertThrows(IllegalArgumentException.class, () -> state.legalPlacements(new int[0]));
+        assertTrue(state.legalPlacements(new int[16]) > 0);
+    }
+
     private static GameState initialGameState(List<Integer> firstNormalTiles, List<Integer> firstMenhirTiles) {
         return initialGameState(List.of(PlayerColor.values()), firstNormalTiles, firstMenhirTiles);
     }
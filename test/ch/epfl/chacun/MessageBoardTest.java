@@ -92,6 +92,41 @@ class MessageBoardTest {
         assertEquals(0, points.getOrDefault(YELLOW, 0));
     }
 
+    @Test
+    void messageBoardPointsIsUpdatedAsMessagesAreAdded() {
+        var f1 = new Zone.Forest(10, Kind.PLAIN);
+        var f2 = new Zone.Forest(20, Kind.WITH_MENHIR);
+        var forestArea = new Area<>(Set.of(f1, f2), List.of(RED, BLUE, RED), 0);
+        var mb = new MessageBoard(new BasicTextMaker(), List.of(emptyMessage(0, GREEN)));
+        mb = mb.withScoredForest(forestArea).withClosedForestWithMenhir(YELLOW, forestArea);
+        mb = mb.withScoredForest(forestArea);
+
+        var points = mb.points();
+        assertEquals(Map.of(RED, 8, GREEN, 0), points);
+        assertEquals(2, points.size());
+        assertTrue(points.containsKey(GREEN));
+        assertFalse(points.containsKey(YELLOW));
+        assertNull(points.get(BLUE));
+        assertEquals(0, points.getOrDefault(BLUE, 0));
+        assertEquals(List.of(RED, GREEN), List.copyOf(points.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> points.put(BLUE, 1));
+        assertEquals(Map.of(GREEN, 0), new MessageBoard(new BasicTextMaker(), List.of(emptyMessage(0, GREEN))).points());
+    }
+
+    @Test
+    void messageBoardWithMessagesAppendsMessagesInOrder() {
+        var m1 = emptyMessage(1, RED);
+        var m2 = emptyMessage(2, BLUE);
+        var m3 = emptyMessage(4, RED, GREEN);
+        var messageBoard = new MessageBoard(new BasicTextMaker(), List.of(m1));
+
+        assertSame(messageBoard, messageBoard.withMessages(List.of()));
+        var updated = messageBoard.withMessages(List.of(m2, m3));
+        assertEquals(List.of(m1, m2, m3), updated.messages());
+        assertEquals(List.of(m1), messageBoard.messages());
+        assertEquals(Map.of(RED, 5, BLUE, 2, GREEN, 4), updated.points());
+    }
+
     @Test
     void messageBoardWithScoredForestWorksWithUnoccupiedForest() {
         var f1 = new Zone.Forest(10, Kind.PLAIN);
@@ -406,6 +441,70 @@ class MessageBoardTest {
         // assertEquals(expectedMessage.scorers(), actualMessage.scorers());
         assertEquals(expectedMessage.tileIds(), actualMessage.tileIds());
     }
+
+    @Test
+    void messageBoardMessageTextIsRenderedOnDemandAndCached() {
+        var renderCount = new int[1];
+        var textMaker = new BasicTextMaker() {
+            @Override
+            public String playersScoredForest(Set<PlayerColor> scorers, int points, int mushroomGroupCount,
+                                              int tileCount) {
+                ++renderCount[0];
+                return super.playersScoredForest(scorers, points, mushroomGroupCount, tileCount);
+            }
+        };
+        var f1 = new Zone.Forest(10, Kind.PLAIN);
+        var f2 = new Zone.Forest(20, Kind.WITH_MUSHROOMS);
+        var forestArea = new Area<>(Set.of(f1, f2), List.of(RED), 0);
+        var mb = new MessageBoard(textMaker, List.of()).withScoredForest(forestArea);
+        var message = mb.messages().getFirst();
+        assertEquals(0, renderCount[0]);
+        assertEquals(MessageBoard.Message.Kind.SCORED_FOREST, message.kind());
+        assertEquals(Set.of(RED), message.players());
+        assertEquals(1, message.count());
+        assertEquals(7, message.points());
+
+        assertEquals("{RED}|7|1|2", message.text());
+        assertSame(message.text(), message.text());
+        assertEquals(1, renderCount[0]);
+    }
+
+    @Test
+    void messageBoardMessageEqualityComparesRenderedText() {
+        var textMaker = new BasicTextMaker();
+        var river = new Area<>(Set.of(new Zone.River(11, 2, null), new Zone.River(21, 0, null)), List.of(RED), 0);
+        var m1 = new MessageBoard(textMaker, List.of()).withScoredRiver(river).messages().getFirst();
+        var m2 = new MessageBoard(textMaker, List.of()).withScoredRiver(river).messages().getFirst();
+        assertEquals(m1, m2);
+        assertEquals(m1.hashCode(), m2.hashCode());
+
+        // A message given its text equals the rendered message with the same text, and the equality is transitive
+        var textMessage = new MessageBoard.Message(m1.text(), m1.points(), m1.scorers(), m1.tileIds());
+        assertEquals(textMessage, m1);
+        assertEquals(m1, textMessage);
+        assertEquals(textMessage, m2);
+        assertEquals(textMessage.hashCode(), m1.hashCode());
+
+        var otherCount = new MessageBoard.Message(textMaker, MessageBoard.Message.Kind.SCORED_RIVER, m1.players(),
+                m1.count() + 1, Map.of(), m1.points(), m1.scorers(), m1.tileIds());
+        assertNotEquals(m1, otherCount);
+        assertNotEquals(textMessage, otherCount);
+        assertNotEquals(new MessageBoard.Message("", m1.points(), m1.scorers(), m1.tileIds()), m1);
+    }
+
+    @Test
+    void messageBoardMessageCopiesItsAnimals() {
+        var animals = new HashMap<Animal.Kind, Integer>();
+        animals.put(Animal.Kind.DEER, 2);
+        var message = new MessageBoard.Message(new BasicTextMaker(), MessageBoard.Message.Kind.SCORED_MEADOW,
+                Set.of(RED), 0, animals, 2, Set.of(RED), Set.of(1));
+        var text = message.text();
+        animals.put(Animal.Kind.MAMMOTH, 1);
+        assertEquals(Map.of(Animal.Kind.DEER, 2), message.animals());
+        assertThrows(UnsupportedOperationException.class, () -> message.animals().clear());
+        assertEquals(text, new MessageBoard.Message(new BasicTextMaker(), MessageBoard.Message.Kind.SCORED_MEADOW,
+                Set.of(RED), 0, Map.of(Animal.Kind.DEER, 2), 2, Set.of(RED), Set.of(1)).text());
+    }
 }
 
 class BasicTextMaker implements TextMaker {
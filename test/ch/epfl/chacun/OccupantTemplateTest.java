@@ -0,0 +1,64 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupantTemplateTest {
+    private static Set<Occupant> expectedOccupants(Tile tile) {
+        var occupants = new HashSet<Occupant>();
+        for (var zone : tile.zones()) {
+            if (!(zone instanceof Zone.Lake))
+                occupants.add(new Occupant(Occupant.Kind.PAWN, zone.id()));
+            if (zone instanceof Zone.Lake || (zone instanceof Zone.River river && !river.hasLake()))
+                occupants.add(new Occupant(Occupant.Kind.HUT, zone.id()));
+        }
+        return occupants;
+    }
+
+    @Test
+    void occupantTemplateOfCatalogTilesMatchesGameRules() {
+        for (var tile : Tiles.TILES) {
+            var template = OccupantTemplate.of(tile);
+            assertSame(template, OccupantTemplate.of(tile));
+            assertEquals(expectedOccupants(tile), template.occupants(template.fullMask()));
+            var occupants = new ArrayList<Occupant>();
+            for (int i = 0; i < template.size(); ++i) {
+                occupants.add(template.occupant(i));
+                assertEquals(template.occupant(i).zoneId(), template.zone(i).id());
+                assertTrue((template.kindMask(template.occupant(i).kind()) & 1 << i) != 0);
+            }
+            var sorted = occupants.stream()
+                    .sorted((o1, o2) -> o1.kind() != o2.kind()
+                            ? o1.kind().compareTo(o2.kind())
+                            : Integer.compare(o1.zoneId(), o2.zoneId()))
+                    .toList();
+            assertEquals(sorted, occupants);
+        }
+    }
+
+    @Test
+    void occupantTemplateOccupantsSelectsMaskedOccupants() {
+        var lake = new Zone.Lake(8, 1, null);
+        var river = new TileSide.River(new Zone.Meadow(0, List.of(), null), new Zone.River(1, 0, lake),
+                new Zone.Meadow(2, List.of(), null));
+        var meadow = new TileSide.Meadow(new Zone.Meadow(2, List.of(), null));
+        var tile = new Tile(0, Tile.Kind.NORMAL, river, meadow, meadow, meadow);
+        var template = OccupantTemplate.of(tile);
+        assertEquals(4, template.size());
+
+        var hut = new Occupant(Occupant.Kind.HUT, 8);
+        var selection = template.occupants(template.kindMask(Occupant.Kind.HUT));
+        assertEquals(Set.of(hut), selection);
+        assertTrue(selection.contains(hut));
+        assertFalse(selection.contains(new Occupant(Occupant.Kind.PAWN, 1)));
+        assertEquals(List.of(hut), List.copyOf(selection));
+        assertTrue(template.occupants(0).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> selection.add(hut));
+    }
+}
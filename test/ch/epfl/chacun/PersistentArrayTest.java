@@ -0,0 +1,75 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentArrayTest {
+    @Test
+    void persistentArrayEmptyContainsOnlyNull() {
+        var array = PersistentArray.<String>empty();
+        assertNull(array.get(0));
+        assertNull(array.get(1_000));
+    }
+
+    @Test
+    void persistentArrayWithDoesNotModifyReceiver() {
+        var array = PersistentArray.<String>empty().with(3, "a");
+        var array1 = array.with(3, "b");
+        assertEquals("a", array.get(3));
+        assertEquals("b", array1.get(3));
+    }
+
+    @Test
+    void persistentArrayGrowsWhenNeeded() {
+        var array = PersistentArray.<Integer>empty().with(2, 2).with(999, 999);
+        assertEquals(2, array.get(2));
+        assertEquals(999, array.get(999));
+        assertNull(array.get(500));
+    }
+
+    @Test
+    void persistentArrayBuilderDoesNotModifyBuiltArrays() {
+        var builder = new PersistentArray.Builder<>(PersistentArray.<Integer>empty());
+        builder.set(0, 0);
+        var array = builder.build();
+        builder.set(0, 1);
+        builder.set(1, 1);
+        var array1 = builder.build();
+        assertEquals(0, array.get(0));
+        assertNull(array.get(1));
+        assertEquals(1, array1.get(0));
+        assertEquals(1, array1.get(1));
+    }
+
+    @Test
+    void persistentArrayBuilderThrowsOnNegativeIndex() {
+        var builder = new PersistentArray.Builder<>(PersistentArray.<Integer>empty());
+        assertThrows(IllegalArgumentException.class, () -> builder.set(-1, 0));
+    }
+
+    @Test
+    void persistentArrayForEachIteratesInIndexOrder() {
+        var array = PersistentArray.<Integer>empty().with(70, 70).with(5, 5).with(33, 33).with(5, null);
+        var elements = new ArrayList<Integer>();
+        array.forEach(elements::add);
+        assertEquals(List.of(33, 70), elements);
+    }
+
+    @Test
+    void persistentArrayBuilderReturnsSameArrayWhenUnmodified() {
+        var array = PersistentArray.<Integer>empty().with(3, 3);
+        var builder = new PersistentArray.Builder<>(array);
+        assertSame(array, builder.build());
+        builder.set(3, 3);
+        assertSame(array, builder.build());
+        builder.set(4, 4);
+        var array1 = builder.build();
+        assertNotSame(array, array1);
+        assertSame(array1, builder.build());
+        assertNull(array.get(4));
+    }
+}
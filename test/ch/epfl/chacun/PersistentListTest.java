@@ -0,0 +1,71 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentListTest {
+    @Test
+    void persistentListWithAllAppendsElementsInOrder() {
+        var list = PersistentList.<Integer>empty();
+        var expected = new ArrayList<Integer>();
+        for (int i = 0; i < 100; ++i) {
+            list = list.withAll(List.of(i, -i));
+            expected.add(i);
+            expected.add(-i);
+            assertEquals(expected, list);
+        }
+        assertEquals(expected.hashCode(), list.hashCode());
+        assertEquals(expected.subList(10, 50), list.subList(10, 50));
+        assertEquals(expected, list.stream().toList());
+    }
+
+    @Test
+    void persistentListWithAllWorksOnLongLists() {
+        var list = PersistentList.<Integer>empty();
+        var expected = new ArrayList<Integer>();
+        var versions = new ArrayList<PersistentList<Integer>>();
+        for (int batch = 0; expected.size() < 40_000; ++batch) {
+            var elements = new ArrayList<Integer>();
+            for (int i = 0; i < batch % 70; ++i)
+                elements.add(expected.size() + i);
+            list = list.withAll(elements);
+            expected.addAll(elements);
+            versions.add(list);
+        }
+        assertEquals(expected, list);
+        // Earlier versions are not modified by later appends
+        for (var version : versions)
+            assertEquals(expected.subList(0, version.size()), version);
+        var branch = versions.get(versions.size() / 2);
+        var branched = branch.withAll(List.of(-1, -2));
+        assertEquals(-1, branched.get(branch.size()));
+        assertEquals(expected.get(branch.size()), list.get(branch.size()));
+    }
+
+    @Test
+    void persistentListWithAllDoesNotModifyReceiver() {
+        var list = PersistentList.<String>empty().withAll(List.of("a", "b"));
+        var list1 = list.withAll(List.of("c"));
+        var list2 = list.withAll(List.of("d", "e"));
+        assertSame(list, list.withAll(List.of()));
+        assertEquals(List.of("a", "b"), list);
+        assertEquals(List.of("a", "b", "c"), list1);
+        assertEquals(List.of("a", "b", "d", "e"), list2);
+    }
+
+    @Test
+    void persistentListIsUnmodifiableAndRejectsNull() {
+        var list = PersistentList.<String>empty().withAll(List.of("a"));
+        assertThrows(UnsupportedOperationException.class, () -> list.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, "b"));
+        assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+        assertThrows(NullPointerException.class, () -> list.withAll(Arrays.asList("b", null)));
+    }
+}
@@ -259,6 +259,20 @@ class PlacedTileTest {
         assertEquals(expectedOccupants, placedTile.potentialOccupants());
     }
 
+    @Test
+    void placedTilePotentialOccupantsIsImmutableAndShared() {
+        var tile = Tiles.TILES.get(17);
+        var placedTile = new PlacedTile(tile, PlayerColor.RED, Rotation.NONE, new Pos(0, 0));
+        var otherPlacedTile = new PlacedTile(tile, PlayerColor.BLUE, Rotation.LEFT, new Pos(1, 0));
+        var potentialOccupants = placedTile.potentialOccupants();
+        assertSame(potentialOccupants, otherPlacedTile.potentialOccupants());
+        var occupant = potentialOccupants.iterator().next();
+        assertThrows(UnsupportedOperationException.class, () -> potentialOccupants.remove(occupant));
+        assertThrows(UnsupportedOperationException.class,
+                () -> potentialOccupants.add(new Occupant(Occupant.Kind.PAWN, 17_9)));
+        assertThrows(UnsupportedOperationException.class, potentialOccupants::clear);
+    }
+
     @Test
     void placedTilePotentialOccupantsWorksWithRiverButNoLake() {
         var zoneMeadow1 = new Zone.Meadow(10, List.of(), null);
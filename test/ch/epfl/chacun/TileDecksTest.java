@@ -192,6 +192,48 @@ class TileDecksTest {
                 decks.withTopTileDrawnUntil(Tile.Kind.MENHIR, falsePredicate).menhirTiles());
     }
 
+    @Test
+    void tileDecksDrawnDecksAreViewsSharingTheirTiles() {
+        var dN = new ArrayList<Tile>();
+        for (int i = 0; i < 10; ++i)
+            dN.add(getTile(i, Tile.Kind.NORMAL));
+        var decks = new TileDecks(List.of(), dN, List.of());
+        var drawn = decks.withTopTileDrawn(Tile.Kind.NORMAL).withTopTileDrawn(Tile.Kind.NORMAL);
+        assertSame(drawn.normalTiles(), new TileDecks(drawn.startTiles(), drawn.normalTiles(), List.of()).normalTiles());
+        assertEquals(dN.subList(2, 10), drawn.normalTiles());
+        assertEquals(dN.subList(2, 10).hashCode(), drawn.normalTiles().hashCode());
+        assertEquals(dN.get(5), drawn.normalTiles().get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> drawn.normalTiles().get(8));
+
+        var until = drawn.withTopTileDrawnUntil(Tile.Kind.NORMAL, tile -> tile.id() == 7);
+        assertEquals(dN.get(7), until.topTile(Tile.Kind.NORMAL));
+        assertEquals(3, until.deckSize(Tile.Kind.NORMAL));
+        assertSame(until, until.withTopTileDrawnUntil(Tile.Kind.NORMAL, tile -> true));
+        assertEquals(dN.subList(2, 10), drawn.normalTiles());
+    }
+
+    @Test
+    void tileDecksDecksOfRangesStopAtTheEndOfTheirRange() {
+        var tiles = new Tile[6];
+        for (int i = 0; i < tiles.length; ++i)
+            tiles[i] = getTile(i, Tile.Kind.NORMAL);
+        var first = TileDeck.of(tiles, 0, 3);
+        var second = TileDeck.of(tiles, 3, 6);
+        assertEquals(List.of(tiles).subList(0, 3), first);
+        assertEquals(List.of(tiles).subList(3, 6), second);
+
+        var decks = new TileDecks(List.of(), first, List.of());
+        var drawn = decks.withTopTileDrawnUntil(Tile.Kind.NORMAL, tile -> tile.id() == 4);
+        assertEquals(0, drawn.deckSize(Tile.Kind.NORMAL));
+        assertNull(drawn.topTile(Tile.Kind.NORMAL));
+        assertThrows(IllegalArgumentException.class, () -> drawn.withTopTileDrawn(Tile.Kind.NORMAL));
+        assertEquals(List.of(tiles).subList(3, 6), second);
+
+        assertEquals(List.of(), TileDeck.of(tiles, 6, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> TileDeck.of(tiles, 4, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> TileDeck.of(tiles, 0, 7));
+    }
+
     record ConstantPredicate(boolean b) implements Predicate<Tile> {
         @Override
         public boolean test(Tile tile) {
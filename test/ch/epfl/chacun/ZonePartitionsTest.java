@@ -5,8 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 class ZonePartitionsTest {
     @Test
@@ -956,4 +955,24 @@ class ZonePartitionsTest {
         assertEquals(forests, partition.forests());
         assertEquals(riverSystems, partition.riverSystems());
     }
-}
\ No newline at end of file
+
+    @Test
+    void zonePartitionsBuilderReturnsUnmodifiedPartitions() {
+        assertSame(ZonePartitions.EMPTY, new ZonePartitions.Builder(ZonePartitions.EMPTY).build());
+
+        var tile = Tiles.TILES.get(56);
+        var initialBuilder = new ZonePartitions.Builder(ZonePartitions.EMPTY);
+        initialBuilder.addTile(tile);
+        var partitions = initialBuilder.build();
+        var forest = (Zone.Forest) tile.zones().stream().filter(Zone.Forest.class::isInstance).findFirst().get();
+
+        var b = new ZonePartitions.Builder(partitions);
+        b.addInitialOccupant(PlayerColor.RED, Occupant.Kind.PAWN, forest);
+        var occupiedPartitions = b.build();
+        assertNotEquals(partitions.forests(), occupiedPartitions.forests());
+        assertSame(partitions.meadows(), occupiedPartitions.meadows());
+        assertSame(partitions.rivers(), occupiedPartitions.rivers());
+        assertSame(partitions.riverSystems(), occupiedPartitions.riverSystems());
+        assertSame(occupiedPartitions, b.build());
+    }
+}